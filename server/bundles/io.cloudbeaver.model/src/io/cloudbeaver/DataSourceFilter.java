@@ -17,6 +17,7 @@
 
 package io.cloudbeaver;
 
+import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 
 @FunctionalInterface
@@ -28,4 +29,15 @@ public interface DataSourceFilter {
      * @return true if datasource accessible
      */
     boolean filter(DBPDataSourceContainer dataSourceContainer);
+
+    /**
+     * Filter datasource by id before its configuration is loaded.
+     * Datasources rejected here are not loaded in the session registry at all.
+     *
+     * @param dataSourceId datasource id
+     * @return false if datasource is not accessible
+     */
+    default boolean filterId(@NotNull String dataSourceId) {
+        return true;
+    }
 }
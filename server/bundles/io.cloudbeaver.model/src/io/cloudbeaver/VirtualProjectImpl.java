@@ -100,6 +100,6 @@ public class VirtualProjectImpl extends BaseProjectImpl {
     @NotNull
     @Override
     protected DBPDataSourceRegistry createDataSourceRegistry() {
-        return new WebDataSourceRegistryProxy(new DataSourceRegistry(this), dataSourceFilter);
+        return new WebDataSourceRegistryProxy(new DataSourceRegistry(this, new WebDataSourceConfigurationManager(this, dataSourceFilter)), dataSourceFilter);
     }
 }
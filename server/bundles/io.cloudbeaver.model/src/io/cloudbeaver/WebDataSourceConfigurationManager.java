@@ -0,0 +1,218 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver;
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.registry.DataSourceConfigurationManagerNIO;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Data sources configuration manager of virtual (session) projects.
+ * <p>
+ * Configuration files are read and parsed once and kept as immutable snapshots shared by all sessions.
+ * Snapshot is versioned by file modification time and size, so any change of configuration file
+ * (by this or another server node) makes sessions read the new version.
+ * Each session reads a view of the snapshot which contains only data sources accepted by the session
+ * data source filter, so session registries don't parse and keep data sources the user can't access.
+ * Registries (and data source containers) are still created per session because they hold per-session state:
+ * connection status, credentials and execution contexts.
+ */
+public class WebDataSourceConfigurationManager extends DataSourceConfigurationManagerNIO {
+
+    private static final Log log = Log.getLog(WebDataSourceConfigurationManager.class);
+
+    private static final int MAX_SNAPSHOTS = 1000;
+    private static final String ATTR_CONNECTIONS = "connections";
+
+    private static final Gson gson = new Gson();
+
+    // Access-ordered, so the eldest entry is the least recently used configuration
+    private static final Map<Path, ConfigurationSnapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, ConfigurationSnapshot> eldest) {
+            return size() > MAX_SNAPSHOTS;
+        }
+    };
+
+    private final Path metadataFolder;
+    @Nullable
+    private final DataSourceFilter dataSourceFilter;
+    // Set when configuration was read with some data sources filtered out. Such configuration can't be saved back.
+    private volatile boolean filteredViewRead;
+
+    public WebDataSourceConfigurationManager(@NotNull DBPProject project, @Nullable DataSourceFilter dataSourceFilter) {
+        super(project);
+        this.metadataFolder = GeneralUtils.getMetadataFolder(project.getAbsolutePath());
+        this.dataSourceFilter = dataSourceFilter;
+    }
+
+    @Nullable
+    @Override
+    public InputStream readConfiguration(@NotNull String name, @Nullable Collection<String> dataSourceIds) throws DBException, IOException {
+        if (dataSourceIds != null) {
+            // Partial reads are not shared
+            return super.readConfiguration(name, dataSourceIds);
+        }
+        Path configPath = metadataFolder.resolve(name).toAbsolutePath().normalize();
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(configPath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return super.readConfiguration(name, null);
+        }
+        long modifyTime = attrs.lastModifiedTime().toMillis();
+        long size = attrs.size();
+        ConfigurationSnapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(configPath);
+        }
+        if (snapshot == null || snapshot.modifyTime != modifyTime || snapshot.size != size) {
+            InputStream configStream = super.readConfiguration(name, null);
+            if (configStream == null) {
+                return null;
+            }
+            byte[] data;
+            try (configStream) {
+                data = configStream.readAllBytes();
+            }
+            // Concurrent reads of the same version produce the same data, so there is no need to lock the read
+            snapshot = new ConfigurationSnapshot(data, modifyTime, size);
+            synchronized (snapshots) {
+                snapshots.put(configPath, snapshot);
+            }
+        }
+        return new ByteArrayInputStream(makeSessionView(snapshot));
+    }
+
+    @Override
+    public void writeConfiguration(@NotNull String name, @Nullable byte[] data) throws DBException, IOException {
+        if (filteredViewRead) {
+            // Data sources filtered out of the view would be lost
+            throw new DBException("Data sources configuration was read partially and can't be saved");
+        }
+        try {
+            super.writeConfiguration(name, data);
+        } finally {
+            invalidateSnapshot(name);
+        }
+    }
+
+    /**
+     * Returns snapshot data with data sources filtered by session filter.
+     * Original data is returned if all data sources are accessible (or configuration isn't a data sources config).
+     */
+    @NotNull
+    private byte[] makeSessionView(@NotNull ConfigurationSnapshot snapshot) throws IOException {
+        if (dataSourceFilter == null || snapshot.root == null || snapshot.connectionIds.isEmpty()) {
+            return snapshot.data;
+        }
+        Set<String> hiddenIds = new HashSet<>();
+        for (String id : snapshot.connectionIds) {
+            if (!dataSourceFilter.filterId(id)) {
+                hiddenIds.add(id);
+            }
+        }
+        if (hiddenIds.isEmpty()) {
+            return snapshot.data;
+        }
+        filteredViewRead = true;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(snapshot.data.length);
+        try (JsonWriter jsonWriter = gson.newJsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8))) {
+            jsonWriter.beginObject();
+            for (Map.Entry<String, JsonElement> entry : snapshot.root.entrySet()) {
+                jsonWriter.name(entry.getKey());
+                if (ATTR_CONNECTIONS.equals(entry.getKey())) {
+                    jsonWriter.beginObject();
+                    for (Map.Entry<String, JsonElement> connection : entry.getValue().getAsJsonObject().entrySet()) {
+                        if (!hiddenIds.contains(connection.getKey())) {
+                            jsonWriter.name(connection.getKey());
+                            gson.toJson(connection.getValue(), jsonWriter);
+                        }
+                    }
+                    jsonWriter.endObject();
+                } else {
+                    gson.toJson(entry.getValue(), jsonWriter);
+                }
+            }
+            jsonWriter.endObject();
+        } catch (JsonIOException e) {
+            throw new IOException("Error writing data sources configuration", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private void invalidateSnapshot(@NotNull String name) {
+        Path configPath = metadataFolder.resolve(name).toAbsolutePath().normalize();
+        synchronized (snapshots) {
+            snapshots.remove(configPath);
+        }
+    }
+
+    /**
+     * Immutable configuration snapshot. Parsed tree is never modified after the snapshot is created.
+     */
+    private static class ConfigurationSnapshot {
+        private final byte[] data;
+        private final long modifyTime;
+        private final long size;
+        // Parsed data sources configuration, null for other configuration files (e.g. encrypted credentials)
+        @Nullable
+        private final JsonObject root;
+        private final Set<String> connectionIds;
+
+        ConfigurationSnapshot(byte[] data, long modifyTime, long size) {
+            this.data = data;
+            this.modifyTime = modifyTime;
+            this.size = size;
+            this.root = parseDataSourcesConfig(data);
+            this.connectionIds = root == null ?
+                Collections.emptySet() :
+                Collections.unmodifiableSet(new LinkedHashSet<>(root.getAsJsonObject(ATTR_CONNECTIONS).keySet()));
+        }
+
+        @Nullable
+        private static JsonObject parseDataSourcesConfig(byte[] data) {
+            if (data.length == 0 || data[0] != '{' && !Character.isWhitespace(data[0])) {
+                return null;
+            }
+            try {
+                JsonElement element = JsonParser.parseString(new String(data, StandardCharsets.UTF_8));
+                if (element.isJsonObject() && element.getAsJsonObject().get(ATTR_CONNECTIONS) instanceof JsonObject) {
+                    return element.getAsJsonObject();
+                }
+            } catch (JsonParseException e) {
+                log.debug("Configuration is not a data sources config: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+}
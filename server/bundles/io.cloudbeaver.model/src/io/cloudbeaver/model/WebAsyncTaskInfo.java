@@ -16,6 +16,7 @@
  */
 package io.cloudbeaver.model;
 
+import io.cloudbeaver.model.session.WebSessionMemoryConsumer;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 
 /**
@@ -30,6 +31,9 @@ public class WebAsyncTaskInfo {
     private Object extendedResult;
     private String status;
     private Throwable jobError;
+    private int queuePosition;
+    private long resultSize;
+    private long lastAccessTime = System.currentTimeMillis();
 
     private AbstractJob job;
 
@@ -103,6 +107,73 @@ public class WebAsyncTaskInfo {
         this.jobError = jobError;
     }
 
+    /**
+     * Position of the task in server task queue or 0 if task was already started
+     */
+    public int getQueuePosition() {
+        return queuePosition;
+    }
+
+    public void setQueuePosition(int queuePosition) {
+        this.queuePosition = queuePosition;
+    }
+
+    /**
+     * Estimated size of retained task result in bytes
+     */
+    public long getResultSize() {
+        return resultSize;
+    }
+
+    /**
+     * Updates estimated size of retained result and extended result
+     */
+    public void updateResultSize() {
+        this.resultSize = getMemoryUsage(result) + getMemoryUsage(extendedResult);
+    }
+
+    /**
+     * Moves task results to disk (if results support it). Results are read back when they are claimed.
+     *
+     * @return released size
+     */
+    public long releaseResultMemory() {
+        long oldSize = resultSize;
+        for (Object taskResult : new Object[] { result, extendedResult }) {
+            if (taskResult instanceof WebSessionMemoryConsumer) {
+                ((WebSessionMemoryConsumer) taskResult).releaseMemory(Long.MAX_VALUE);
+            }
+        }
+        updateResultSize();
+        return oldSize - resultSize;
+    }
+
+    /**
+     * Disposes task results. Called when finished task is removed from the session.
+     */
+    public void disposeResult() {
+        for (Object taskResult : new Object[] { result, extendedResult }) {
+            if (taskResult instanceof WebSessionMemoryConsumer) {
+                ((WebSessionMemoryConsumer) taskResult).disposeData();
+            }
+        }
+        this.result = null;
+        this.extendedResult = null;
+        this.resultSize = 0;
+    }
+
+    private static long getMemoryUsage(Object taskResult) {
+        return taskResult instanceof WebSessionMemoryConsumer ? ((WebSessionMemoryConsumer) taskResult).getMemoryUsage() : 0;
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public void setLastAccessTime(long lastAccessTime) {
+        this.lastAccessTime = lastAccessTime;
+    }
+
     public AbstractJob getJob() {
         return job;
     }
@@ -20,6 +20,7 @@ import io.cloudbeaver.utils.CBModelConstants;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Objects;
 
 /**
  * Web server message
@@ -38,6 +39,11 @@ public class WebServerMessage {
     private final long time;
     private final String message;
     private final Throwable error;
+    // Log sequence number, assigned when message is added to the session log
+    private long id;
+    // Repeated identical messages are merged
+    private volatile int repeatCount = 1;
+    private volatile long lastTime;
 
 
     public WebServerMessage(MessageType type, String message) {
@@ -51,10 +57,19 @@ public class WebServerMessage {
     public WebServerMessage(MessageType type, String message, Throwable error) {
         this.type = type;
         this.time = System.currentTimeMillis();
+        this.lastTime = this.time;
         this.message = message;
         this.error = error;
     }
 
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
     public MessageType getType() {
         return type;
     }
@@ -67,6 +82,31 @@ public class WebServerMessage {
         return message;
     }
 
+    public int getRepeatCount() {
+        return repeatCount;
+    }
+
+    /**
+     * Time of the last repeat of this message
+     */
+    public String getLastTime() {
+        return CBModelConstants.ISO_DATE_FORMAT.format(lastTime);
+    }
+
+    /**
+     * Checks whether the other message is a repeat of this one (same type, text and error)
+     */
+    public boolean isSameMessage(WebServerMessage other) {
+        return type == other.type &&
+            Objects.equals(message, other.message) &&
+            (error == null ? other.error == null : other.error != null && error.getClass() == other.error.getClass());
+    }
+
+    public synchronized void addRepeat(long repeatTime) {
+        repeatCount++;
+        lastTime = repeatTime;
+    }
+
     public String getStackTrace() {
         if (error != null) {
             StringWriter buf = new StringWriter();
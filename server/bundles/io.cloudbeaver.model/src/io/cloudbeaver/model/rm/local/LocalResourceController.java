@@ -49,11 +49,8 @@ import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Resource manager API
@@ -76,6 +73,7 @@ public class LocalResourceController implements RMController {
     private final SMController smController;
 
     private final Map<String, VirtualProjectImpl> projectRegistries = new LinkedHashMap<>();
+    private final LocalResourceIndex resourceIndex = LocalResourceIndex.getInstance();
 
     public LocalResourceController(
         SMCredentialsProvider credentialsProvider,
@@ -206,18 +204,19 @@ public class LocalResourceController implements RMController {
                 return new RMProject[0];
             }
             var projects = new ArrayList<RMProject>();
-            var allPaths = Files.list(sharedProjectsPath).collect(Collectors.toList());
-            for (Path path : allPaths) {
+            for (LocalResourceIndex.ResourceStat projectStat : resourceIndex.getChildren(sharedProjectsPath, false)) {
+                Path path = sharedProjectsPath.resolve(projectStat.getName());
+                if (!projectStat.isFolder()) {
+                    log.error("Project path " + path + " is not a directory");
+                    continue;
+                }
                 var projectPerms = getProjectPermissions(
                     makeProjectIdFromPath(path, RMProject.Type.SHARED),
                     RMProject.Type.SHARED
                 );
-                var rmProject = makeProjectFromPath(path, projectPerms, RMProject.Type.SHARED, false);
-                projects.add(rmProject);
+                projects.add(makeProject(path, projectPerms, RMProject.Type.SHARED, projectStat.getLastModified()));
             }
-            return projects.stream()
-                .filter(Objects::nonNull)
-                .toArray(RMProject[]::new);
+            return projects.toArray(new RMProject[0]);
         } catch (IOException e) {
             throw new DBException("Error reading shared projects", e);
         }
@@ -244,6 +243,7 @@ public class LocalResourceController implements RMController {
         }
         try {
             Files.createDirectories(getProjectPath(project.getId()));
+            resourceIndex.invalidate(projectPath);
             return project;
         } catch (IOException e) {
             throw new DBException("Error creating project path", e);
@@ -259,6 +259,7 @@ public class LocalResourceController implements RMController {
         }
         try {
             CommonUtils.deleteDirectory(targetPath);
+            resourceIndex.invalidate(targetPath);
             smController.deleteAllObjectPermissions(projectId, SMObjects.PROJECT);
         } catch (IOException e) {
             throw new DBException("Error deleting project '" + project.getName() + "'", e);
@@ -361,12 +362,10 @@ public class LocalResourceController implements RMController {
         boolean readHistory,
         boolean recursive
     ) throws IOException {
-        try (Stream<Path> files = Files.list(folderPath)) {
-            return files.filter(path -> !path.getFileName().toString().startsWith(".")) // skip hidden files
-                .map((Path path) -> makeResourceFromPath(projectId, path, readProperties, readHistory, recursive))
-                .filter(Objects::nonNull)
-                .toArray(RMResource[]::new);
-        }
+        // Hidden files are skipped by index
+        return resourceIndex.getChildren(folderPath, recursive).stream()
+            .map(stat -> makeResource(projectId, folderPath.resolve(stat.getName()), stat, readProperties, readHistory, recursive))
+            .toArray(RMResource[]::new);
     }
 
     @Override
@@ -388,6 +387,8 @@ public class LocalResourceController implements RMController {
             }
         } catch (IOException e) {
             throw new DBException("Error creating resource '" + resourcePath + "'", e);
+        } finally {
+            resourceIndex.invalidate(targetPath);
         }
         return DEFAULT_CHANGE_ID;
     }
@@ -408,6 +409,9 @@ public class LocalResourceController implements RMController {
             Files.move(oldTargetPath, newTargetPath);
         } catch (IOException e) {
             throw new DBException("Error moving resource '" + oldResourcePath + "'", e);
+        } finally {
+            resourceIndex.invalidate(oldTargetPath);
+            resourceIndex.invalidate(newTargetPath);
         }
         return DEFAULT_CHANGE_ID;
     }
@@ -428,6 +432,8 @@ public class LocalResourceController implements RMController {
             }
         } catch (IOException e) {
             throw new DBException("Error deleting resource '" + resourcePath + "'", e);
+        } finally {
+            resourceIndex.invalidate(targetPath);
         }
         // Nullify resource properties if any
         VirtualProjectImpl project = getProjectMetadata(projectId);
@@ -486,6 +492,8 @@ public class LocalResourceController implements RMController {
             Files.write(targetPath, data);
         } catch (IOException e) {
             throw new DBException("Error reading resource '" + resourcePath + "'", e);
+        } finally {
+            resourceIndex.invalidate(targetPath);
         }
 
         return DEFAULT_CHANGE_ID;
@@ -569,6 +577,19 @@ public class LocalResourceController implements RMController {
             return null;
         }
 
+        long createTime = 0;
+        if (Files.exists(path)) {
+            try {
+                createTime = Files.getLastModifiedTime(path).toMillis();
+            } catch (IOException e) {
+                log.error(e);
+            }
+        }
+        return makeProject(path, permissions, type, createTime);
+    }
+
+    @NotNull
+    private RMProject makeProject(Path path, Set<RMProjectPermission> permissions, RMProject.Type type, long createTime) {
         Set<String> allProjectPermissions = permissions.stream()
             .flatMap(rmProjectPermission -> rmProjectPermission.getAllPermissions().stream())
             .collect(Collectors.toSet());
@@ -579,13 +600,8 @@ public class LocalResourceController implements RMController {
         project.setId(makeProjectIdFromPath(path, type));
         project.setType(type);
         project.setProjectPermissions(allProjectPermissions);
-        if (Files.exists(path)) {
-            try {
-                project.setCreateTime(
-                    OffsetDateTime.ofInstant(Files.getLastModifiedTime(path).toInstant(), ZoneId.of("UTC")).toInstant().toEpochMilli());
-            } catch (IOException e) {
-                log.error(e);
-            }
+        if (createTime > 0) {
+            project.setCreateTime(createTime);
         }
 
         return project;
@@ -639,27 +655,36 @@ public class LocalResourceController implements RMController {
         if (Files.notExists(path)) {
             return null;
         }
+        LocalResourceIndex.ResourceStat stat = LocalResourceIndex.readStat(path);
+        if (stat == null) {
+            return null;
+        }
+        return makeResource(projectId, path, stat, readProperties, readHistory, recursive);
+    }
+
+    @NotNull
+    private RMResource makeResource(
+        @NotNull String projectId,
+        @NotNull Path path,
+        @NotNull LocalResourceIndex.ResourceStat stat,
+        boolean readProperties,
+        boolean readHistory,
+        boolean recursive
+    ) {
         RMResource resource = new RMResource();
-        resource.setName(path.getFileName().toString());
-        resource.setFolder(Files.isDirectory(path));
+        resource.setName(stat.getName());
+        resource.setFolder(stat.isFolder());
         if (!resource.isFolder()) {
-            try {
-                resource.setLastModified(
-                    Files.getLastModifiedTime(path).toMillis());
-            } catch (IOException e) {
-                log.debug("Error getting last modified time: " + e.getMessage());
-            }
+            resource.setLastModified(stat.getLastModified());
+            resource.setLength(stat.getSize());
         }
         try {
-            if (!resource.isFolder()) {
-                resource.setLength(Files.size(path));
-            }
             if (readHistory) {
                 resource.setChanges(
                     Collections.singletonList(
                         new RMResourceChange(
                             DEFAULT_CHANGE_ID,
-                            new Date(Files.getLastModifiedTime(path).toMillis()),
+                            new Date(stat.getLastModified()),
                             null
                         ))
                 );
@@ -0,0 +1,330 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.model.rm.local;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index of resource folders.
+ * <p>
+ * Folder listings (names and file stats) are read from disk with a single file tree walk and kept in memory.
+ * Each indexed folder is registered in the file system watch service, so external changes invalidate its listing.
+ * Changes made by the resource controller invalidate listings immediately.
+ * If folder can't be watched its listing is not cached and is always read from disk.
+ * Hidden files (started with dot) are not indexed.
+ */
+public class LocalResourceIndex {
+
+    private static final Log log = Log.getLog(LocalResourceIndex.class);
+
+    private static final int MAX_FOLDERS = 10000;
+    // Listings are re-read periodically in case some file system events were missed
+    private static final long MAX_FOLDER_AGE = 5 * 60 * 1000;
+
+    private static LocalResourceIndex instance;
+
+    public static synchronized LocalResourceIndex getInstance() {
+        if (instance == null) {
+            instance = new LocalResourceIndex();
+        }
+        return instance;
+    }
+
+    public static class ResourceStat {
+        private final String name;
+        private final boolean folder;
+        private final long lastModified;
+        private final long size;
+
+        ResourceStat(@NotNull String name, @NotNull BasicFileAttributes attrs) {
+            this.name = name;
+            this.folder = attrs.isDirectory();
+            this.lastModified = attrs.lastModifiedTime().toMillis();
+            this.size = attrs.isDirectory() ? 0 : attrs.size();
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        public boolean isFolder() {
+            return folder;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    private static class CachedFolder {
+        private final List<ResourceStat> children;
+        private final WatchKey watchKey;
+        private final long loadTime = System.currentTimeMillis();
+
+        CachedFolder(List<ResourceStat> children, WatchKey watchKey) {
+            this.children = children;
+            this.watchKey = watchKey;
+        }
+    }
+
+    // Access-ordered, so the eldest entry is the least recently used folder
+    private final Map<Path, CachedFolder> folders = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, CachedFolder> eldest) {
+            if (size() > MAX_FOLDERS) {
+                cancelWatch(eldest.getValue().watchKey);
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<WatchKey, Path> watchKeys = new HashMap<>();
+    // Increased on each invalidation. Listings read concurrently with invalidation are not cached.
+    private long version;
+    private WatchService watchService;
+    private boolean watchDisabled;
+
+    private LocalResourceIndex() {
+    }
+
+    @Nullable
+    static ResourceStat readStat(@NotNull Path path) {
+        try {
+            return new ResourceStat(path.getFileName().toString(), Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (IOException e) {
+            log.debug("Error reading attributes of " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns folder children. If folder is not in index then it is read from disk.
+     *
+     * @param recursive read the whole folder subtree (in one walk) if folder is not indexed yet
+     */
+    @NotNull
+    public List<ResourceStat> getChildren(@NotNull Path folder, boolean recursive) throws IOException {
+        Path folderPath = folder.toAbsolutePath().normalize();
+        long readVersion;
+        synchronized (this) {
+            CachedFolder cached = folders.get(folderPath);
+            if (cached != null) {
+                if (System.currentTimeMillis() - cached.loadTime < MAX_FOLDER_AGE) {
+                    return cached.children;
+                }
+                // Concurrent reads may have got the same watch key, they must not cache listings with the cancelled key
+                version++;
+                removeFolder(folderPath);
+            }
+            readVersion = version;
+        }
+        return readFolders(folderPath, recursive, readVersion);
+    }
+
+    /**
+     * Invalidates listing of the resource parent folder and resource subtree.
+     * Must be called after each resource change.
+     */
+    public synchronized void invalidate(@NotNull Path path) {
+        Path resourcePath = path.toAbsolutePath().normalize();
+        version++;
+        if (resourcePath.getParent() != null) {
+            removeFolder(resourcePath.getParent());
+        }
+        removeFolders(folderPath -> folderPath.startsWith(resourcePath));
+    }
+
+    /**
+     * Removes folder from index and cancels its watch key. Folder is registered again when it is read.
+     */
+    private void removeFolder(@NotNull Path folderPath) {
+        CachedFolder cached = folders.remove(folderPath);
+        if (cached != null) {
+            cancelWatch(cached.watchKey);
+        }
+    }
+
+    /**
+     * Removes matching folders from index and cancels their watch keys.
+     */
+    private void removeFolders(@NotNull Predicate<Path> filter) {
+        for (Iterator<Map.Entry<Path, CachedFolder>> iter = folders.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<Path, CachedFolder> entry = iter.next();
+            if (filter.test(entry.getKey())) {
+                cancelWatch(entry.getValue().watchKey);
+                iter.remove();
+            }
+        }
+    }
+
+    private void cancelWatch(@NotNull WatchKey key) {
+        key.cancel();
+        watchKeys.remove(key);
+    }
+
+    @NotNull
+    private List<ResourceStat> readFolders(@NotNull Path rootFolder, boolean recursive, long readVersion) throws IOException {
+        Map<Path, List<ResourceStat>> listings = new LinkedHashMap<>();
+        Map<Path, WatchKey> folderKeys = new HashMap<>();
+        Files.walkFileTree(
+            rootFolder,
+            EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+            recursive ? Integer.MAX_VALUE : 1,
+            new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(rootFolder)) {
+                        if (isHidden(dir)) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        addStat(dir, attrs);
+                    }
+                    listings.put(dir, new ArrayList<>());
+                    // Register before the directory is read, so no changes are missed
+                    WatchKey key = registerFolder(dir);
+                    if (key != null) {
+                        folderKeys.put(dir, key);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!isHidden(file)) {
+                        addStat(file, attrs);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                    if (file.equals(rootFolder)) {
+                        throw exc;
+                    }
+                    log.debug("Error reading resource " + file + ": " + exc.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                private void addStat(Path path, BasicFileAttributes attrs) {
+                    List<ResourceStat> parentListing = listings.get(path.getParent());
+                    if (parentListing != null) {
+                        parentListing.add(new ResourceStat(path.getFileName().toString(), attrs));
+                    }
+                }
+            });
+        List<ResourceStat> rootListing = listings.get(rootFolder);
+        if (rootListing == null) {
+            throw new NoSuchFileException(rootFolder.toString());
+        }
+        synchronized (this) {
+            if (readVersion == version) {
+                for (Map.Entry<Path, List<ResourceStat>> listing : listings.entrySet()) {
+                    WatchKey key = folderKeys.get(listing.getKey());
+                    if (key != null) {
+                        folders.put(listing.getKey(), new CachedFolder(
+                            Collections.unmodifiableList(listing.getValue()), key));
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableList(rootListing);
+    }
+
+    private static boolean isHidden(@NotNull Path path) {
+        Path fileName = path.getFileName();
+        return fileName != null && fileName.toString().startsWith(".");
+    }
+
+    @Nullable
+    private synchronized WatchKey registerFolder(@NotNull Path folder) {
+        if (watchDisabled) {
+            return null;
+        }
+        try {
+            if (watchService == null) {
+                watchService = folder.getFileSystem().newWatchService();
+                Thread watchThread = new Thread(this::processWatchEvents, "Resource index watcher");
+                watchThread.setDaemon(true);
+                watchThread.start();
+            }
+            WatchKey key = folder.register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+            watchKeys.put(key, folder);
+            return key;
+        } catch (UnsupportedOperationException e) {
+            log.debug("File system watch is not supported, resource index is disabled");
+            watchDisabled = true;
+            return null;
+        } catch (IOException e) {
+            // Most likely watch limit is reached
+            log.debug("Can't watch resource folder " + folder + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void processWatchEvents() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                }
+            }
+            synchronized (this) {
+                version++;
+                Path folder = watchKeys.get(key);
+                // Reset before folders are removed: removal cancels the key
+                boolean folderExists = key.reset();
+                if (overflow) {
+                    removeFolders(folderPath -> true);
+                } else if (folder != null) {
+                    removeFolder(folder);
+                }
+                if (!folderExists) {
+                    // Folder was deleted
+                    watchKeys.remove(key);
+                    if (folder != null) {
+                        removeFolders(folderPath -> folderPath.startsWith(folder));
+                    }
+                }
+            }
+        }
+    }
+
+}
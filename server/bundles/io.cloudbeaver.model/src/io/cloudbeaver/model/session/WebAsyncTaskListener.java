@@ -0,0 +1,37 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.model.session;
+
+import io.cloudbeaver.model.WebAsyncTaskInfo;
+import org.jkiss.code.NotNull;
+
+/**
+ * Async task listener.
+ * Is notified about task status changes and task completion.
+ * Called from task job thread, so implementations must not block.
+ */
+public interface WebAsyncTaskListener {
+
+    void asyncTaskChanged(@NotNull WebAsyncTaskInfo taskInfo);
+
+    /**
+     * Called when session is closed. Listener is removed from the session after that.
+     */
+    default void sessionClosed() {
+    }
+
+}
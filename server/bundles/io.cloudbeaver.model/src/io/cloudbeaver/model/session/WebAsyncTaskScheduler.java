@@ -0,0 +1,226 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.model.session;
+
+import io.cloudbeaver.model.WebAsyncTaskInfo;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+
+import java.util.*;
+
+/**
+ * Server-wide scheduler of async tasks.
+ * <p>
+ * Each task type may have a limited number of simultaneously running tasks (unlimited by default).
+ * Tasks above the limit wait in queue.
+ * Queued tasks are grouped by owner (user or anonymous session) and owners are served in round-robin order,
+ * so one user can't take all workers by submitting many tasks. All owners have equal shares: each owner
+ * gets one task started per round, there are no per-owner weights.
+ * Task job is scheduled only when the task leaves the queue.
+ */
+public class WebAsyncTaskScheduler {
+
+    private static final WebAsyncTaskScheduler instance = new WebAsyncTaskScheduler();
+
+    public static WebAsyncTaskScheduler getInstance() {
+        return instance;
+    }
+
+    private final Map<WebAsyncTaskType, TaskPool> pools = new EnumMap<>(WebAsyncTaskType.class);
+
+    private WebAsyncTaskScheduler() {
+        for (WebAsyncTaskType type : WebAsyncTaskType.values()) {
+            pools.put(type, new TaskPool());
+        }
+    }
+
+    /**
+     * Runs task job when the task type pool has a free worker.
+     * {@link #taskFinished(WebAsyncTaskType, WebAsyncTaskInfo)} must be called when the job is done
+     * (including jobs cancelled before they were run).
+     *
+     * @param ownerId  task owner. Queued tasks of different owners are started in turn.
+     * @param maxRunning maximum number of simultaneously running tasks of this type. Not positive means no limit.
+     */
+    public void submitTask(
+        @NotNull WebAsyncTaskType type,
+        @NotNull String ownerId,
+        @NotNull WebAsyncTaskInfo taskInfo,
+        int maxRunning
+    ) {
+        TaskPool pool = pools.get(type);
+        List<AbstractJob> jobsToStart;
+        synchronized (pool) {
+            pool.maxRunning = maxRunning > 0 ? maxRunning : Integer.MAX_VALUE;
+            pool.ownerQueues.computeIfAbsent(ownerId, id -> new ArrayDeque<>()).add(new QueuedTask(taskInfo));
+            pool.queuedCount++;
+            jobsToStart = pool.pollStartedJobs();
+        }
+        startJobs(jobsToStart);
+    }
+
+    /**
+     * Releases the worker taken by the task. May be called several times, worker is released only once.
+     */
+    public void taskFinished(@NotNull WebAsyncTaskType type, @NotNull WebAsyncTaskInfo taskInfo) {
+        TaskPool pool = pools.get(type);
+        List<AbstractJob> jobsToStart;
+        synchronized (pool) {
+            if (!pool.runningTasks.remove(taskInfo)) {
+                return;
+            }
+            jobsToStart = pool.pollStartedJobs();
+        }
+        startJobs(jobsToStart);
+    }
+
+    /**
+     * Removes task from queue.
+     *
+     * @return true if task was queued, false if it is already started (or wasn't submitted)
+     */
+    public boolean cancelQueuedTask(@NotNull WebAsyncTaskInfo taskInfo) {
+        for (TaskPool pool : pools.values()) {
+            synchronized (pool) {
+                for (Iterator<Deque<QueuedTask>> iter = pool.ownerQueues.values().iterator(); iter.hasNext(); ) {
+                    Deque<QueuedTask> queue = iter.next();
+                    if (queue.removeIf(task -> task.taskInfo == taskInfo)) {
+                        pool.queuedCount--;
+                        if (queue.isEmpty()) {
+                            iter.remove();
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns 1-based position of the task in queue (the number of tasks which will be started before it plus one)
+     * or 0 if task is not queued.
+     */
+    public int getQueuePosition(@NotNull WebAsyncTaskInfo taskInfo) {
+        for (TaskPool pool : pools.values()) {
+            synchronized (pool) {
+                int ownerIndex = 0;
+                for (Deque<QueuedTask> queue : pool.ownerQueues.values()) {
+                    int taskIndex = 0;
+                    for (QueuedTask task : queue) {
+                        if (task.taskInfo == taskInfo) {
+                            return pool.getQueuePosition(ownerIndex, taskIndex);
+                        }
+                        taskIndex++;
+                    }
+                    ownerIndex++;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Scheduler metrics: running and queued tasks, started tasks count and wait times (in milliseconds) per task type.
+     */
+    @NotNull
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (Map.Entry<WebAsyncTaskType, TaskPool> entry : pools.entrySet()) {
+            String prefix = "tasks." + entry.getKey().name().toLowerCase(Locale.ENGLISH) + ".";
+            TaskPool pool = entry.getValue();
+            synchronized (pool) {
+                metrics.put(prefix + "running", pool.runningTasks.size());
+                metrics.put(prefix + "queued", pool.queuedCount);
+                metrics.put(prefix + "started", pool.startedCount);
+                metrics.put(prefix + "waitTimeAvg", pool.startedCount == 0 ? 0 : pool.totalWaitTime / pool.startedCount);
+                metrics.put(prefix + "waitTimeMax", pool.maxWaitTime);
+            }
+        }
+        return metrics;
+    }
+
+    private static void startJobs(@NotNull List<AbstractJob> jobs) {
+        for (AbstractJob job : jobs) {
+            job.schedule();
+        }
+    }
+
+    private static class QueuedTask {
+        private final WebAsyncTaskInfo taskInfo;
+        private final long queueTime = System.currentTimeMillis();
+
+        QueuedTask(WebAsyncTaskInfo taskInfo) {
+            this.taskInfo = taskInfo;
+        }
+    }
+
+    private static class TaskPool {
+        // Owner queues in round-robin order: the first owner is served next
+        private final LinkedHashMap<String, Deque<QueuedTask>> ownerQueues = new LinkedHashMap<>();
+        // Tasks which took workers
+        private final Set<WebAsyncTaskInfo> runningTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int maxRunning = Integer.MAX_VALUE;
+        private int queuedCount;
+        private long startedCount;
+        private long totalWaitTime;
+        private long maxWaitTime;
+
+        /**
+         * Takes tasks from queues while there are free workers
+         */
+        @NotNull
+        List<AbstractJob> pollStartedJobs() {
+            List<AbstractJob> jobs = new ArrayList<>();
+            while (runningTasks.size() < maxRunning && !ownerQueues.isEmpty()) {
+                Iterator<Map.Entry<String, Deque<QueuedTask>>> iter = ownerQueues.entrySet().iterator();
+                Map.Entry<String, Deque<QueuedTask>> ownerEntry = iter.next();
+                QueuedTask task = ownerEntry.getValue().poll();
+                // Move owner to the end of the round
+                iter.remove();
+                if (!ownerEntry.getValue().isEmpty()) {
+                    ownerQueues.put(ownerEntry.getKey(), ownerEntry.getValue());
+                }
+                if (task == null) {
+                    continue;
+                }
+                queuedCount--;
+                runningTasks.add(task.taskInfo);
+                long waitTime = System.currentTimeMillis() - task.queueTime;
+                startedCount++;
+                totalWaitTime += waitTime;
+                maxWaitTime = Math.max(maxWaitTime, waitTime);
+                jobs.add(task.taskInfo.getJob());
+            }
+            return jobs;
+        }
+
+        int getQueuePosition(int ownerIndex, int taskIndex) {
+            // Each owner ahead in the round gives one task per round, including the round of this task
+            int position = taskIndex + 1;
+            int index = 0;
+            for (Deque<QueuedTask> queue : ownerQueues.values()) {
+                if (index != ownerIndex) {
+                    position += Math.min(queue.size(), index < ownerIndex ? taskIndex + 1 : taskIndex);
+                }
+                index++;
+            }
+            return position;
+        }
+    }
+
+}
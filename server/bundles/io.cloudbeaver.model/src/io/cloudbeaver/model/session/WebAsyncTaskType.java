@@ -0,0 +1,45 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.model.session;
+
+import io.cloudbeaver.service.sql.WebSQLConstants;
+import org.jkiss.code.NotNull;
+
+/**
+ * Async task type.
+ * Each type may have its own server-wide limit of simultaneously running tasks (resource quota).
+ * Running tasks are not limited if the quota is not set.
+ */
+public enum WebAsyncTaskType {
+    QUERY(WebSQLConstants.QUOTA_PROP_QUERY_TASKS_LIMIT),
+    EXPORT(WebSQLConstants.QUOTA_PROP_EXPORT_TASKS_LIMIT),
+    EXPLAIN(WebSQLConstants.QUOTA_PROP_EXPLAIN_TASKS_LIMIT);
+
+    private final String limitQuota;
+
+    WebAsyncTaskType(@NotNull String limitQuota) {
+        this.limitQuota = limitQuota;
+    }
+
+    /**
+     * Resource quota which sets running tasks limit
+     */
+    @NotNull
+    public String getLimitQuota() {
+        return limitQuota;
+    }
+}
@@ -33,6 +33,8 @@ import io.cloudbeaver.utils.WebDataSourceUtils;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
@@ -73,6 +75,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -106,9 +109,10 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
     private boolean cacheExpired;
 
     private final Map<String, WebConnectionInfo> connections = new HashMap<>();
-    private final List<WebServerMessage> sessionMessages = new ArrayList<>();
+    private final WebSessionMessageLog sessionMessages = new WebSessionMessageLog(WebSessionMessageLog.DEFAULT_CAPACITY);
 
     private final Map<String, WebAsyncTaskInfo> asyncTasks = new HashMap<>();
+    private final List<WebAsyncTaskListener> asyncTaskListeners = new CopyOnWriteArrayList<>();
     private final Map<String, Function<Object, Object>> attributeDisposers = new HashMap<>();
 
     // Map of auth tokens. Key is authentication provider
@@ -349,7 +353,8 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
     public VirtualProjectImpl createVirtualProject(RMProject project) {
         // Do not filter data sources from user project
         DataSourceFilter filter = project.getType() == RMProject.Type.GLOBAL
-            ? this::isDataSourceAccessible
+            ? new GlobalDataSourceFilter(
+                !project.getProjectPermissions().contains(RMProjectPermission.DATA_SOURCES_EDIT.getPermissionId()))
             : x -> true;
         VirtualProjectImpl sessionProject = application.createProjectImpl(
             project,
@@ -398,8 +403,12 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
     private boolean isDataSourceAccessible(DBPDataSourceContainer dataSource) {
         return dataSource.isExternallyProvided() ||
             dataSource.isTemporary() ||
-            this.hasPermission(DBWConstants.PERMISSION_ADMIN) ||
-            accessibleConnectionIds.contains(dataSource.getId());
+            isDataSourceIdAccessible(dataSource.getId());
+    }
+
+    private boolean isDataSourceIdAccessible(String dataSourceId) {
+        return this.hasPermission(DBWConstants.PERMISSION_ADMIN) ||
+            accessibleConnectionIds.contains(dataSourceId);
     }
 
     @NotNull
@@ -471,7 +480,40 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
     }
 
     private synchronized void refreshAccessibleConnectionIds() {
-        this.accessibleConnectionIds = readAccessibleConnectionIds();
+        Set<String> connectionIds = readAccessibleConnectionIds();
+        boolean granted = !accessibleConnectionIds.containsAll(connectionIds);
+        this.accessibleConnectionIds = connectionIds;
+        if (granted) {
+            // Global projects load accessible data sources only, so newly granted ones must be read
+            for (VirtualProjectImpl project : accessibleProjects) {
+                if (project.getRmProject().getType() == RMProject.Type.GLOBAL) {
+                    project.getDataSourceRegistry().refreshConfig();
+                }
+            }
+        }
+    }
+
+    /**
+     * Filter of global project data sources.
+     * Read-only projects load accessible data sources only. Editable projects load all data sources,
+     * otherwise inaccessible data sources would be lost on save.
+     */
+    private class GlobalDataSourceFilter implements DataSourceFilter {
+        private final boolean filterConfiguration;
+
+        GlobalDataSourceFilter(boolean filterConfiguration) {
+            this.filterConfiguration = filterConfiguration;
+        }
+
+        @Override
+        public boolean filter(DBPDataSourceContainer dataSourceContainer) {
+            return isDataSourceAccessible(dataSourceContainer);
+        }
+
+        @Override
+        public boolean filterId(@NotNull String dataSourceId) {
+            return !filterConfiguration || isDataSourceIdAccessible(dataSourceId);
+        }
     }
 
     private synchronized void authAsAnonymousUser() throws DBException {
@@ -500,11 +542,7 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
      */
     @Association
     public List<WebServerMessage> getSessionMessages() {
-        synchronized (sessionMessages) {
-            List<WebServerMessage> copy = new ArrayList<>(sessionMessages);
-            sessionMessages.clear();
-            return copy;
-        }
+        return sessionMessages.readMessages(null, 0, true);
     }
 
     public synchronized void updateInfo(
@@ -586,6 +624,20 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
 
     @Override
     public void close() {
+        for (WebAsyncTaskListener listener : asyncTaskListeners) {
+            try {
+                listener.sessionClosed();
+            } catch (Exception e) {
+                log.debug("Error notifying async task listener: " + e.getMessage());
+            }
+        }
+        asyncTaskListeners.clear();
+        for (WebAsyncTaskInfo taskInfo : getAsyncTasks()) {
+            WebAsyncTaskScheduler.getInstance().cancelQueuedTask(taskInfo);
+            if (taskInfo.getJob() != null && taskInfo.getJob().isFinished()) {
+                taskInfo.disposeResult();
+            }
+        }
         try {
             resetNavigationModel();
             resetSessionCache();
@@ -636,6 +688,31 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
         }
     }
 
+    @NotNull
+    public List<WebAsyncTaskInfo> getAsyncTasks() {
+        synchronized (asyncTasks) {
+            return new ArrayList<>(asyncTasks.values());
+        }
+    }
+
+    public void addAsyncTaskListener(@NotNull WebAsyncTaskListener listener) {
+        asyncTaskListeners.add(listener);
+    }
+
+    public void removeAsyncTaskListener(@NotNull WebAsyncTaskListener listener) {
+        asyncTaskListeners.remove(listener);
+    }
+
+    private void fireAsyncTaskChanged(@NotNull WebAsyncTaskInfo taskInfo) {
+        for (WebAsyncTaskListener listener : asyncTaskListeners) {
+            try {
+                listener.asyncTaskChanged(taskInfo);
+            } catch (Exception e) {
+                log.debug("Error notifying async task listener: " + e.getMessage());
+            }
+        }
+    }
+
     public WebAsyncTaskInfo asyncTaskStatus(String taskId, boolean removeOnFinish) throws DBWebException {
         synchronized (asyncTasks) {
             WebAsyncTaskInfo taskInfo = asyncTasks.get(taskId);
@@ -643,6 +720,8 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
                 throw new DBWebException("Task '" + taskId + "' not found");
             }
             taskInfo.setRunning(taskInfo.getJob() != null && !taskInfo.getJob().isFinished());
+            taskInfo.setQueuePosition(taskInfo.isRunning() ? WebAsyncTaskScheduler.getInstance().getQueuePosition(taskInfo) : 0);
+            taskInfo.setLastAccessTime(System.currentTimeMillis());
             if (removeOnFinish && !taskInfo.isRunning()) {
                 asyncTasks.remove(taskId);
             }
@@ -650,6 +729,38 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
         }
     }
 
+    /**
+     * Removes finished tasks which were not accessed for the specified time
+     * and the least recently accessed finished tasks above the limit.
+     *
+     * @param ttl              finished task time to live (0 means no limit)
+     * @param maxFinishedTasks maximum number of finished tasks (0 means no limit)
+     */
+    public void expireAsyncTasks(long ttl, int maxFinishedTasks) {
+        List<WebAsyncTaskInfo> expiredTasks = new ArrayList<>();
+        synchronized (asyncTasks) {
+            List<WebAsyncTaskInfo> finishedTasks = new ArrayList<>();
+            for (WebAsyncTaskInfo taskInfo : asyncTasks.values()) {
+                if (taskInfo.getJob() != null && taskInfo.getJob().isFinished()) {
+                    finishedTasks.add(taskInfo);
+                }
+            }
+            // The most recently accessed first
+            finishedTasks.sort(Comparator.comparingLong(WebAsyncTaskInfo::getLastAccessTime).reversed());
+            long expireTime = System.currentTimeMillis() - ttl;
+            for (int i = 0; i < finishedTasks.size(); i++) {
+                WebAsyncTaskInfo taskInfo = finishedTasks.get(i);
+                if ((ttl > 0 && taskInfo.getLastAccessTime() < expireTime) || (maxFinishedTasks > 0 && i >= maxFinishedTasks)) {
+                    asyncTasks.remove(taskInfo.getId());
+                    expiredTasks.add(taskInfo);
+                }
+            }
+        }
+        for (WebAsyncTaskInfo taskInfo : expiredTasks) {
+            taskInfo.disposeResult();
+        }
+    }
+
     public boolean asyncTaskCancel(String taskId) throws DBWebException {
         WebAsyncTaskInfo taskInfo;
         synchronized (asyncTasks) {
@@ -659,6 +770,15 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
             }
         }
         AbstractJob job = taskInfo.getJob();
+        if (job instanceof AsyncTaskJob) {
+            // Job may be already taken from the scheduler queue but not scheduled yet, it must not start then
+            ((AsyncTaskJob) job).cancelRequested = true;
+            if (WebAsyncTaskScheduler.getInstance().cancelQueuedTask(taskInfo)) {
+                // Task wasn't started. Run its job anyway, so it finishes as cancelled.
+                job.schedule();
+                return true;
+            }
+        }
         if (job != null) {
             job.cancel();
         }
@@ -666,78 +786,167 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
     }
 
     public WebAsyncTaskInfo createAndRunAsyncTask(String taskName, WebAsyncTaskProcessor<?> runnable) {
+        return createAndRunAsyncTask(taskName, WebAsyncTaskType.QUERY, runnable);
+    }
+
+    /**
+     * Creates async task and submits it to the server-wide task scheduler.
+     * Task starts immediately if there is a free worker for its type, otherwise it waits in queue.
+     */
+    public WebAsyncTaskInfo createAndRunAsyncTask(String taskName, WebAsyncTaskType taskType, WebAsyncTaskProcessor<?> runnable) {
         int taskId = TASK_ID.incrementAndGet();
         WebAsyncTaskInfo asyncTask = getAsyncTask(String.valueOf(taskId), taskName, true);
 
-        AbstractJob job = new AbstractJob(taskName) {
-            @Override
-            protected IStatus run(DBRProgressMonitor monitor) {
-                int curTaskCount = taskCount.incrementAndGet();
-
-                TaskProgressMonitor taskMonitor = new TaskProgressMonitor(monitor, asyncTask);
-                try {
-                    Number queryLimit = application.getAppConfiguration().getResourceQuota(WebSQLConstants.QUOTA_PROP_QUERY_LIMIT);
-                    if (queryLimit != null && curTaskCount > queryLimit.intValue()) {
-                        throw new DBQuotaException(
-                            "Maximum simultaneous queries quota exceeded", WebSQLConstants.QUOTA_PROP_QUERY_LIMIT, queryLimit.intValue(), curTaskCount);
-                    }
-
-                    runnable.run(taskMonitor);
-                    asyncTask.setResult(runnable.getResult());
-                    asyncTask.setExtendedResult(runnable.getExtendedResults());
-                    asyncTask.setStatus("Finished");
-                    asyncTask.setRunning(false);
-                } catch (InvocationTargetException e) {
-                    addSessionError(e.getTargetException());
-                    asyncTask.setJobError(e.getTargetException());
-                } catch (Exception e) {
-                    asyncTask.setJobError(e);
-                } finally {
-                    taskCount.decrementAndGet();
-                }
-                return Status.OK_STATUS;
-            }
-        };
-
+        AsyncTaskJob job = new AsyncTaskJob(taskName, taskType, asyncTask, runnable);
         asyncTask.setJob(job);
         asyncTask.setRunning(true);
-        job.schedule();
+        asyncTask.setStatus("Queued");
+
+        Number tasksLimit = application.getAppConfiguration().getResourceQuota(taskType.getLimitQuota());
+        WebUser user = getUser();
+        WebAsyncTaskScheduler.getInstance().submitTask(
+            taskType,
+            user == null ? "session:" + id : "user:" + user.getUserId(),
+            asyncTask,
+            tasksLimit == null ? 0 : tasksLimit.intValue());
         return asyncTask;
     }
 
-    public void addSessionError(Throwable exception) {
-        synchronized (sessionMessages) {
-            sessionMessages.add(new WebServerMessage(exception));
+    ///////////////////////////////////////////////////////
+    // Memory accounting
+
+    /**
+     * Estimated size of session data retained in memory: results of finished async tasks
+     * and session attributes which are memory consumers (e.g. SQL results cache).
+     */
+    public long getMemoryUsage() {
+        return getAsyncTasksMemoryUsage() + getAttributesMemoryUsage();
+    }
+
+    public long getAsyncTasksMemoryUsage() {
+        long size = 0;
+        synchronized (asyncTasks) {
+            for (WebAsyncTaskInfo taskInfo : asyncTasks.values()) {
+                size += taskInfo.getResultSize();
+            }
         }
+        return size;
     }
 
-    public void addSessionMessage(WebServerMessage message) {
-        synchronized (sessionMessages) {
-            sessionMessages.add(message);
+    public long getAttributesMemoryUsage() {
+        long size = 0;
+        for (WebSessionMemoryConsumer consumer : getMemoryConsumers()) {
+            size += consumer.getMemoryUsage();
         }
+        return size;
     }
 
-    public void addInfoMessage(String message) {
-        addSessionMessage(new WebServerMessage(WebServerMessage.MessageType.INFO, message));
+    /**
+     * Releases retained data. Least recently used results of finished async tasks are released first,
+     * then least recently used data of other memory consumers.
+     * Task results are moved to disk if they support it, other task results are disposed.
+     *
+     * @return released size
+     */
+    public long releaseMemory(long size) {
+        long released = 0;
+        List<WebAsyncTaskInfo> finishedTasks = new ArrayList<>();
+        synchronized (asyncTasks) {
+            for (WebAsyncTaskInfo taskInfo : asyncTasks.values()) {
+                if (taskInfo.getResultSize() > 0 && taskInfo.getJob() != null && taskInfo.getJob().isFinished()) {
+                    finishedTasks.add(taskInfo);
+                }
+            }
+        }
+        finishedTasks.sort(Comparator.comparingLong(WebAsyncTaskInfo::getLastAccessTime));
+        List<WebAsyncTaskInfo> releasedTasks = new ArrayList<>();
+        for (WebAsyncTaskInfo taskInfo : finishedTasks) {
+            if (released >= size) {
+                break;
+            }
+            long spilledSize = taskInfo.releaseResultMemory();
+            if (spilledSize > 0) {
+                released += spilledSize;
+                continue;
+            }
+            synchronized (asyncTasks) {
+                if (asyncTasks.remove(taskInfo.getId()) == null) {
+                    continue;
+                }
+            }
+            released += taskInfo.getResultSize();
+            releasedTasks.add(taskInfo);
+        }
+        for (WebAsyncTaskInfo taskInfo : releasedTasks) {
+            taskInfo.disposeResult();
+            addSessionMessage(new WebServerMessage(
+                WebServerMessage.MessageType.WARNING,
+                "Results of task '" + taskInfo.getName() + "' were released because of session memory limit"));
+        }
+        for (WebSessionMemoryConsumer consumer : getMemoryConsumers()) {
+            if (released >= size) {
+                break;
+            }
+            released += consumer.releaseMemory(size - released);
+        }
+        return released;
     }
 
-    public List<WebServerMessage> readLog(Integer maxEntries, Boolean clearLog) {
-        synchronized (sessionMessages) {
-            List<WebServerMessage> messages = new ArrayList<>();
-            int entryCount = CommonUtils.toInt(maxEntries);
-            if (entryCount == 0 || entryCount >= sessionMessages.size()) {
-                messages.addAll(sessionMessages);
-                if (CommonUtils.toBoolean(clearLog)) {
-                    sessionMessages.clear();
+    /**
+     * Releases retained data if session memory limit is exceeded
+     */
+    public void checkMemoryUsage() {
+        Number memoryLimit = application.getAppConfiguration().getResourceQuota(WebSQLConstants.QUOTA_PROP_SESSION_MEMORY_LIMIT);
+        long maxSize = memoryLimit == null ? WebSQLConstants.SESSION_MEMORY_LIMIT : memoryLimit.longValue();
+        if (maxSize <= 0) {
+            return;
+        }
+        long memoryUsage = getMemoryUsage();
+        if (memoryUsage > maxSize) {
+            long released = releaseMemory(memoryUsage - maxSize);
+            log.debug("Session '" + id + "' memory limit exceeded (" + memoryUsage + " bytes), released " + released + " bytes");
+        }
+    }
+
+    @NotNull
+    private List<WebSessionMemoryConsumer> getMemoryConsumers() {
+        List<WebSessionMemoryConsumer> consumers = new ArrayList<>();
+        synchronized (attributes) {
+            for (Object value : attributes.values()) {
+                if (value instanceof PersistentAttribute) {
+                    value = ((PersistentAttribute) value).getValue();
                 }
-            } else {
-                messages.addAll(sessionMessages.subList(0, maxEntries));
-                if (CommonUtils.toBoolean(clearLog)) {
-                    sessionMessages.removeAll(messages);
+                if (value instanceof WebSessionMemoryConsumer) {
+                    consumers.add((WebSessionMemoryConsumer) value);
                 }
             }
-            return messages;
         }
+        return consumers;
+    }
+
+    public void addSessionError(Throwable exception) {
+        sessionMessages.addMessage(new WebServerMessage(exception));
+    }
+
+    public void addSessionMessage(WebServerMessage message) {
+        sessionMessages.addMessage(message);
+    }
+
+    public void addInfoMessage(String message) {
+        addSessionMessage(new WebServerMessage(WebServerMessage.MessageType.INFO, message));
+    }
+
+    public List<WebServerMessage> readLog(Integer maxEntries, Boolean clearLog) {
+        return readLog(null, maxEntries, clearLog);
+    }
+
+    /**
+     * Reads session log.
+     *
+     * @param afterId read only entries added after the entry with the specified ID
+     */
+    public List<WebServerMessage> readLog(@Nullable Long afterId, Integer maxEntries, Boolean clearLog) {
+        return sessionMessages.readMessages(afterId, CommonUtils.toInt(maxEntries), CommonUtils.toBoolean(clearLog));
     }
 
     @Override
@@ -1044,16 +1253,90 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
     private class SessionProgressMonitor extends BaseProgressMonitor {
         @Override
         public void beginTask(String name, int totalWork) {
-            synchronized (sessionMessages) {
-                sessionMessages.add(new WebServerMessage(WebServerMessage.MessageType.INFO, name));
-            }
+            addInfoMessage(name);
         }
 
         @Override
         public void subTask(String name) {
-            synchronized (sessionMessages) {
-                sessionMessages.add(new WebServerMessage(WebServerMessage.MessageType.INFO, name));
+            addInfoMessage(name);
+        }
+    }
+
+    private class AsyncTaskJob extends AbstractJob {
+
+        private final WebAsyncTaskType taskType;
+        private final WebAsyncTaskInfo asyncTask;
+        private final WebAsyncTaskProcessor<?> runnable;
+        private volatile boolean cancelRequested;
+        private volatile boolean started;
+
+        AsyncTaskJob(String taskName, WebAsyncTaskType taskType, WebAsyncTaskInfo asyncTask, WebAsyncTaskProcessor<?> runnable) {
+            super(taskName);
+            this.taskType = taskType;
+            this.asyncTask = asyncTask;
+            this.runnable = runnable;
+            addJobChangeListener(new JobChangeAdapter() {
+                @Override
+                public void done(IJobChangeEvent event) {
+                    // Called for cancelled jobs which were never run too
+                    WebAsyncTaskScheduler.getInstance().taskFinished(taskType, asyncTask);
+                    if (!started && asyncTask.isRunning()) {
+                        finishCancelled();
+                    }
+                }
+            });
+        }
+
+        private void finishCancelled() {
+            asyncTask.setJobError(new DBException("Task was cancelled before start"));
+            asyncTask.setStatus("Cancelled");
+            asyncTask.setRunning(false);
+            fireAsyncTaskChanged(asyncTask);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            started = true;
+            if (cancelRequested) {
+                WebAsyncTaskScheduler.getInstance().taskFinished(taskType, asyncTask);
+                finishCancelled();
+                return Status.OK_STATUS;
+            }
+            asyncTask.setStatus("Running");
+            int curTaskCount = taskCount.incrementAndGet();
+
+            TaskProgressMonitor taskMonitor = new TaskProgressMonitor(monitor, asyncTask);
+            try {
+                Number queryLimit = application.getAppConfiguration().getResourceQuota(WebSQLConstants.QUOTA_PROP_QUERY_LIMIT);
+                if (queryLimit != null && curTaskCount > queryLimit.intValue()) {
+                    throw new DBQuotaException(
+                        "Maximum simultaneous queries quota exceeded", WebSQLConstants.QUOTA_PROP_QUERY_LIMIT, queryLimit.intValue(), curTaskCount);
+                }
+
+                runnable.run(taskMonitor);
+                asyncTask.setResult(runnable.getResult());
+                asyncTask.setExtendedResult(runnable.getExtendedResults());
+                asyncTask.updateResultSize();
+                Number spillSize = application.getAppConfiguration().getResourceQuota(WebSQLConstants.QUOTA_PROP_TASK_RESULT_SPILL_SIZE);
+                if (spillSize != null && spillSize.longValue() > 0 && asyncTask.getResultSize() > spillSize.longValue()) {
+                    asyncTask.releaseResultMemory();
+                }
+                asyncTask.setStatus("Finished");
+                asyncTask.setRunning(false);
+            } catch (InvocationTargetException e) {
+                addSessionError(e.getTargetException());
+                asyncTask.setJobError(e.getTargetException());
+            } catch (Exception e) {
+                asyncTask.setJobError(e);
+            } finally {
+                taskCount.decrementAndGet();
+                WebAsyncTaskScheduler.getInstance().taskFinished(taskType, asyncTask);
+                asyncTask.setRunning(false);
+                asyncTask.setLastAccessTime(System.currentTimeMillis());
+                fireAsyncTaskChanged(asyncTask);
+                checkMemoryUsage();
             }
+            return Status.OK_STATUS;
         }
     }
 
@@ -1070,12 +1353,14 @@ public class WebSession extends AbstractSessionPersistent implements SMSession,
         public void beginTask(String name, int totalWork) {
             super.beginTask(name, totalWork);
             asyncTask.setStatus(name);
+            fireAsyncTaskChanged(asyncTask);
         }
 
         @Override
         public void subTask(String name) {
             super.subTask(name);
             asyncTask.setStatus(name);
+            fireAsyncTaskChanged(asyncTask);
         }
     }
 
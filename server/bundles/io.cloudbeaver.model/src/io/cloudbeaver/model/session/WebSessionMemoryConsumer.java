@@ -0,0 +1,46 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.model.session;
+
+/**
+ * Session data which retains significant amount of memory (query results, caches).
+ * Retained size of session data is accounted and limited, see {@link WebSession#checkMemoryUsage()}.
+ */
+public interface WebSessionMemoryConsumer {
+
+    /**
+     * Estimated size of retained data in bytes
+     */
+    long getMemoryUsage();
+
+    /**
+     * Releases memory: evicts least recently used data or moves it to disk.
+     *
+     * @param size size to release
+     * @return released size
+     */
+    default long releaseMemory(long size) {
+        return 0;
+    }
+
+    /**
+     * Disposes retained data, including data moved to disk. Called when data is removed from the session.
+     */
+    default void disposeData() {
+    }
+
+}
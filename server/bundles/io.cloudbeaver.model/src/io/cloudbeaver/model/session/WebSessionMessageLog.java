@@ -0,0 +1,108 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.model.session;
+
+import io.cloudbeaver.model.WebServerMessage;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Session message log.
+ * <p>
+ * Fixed-capacity lock-free ring buffer: when log is full the oldest messages are overwritten.
+ * Each message gets a sequence number (message ID), so clients may read only messages after the last read one.
+ * Message identical to the last one is not added: repeat count and time of the last message are updated instead
+ * (only if the last message was not read yet, so clients never miss repeats of already read messages).
+ */
+public class WebSessionMessageLog {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    private final AtomicReferenceArray<WebServerMessage> messages;
+    // Sequence number of the next message
+    private final AtomicLong nextId = new AtomicLong();
+    // Messages before this sequence number were consumed (cleared)
+    private final AtomicLong readId = new AtomicLong();
+    // Messages up to this sequence number may have been returned to clients
+    private final AtomicLong deliveredId = new AtomicLong(-1);
+
+    public WebSessionMessageLog(int capacity) {
+        this.capacity = capacity;
+        this.messages = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void addMessage(@NotNull WebServerMessage message) {
+        long lastId = nextId.get() - 1;
+        if (lastId >= readId.get() && lastId > deliveredId.get()) {
+            WebServerMessage lastMessage = messages.get(getSlot(lastId));
+            if (lastMessage != null && lastMessage.getId() == lastId && lastMessage.isSameMessage(message)) {
+                lastMessage.addRepeat(System.currentTimeMillis());
+                return;
+            }
+        }
+        long id = nextId.getAndIncrement();
+        message.setId(id);
+        messages.set(getSlot(id), message);
+    }
+
+    /**
+     * Reads messages.
+     *
+     * @param afterId    read messages after the specified ID. If null, then read all messages which were not cleared
+     * @param maxEntries maximum number of messages to read (0 means no limit)
+     * @param clear      clear read messages, next reads will not return them
+     */
+    @NotNull
+    public List<WebServerMessage> readMessages(@Nullable Long afterId, int maxEntries, boolean clear) {
+        long lastId = nextId.get();
+        long fromId = Math.max(readId.get(), lastId - capacity);
+        if (afterId != null) {
+            fromId = Math.max(fromId, afterId + 1);
+        }
+        // Mark messages as delivered before reading them, so they are not updated with repeats anymore
+        deliveredId.accumulateAndGet(lastId - 1, Math::max);
+        List<WebServerMessage> result = new ArrayList<>();
+        long id = fromId;
+        for (; id < lastId && (maxEntries <= 0 || result.size() < maxEntries); id++) {
+            WebServerMessage message = messages.get(getSlot(id));
+            if (message == null || message.getId() < id) {
+                // Message ID was claimed but message is not written yet. Stop here, so it is read next time
+                break;
+            }
+            // Skip messages which were overwritten by newer ones
+            if (message.getId() == id) {
+                result.add(message);
+            }
+        }
+        if (clear) {
+            long consumedId = id;
+            readId.accumulateAndGet(consumedId, Math::max);
+        }
+        return result;
+    }
+
+    private int getSlot(long id) {
+        return (int) (id % capacity);
+    }
+
+}
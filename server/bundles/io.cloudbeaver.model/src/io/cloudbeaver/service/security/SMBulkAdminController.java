@@ -0,0 +1,51 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.security;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.security.SMObjectType;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk grants management (e.g. for users provisioning).
+ * Each operation is executed in a single transaction.
+ */
+public interface SMBulkAdminController {
+
+    /**
+     * Replaces roles of several users.
+     *
+     * @param userRoles user ID to user role IDs map
+     */
+    void setUsersRoles(@NotNull Map<String, String[]> userRoles, String grantorId) throws DBException;
+
+    /**
+     * Replaces all object permissions of the subject (of the specified object type).
+     *
+     * @param objectPermissions object ID to granted permissions map
+     */
+    void setSubjectObjectPermissions(
+        @NotNull String subjectId,
+        @NotNull SMObjectType objectType,
+        @NotNull Map<String, Set<String>> objectPermissions,
+        @NotNull String grantor
+    ) throws DBException;
+
+}
@@ -0,0 +1,57 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.security;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.security.SMObjectType;
+import org.jkiss.dbeaver.model.security.user.SMObjectPermissions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk resolution of effective object permissions.
+ * Effective permissions include permissions granted to the subject directly and to all subject roles.
+ */
+public interface SMObjectPermissionsResolver {
+
+    /**
+     * Returns effective object permissions of several subjects.
+     *
+     * @return subject ID to available objects permissions map. Contains all requested subjects.
+     */
+    @NotNull
+    Map<String, List<SMObjectPermissions>> getSubjectsObjectPermissions(
+        @NotNull Set<String> subjectIds,
+        @NotNull SMObjectType objectType
+    ) throws DBException;
+
+    /**
+     * Returns effective permissions of subject on several objects.
+     *
+     * @return object ID to object permissions map. Contains all requested objects.
+     */
+    @NotNull
+    Map<String, SMObjectPermissions> getObjectsPermissions(
+        @NotNull String subjectId,
+        @NotNull Set<String> objectIds,
+        @NotNull SMObjectType objectType
+    ) throws DBException;
+
+}
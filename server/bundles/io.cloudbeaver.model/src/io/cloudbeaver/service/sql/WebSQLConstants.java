@@ -28,10 +28,37 @@ public class WebSQLConstants {
     public static final String QUOTA_PROP_TEXT_PREVIEW_MAX_LENGTH = "sqlTextPreviewMaxLength";
     public static final String QUOTA_PROP_BINARY_PREVIEW_MAX_LENGTH = "sqlBinaryPreviewMaxLength";
     public static final String QUOTA_PROP_RM_FILE_SIZE_LIMIT = "resourceManagerFileSizeLimit";
+    public static final String QUOTA_PROP_RESULTS_CACHE_READ_AHEAD = "sqlResultsCacheReadAhead";
+    public static final String QUOTA_PROP_RESULTS_CACHE_MAX_ROWS = "sqlResultsCacheMaxRows";
+    public static final String QUOTA_PROP_RESULTS_CACHE_MAX_SIZE = "sqlResultsCacheMaxSize";
+    public static final String QUOTA_PROP_RESULTS_CACHE_HEAP_LIMIT = "sqlResultsCacheHeapLimit";
+    public static final String QUOTA_PROP_RESULTS_CACHE_TTL = "sqlResultsCacheTTL";
+    public static final String QUOTA_PROP_QUERY_TASKS_LIMIT = "asyncQueryTasksLimit";
+    public static final String QUOTA_PROP_EXPORT_TASKS_LIMIT = "asyncExportTasksLimit";
+    public static final String QUOTA_PROP_EXPLAIN_TASKS_LIMIT = "asyncExplainTasksLimit";
+    public static final String QUOTA_PROP_SESSION_MEMORY_LIMIT = "sessionMemoryLimit";
+    public static final String QUOTA_PROP_SESSIONS_MEMORY_LIMIT = "sessionsMemoryLimit";
+    public static final String QUOTA_PROP_TASK_RESULT_TTL = "asyncTaskResultTTL";
+    public static final String QUOTA_PROP_FINISHED_TASKS_LIMIT = "asyncFinishedTasksLimit";
+    public static final String QUOTA_PROP_TASK_RESULT_SPILL_SIZE = "asyncTaskResultSpillSize";
 
     public static final int TEXT_PREVIEW_MAX_LENGTH = 4 * 1024;
     public static final int BINARY_PREVIEW_MAX_LENGTH = 255 * 1024;
 
+    // Results cache is disabled unless read-ahead is configured
+    public static final int RESULTS_CACHE_READ_AHEAD = 0;
+    public static final int RESULTS_CACHE_MAX_ROWS = 100000;
+    public static final long RESULTS_CACHE_MAX_SIZE = 50 * 1024 * 1024;
+    public static final long RESULTS_CACHE_HEAP_LIMIT = 10 * 1024 * 1024;
+    public static final long RESULTS_CACHE_TTL = 10 * 60 * 1000;
+
+    public static final long SESSION_MEMORY_LIMIT = 100 * 1024 * 1024;
+    // Total limit of all sessions, in percents of max heap size
+    public static final int SESSIONS_MEMORY_LIMIT_PERCENT = 25;
+
+    public static final long TASK_RESULT_TTL = 30 * 60 * 1000;
+    public static final int FINISHED_TASKS_LIMIT = 100;
+
     public static final String VALUE_TYPE_ATTR = "$type";
 
     public static final String VALUE_TYPE_COLLECTION = "collection";
@@ -42,6 +69,8 @@ public class WebSQLConstants {
 
     public static final String ATTR_TEXT = "text";
     public static final String ATTR_BINARY = "binary";
+    // Content value contains a preview only, full value must be read on demand (with readLobValue)
+    public static final String ATTR_TRUNCATED = "truncated";
     public static final String ATTR_DATA = "data";
     public static final String ATTR_SRID = "srid";
     public static final String ATTR_PROPERTIES = "properties";
@@ -33,6 +33,7 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.nio.file.Path;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -146,6 +147,28 @@ public class WebAppUtils {
         response.addCookie(sessionCookie);
     }
 
+    /**
+     * Checks whether client accepts gzip content encoding
+     */
+    public static boolean isGzipAccepted(HttpServletRequest request) {
+        for (Enumeration<String> headers = request.getHeaders("Accept-Encoding"); headers != null && headers.hasMoreElements(); ) {
+            for (String encoding : headers.nextElement().split(",")) {
+                String[] params = encoding.trim().split(";");
+                if (!params[0].trim().equalsIgnoreCase("gzip")) {
+                    continue;
+                }
+                // gzip;q=0 means encoding is not acceptable
+                for (int i = 1; i < params.length; i++) {
+                    if (params[i].trim().matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static String getRequestCookie(HttpServletRequest request, String cookieName) {
         for (Cookie cookie : request.getCookies()) {
             if (cookie.getName().equals(cookieName)) {
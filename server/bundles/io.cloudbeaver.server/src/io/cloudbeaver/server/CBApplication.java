@@ -30,6 +30,7 @@ import io.cloudbeaver.server.jetty.CBJettyServer;
 import io.cloudbeaver.service.DBWServiceInitializer;
 import io.cloudbeaver.service.security.CBEmbeddedSecurityController;
 import io.cloudbeaver.service.security.EmbeddedSecurityControllerFactory;
+import io.cloudbeaver.service.security.SMObjectPermissionsResolver;
 import io.cloudbeaver.utils.WebAppUtils;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.osgi.service.datalocation.Location;
@@ -112,6 +113,8 @@ public class CBApplication extends BaseWebApplication implements WebAuthApplicat
     private SMAdminController securityController;
 
     private long maxSessionIdleTime = CBConstants.MAX_SESSION_IDLE_TIME;
+    private int graphqlBatchThreads = CBConstants.DEFAULT_GQL_BATCH_THREADS;
+    private int graphqlBatchSessionThreads = CBConstants.DEFAULT_GQL_BATCH_SESSION_THREADS;
 
     private boolean develMode = false;
     private boolean configurationMode = false;
@@ -170,6 +173,22 @@ public class CBApplication extends BaseWebApplication implements WebAuthApplicat
         return maxSessionIdleTime;
     }
 
+    /**
+     * Number of threads executing batched GraphQL requests. Zero means batch items are executed sequentially.
+     * If it is positive then all items of a batch are executed concurrently, including mutations:
+     * clients must not send mutations which depend on each other in one batch.
+     */
+    public int getGraphqlBatchThreads() {
+        return graphqlBatchThreads;
+    }
+
+    /**
+     * Max number of batched GraphQL requests of one session executed concurrently
+     */
+    public int getGraphqlBatchSessionThreads() {
+        return graphqlBatchSessionThreads;
+    }
+
     public CBAppConfig getAppConfiguration() {
         return appConfiguration;
     }
@@ -531,6 +550,8 @@ public class CBApplication extends BaseWebApplication implements WebAuthApplicat
                 JSONUtils.getString(serverConfig, CBConstants.PARAM_WORKSPACE_LOCATION, workspaceLocation), homeFolder);
 
             maxSessionIdleTime = JSONUtils.getLong(serverConfig, CBConstants.PARAM_SESSION_EXPIRE_PERIOD, maxSessionIdleTime);
+            graphqlBatchThreads = JSONUtils.getInteger(serverConfig, CBConstants.PARAM_GQL_BATCH_THREADS, graphqlBatchThreads);
+            graphqlBatchSessionThreads = JSONUtils.getInteger(serverConfig, CBConstants.PARAM_GQL_BATCH_SESSION_THREADS, graphqlBatchSessionThreads);
 
             develMode = JSONUtils.getBoolean(serverConfig, CBConstants.PARAM_DEVEL_MODE, develMode);
             enableSecurityManager = JSONUtils.getBoolean(serverConfig, CBConstants.PARAM_SECURITY_MANAGER, enableSecurityManager);
@@ -810,18 +831,35 @@ public class CBApplication extends BaseWebApplication implements WebAuthApplicat
         try {
             String anonymousRoleId = appConfig.getAnonymousUserRole();
             var securityController = getSecurityController();
-            for (DBPDataSourceContainer ds : WebServiceUtils.getGlobalDataSourceRegistry().getDataSources()) {
-                var datasourcePermissions = securityController.getObjectPermissions(anonymousRoleId, ds.getId(), SMObjects.DATASOURCE);
-                if (CommonUtils.isEmpty(datasourcePermissions.getPermissions())) {
-                    securityController.setObjectPermissions(
-                        Set.of(ds.getId()),
-                        SMObjects.DATASOURCE,
-                        Set.of(anonymousRoleId),
-                        Set.of(SMConstants.DATA_SOURCE_ACCESS_PERMISSION),
-                        adminName
-                    );
+            Set<String> dataSourceIds = WebServiceUtils.getGlobalDataSourceRegistry().getDataSources().stream()
+                .map(DBPDataSourceContainer::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<String> notGrantedDataSourceIds = new LinkedHashSet<>();
+            if (securityController instanceof SMObjectPermissionsResolver) {
+                var datasourcesPermissions = ((SMObjectPermissionsResolver) securityController)
+                    .getObjectsPermissions(anonymousRoleId, dataSourceIds, SMObjects.DATASOURCE);
+                for (var datasourcePermissions : datasourcesPermissions.values()) {
+                    if (CommonUtils.isEmpty(datasourcePermissions.getPermissions())) {
+                        notGrantedDataSourceIds.add(datasourcePermissions.getObjectId());
+                    }
+                }
+            } else {
+                for (String dataSourceId : dataSourceIds) {
+                    var datasourcePermissions = securityController.getObjectPermissions(anonymousRoleId, dataSourceId, SMObjects.DATASOURCE);
+                    if (CommonUtils.isEmpty(datasourcePermissions.getPermissions())) {
+                        notGrantedDataSourceIds.add(dataSourceId);
+                    }
                 }
             }
+            if (!notGrantedDataSourceIds.isEmpty()) {
+                securityController.setObjectPermissions(
+                    notGrantedDataSourceIds,
+                    SMObjects.DATASOURCE,
+                    Set.of(anonymousRoleId),
+                    Set.of(SMConstants.DATA_SOURCE_ACCESS_PERMISSION),
+                    adminName
+                );
+            }
         } catch (Exception e) {
             log.error("Error granting anonymous access to connections", e);
         }
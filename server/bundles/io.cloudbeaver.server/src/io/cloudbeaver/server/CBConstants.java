@@ -44,6 +44,9 @@ public class CBConstants {
 
     public static final String PARAM_SESSION_EXPIRE_PERIOD = "expireSessionAfterPeriod";
 
+    public static final String PARAM_GQL_BATCH_THREADS = "graphqlBatchThreads";
+    public static final String PARAM_GQL_BATCH_SESSION_THREADS = "graphqlBatchSessionThreads";
+
     public static final String PARAM_DEVEL_MODE = "develMode";
     public static final String PARAM_SECURITY_MANAGER = "enableSecurityManager";
 
@@ -60,6 +63,10 @@ public class CBConstants {
     public static final String DEFAULT_ADMIN_NAME = "cbadmin";
     public static final String DEFAULT_ADMIN_ROLE = "admin";
 
+    // Batched GraphQL requests are executed sequentially by default
+    public static final int DEFAULT_GQL_BATCH_THREADS = 0;
+    public static final int DEFAULT_GQL_BATCH_SESSION_THREADS = 4;
+
     // Default max idle time (10 minutes)
     public static final long MAX_SESSION_IDLE_TIME = 10 * 60 * 1000;
 
@@ -51,8 +51,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -81,6 +80,8 @@ public class CBPlatform extends BasePlatformImpl {
 
     private WebSessionManager sessionManager;
     private final List<DBPDriver> applicableDrivers = new ArrayList<>();
+    // Same drivers for fast lookups
+    private volatile Set<DBPDriver> applicableDriverSet = Collections.emptySet();
 
     public static CBPlatform getInstance() {
         if (instance == null) {
@@ -214,6 +215,10 @@ public class CBPlatform extends BasePlatformImpl {
         return applicableDrivers;
     }
 
+    public boolean isDriverApplicable(@NotNull DBPDriver driver) {
+        return applicableDriverSet.contains(driver);
+    }
+
     @NotNull
     @Override
     public DBPDataSourceProviderRegistry getDataSourceProviderRegistry() {
@@ -305,6 +310,7 @@ public class CBPlatform extends BasePlatformImpl {
                 }
             }
         }
+        applicableDriverSet = new HashSet<>(applicableDrivers);
         log.info("Available drivers: " + applicableDrivers.stream().map(DBPDriver::getFullName).collect(Collectors.joining(",")));
     }
 
@@ -4,6 +4,13 @@ public class GraphQLConstants {
 
     public static final String CONTENT_TYPE_JSON_UTF8 = "application/json;charset=UTF-8";
 
+    public static final int RESPONSE_BUFFER_SIZE = 32 * 1024;
+
+    // Max number of parsed documents kept in cache
+    public static final int DOCUMENT_CACHE_SIZE = 1000;
+
+    public static final String ERROR_PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
+
     public static final String SCHEMA_READ_QUERY = "  __schema {\n" +
         "      queryType { name }\n" +
         "      mutationType { name }\n" +
@@ -0,0 +1,143 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.server.graphql;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * LRU cache of parsed and validated GraphQL documents.
+ * <p>
+ * Documents are keyed by SHA-256 hash of the query text. The same hash is used as persisted query ID,
+ * so client may send the hash instead of the full query text once the query was executed.
+ * Documents with parse or validation errors are not cached.
+ */
+public class GraphQLDocumentCache implements PreparsedDocumentProvider {
+
+    private static final GraphQLDocumentCache instance = new GraphQLDocumentCache(GraphQLConstants.DOCUMENT_CACHE_SIZE);
+
+    public static GraphQLDocumentCache getInstance() {
+        return instance;
+    }
+
+    private final Map<String, CachedDocument> documents;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private GraphQLDocumentCache(int maxSize) {
+        this.documents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDocument> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> computeFunction) {
+        String query = executionInput.getQuery();
+        String queryHash = getQueryHash(query);
+        CachedDocument document;
+        synchronized (documents) {
+            document = documents.get(queryHash);
+        }
+        if (document != null && document.query.equals(query)) {
+            hitCount.incrementAndGet();
+            return document.entry;
+        }
+        missCount.incrementAndGet();
+        // Parse outside of lock. Concurrent misses of the same query may parse it twice, that's ok.
+        PreparsedDocumentEntry entry = computeFunction.apply(executionInput);
+        if (!entry.hasErrors()) {
+            synchronized (documents) {
+                documents.put(queryHash, new CachedDocument(query, entry));
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Returns text of the persisted query or null if query with such hash wasn't executed recently
+     */
+    @Nullable
+    public String getPersistedQuery(@NotNull String queryHash) {
+        CachedDocument document;
+        synchronized (documents) {
+            document = documents.get(queryHash.toLowerCase());
+        }
+        return document == null ? null : document.query;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public int getSize() {
+        synchronized (documents) {
+            return documents.size();
+        }
+    }
+
+    @NotNull
+    public static String getQueryHash(@NotNull String query) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static class CachedDocument {
+        private final String query;
+        private final PreparsedDocumentEntry entry;
+
+        CachedDocument(String query, PreparsedDocumentEntry entry) {
+            this.query = query;
+            this.entry = entry;
+        }
+    }
+
+}
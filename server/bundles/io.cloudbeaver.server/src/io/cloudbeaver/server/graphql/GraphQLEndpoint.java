@@ -17,6 +17,7 @@
 package io.cloudbeaver.server.graphql;
 
 import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import graphql.*;
 import graphql.execution.AsyncExecutionStrategy;
 import graphql.execution.DataFetcherExceptionHandlerResult;
@@ -39,23 +40,25 @@ import io.cloudbeaver.server.CBApplication;
 import io.cloudbeaver.service.DBWServiceBindingGraphQL;
 import io.cloudbeaver.service.WebServiceBindingBase;
 import io.cloudbeaver.utils.WebAppUtils;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBConstants;
 import org.jkiss.utils.IOUtils;
 
 import javax.servlet.ServletException;
-import javax.servlet.http.HttpServlet;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.*;
+import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 public class GraphQLEndpoint extends HttpServlet {
 
@@ -69,25 +72,76 @@ public class GraphQLEndpoint extends HttpServlet {
 
     private static final String SESSION_TEMP_COOKIE = "cb-session";
 
+    private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    private static final String HEADER_VARY = "Vary";
+    private static final String ENCODING_GZIP = "gzip";
+
+    private static final String SESSION_BATCH_PERMITS = "cb-gql-batch-permits";
+
     private final GraphQL graphQL;
 
     private static Gson gson = new GsonBuilder()
+        .serializeNulls()
+        .create();
+    // Used for responses in devel mode only
+    private static Gson prettyGson = new GsonBuilder()
         .serializeNulls()
         .setPrettyPrinting()
         .create();
     private GraphQLBindingContext bindingContext;
+    @Nullable
+    private final ExecutorService batchExecutor;
 
     public GraphQLEndpoint() {
         GraphQLSchema schema = buildSchema();
+        batchExecutor = createBatchExecutor(CBApplication.getInstance().getGraphqlBatchThreads());
 
         graphQL = GraphQL
             .newGraphQL(schema)
             .instrumentation(new WebInstrumentation())
             .queryExecutionStrategy(new WebExecutionStrategy())
             .mutationExecutionStrategy(new WebExecutionStrategy())
+            .preparsedDocumentProvider(GraphQLDocumentCache.getInstance())
             .build();
     }
 
+    @Nullable
+    private static ExecutorService createBatchExecutor(int threadCount) {
+        if (threadCount <= 0) {
+            return null;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threadCount,
+            threadCount,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threadCount * 16),
+            runnable -> {
+                Thread thread = new Thread(runnable, "GraphQL batch worker " + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, pool) -> {
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException("GraphQL batch executor is shut down");
+                }
+                // Pool is overloaded - execute request in the servlet thread
+                runnable.run();
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        if (batchExecutor != null) {
+            batchExecutor.shutdownNow();
+        }
+        super.destroy();
+    }
+
     private GraphQLSchema buildSchema() {
         SchemaParser schemaParser = new SchemaParser();
         TypeDefinitionRegistry parsedSchema = new TypeDefinitionRegistry();
@@ -160,44 +214,196 @@ public class GraphQLEndpoint extends HttpServlet {
         String postBody = IOUtils.readToString(request.getReader());
         JsonElement json = gson.fromJson(postBody, JsonElement.class);
         if (json instanceof JsonArray) {
-            setDevelHeaders(request, response);
-            response.setContentType(GraphQLConstants.CONTENT_TYPE_JSON_UTF8);
-            response.getWriter().print("[\n");
-
             JsonArray array = (JsonArray)json;
-            int reqCount = 0;
-            for (int i = 0; i < array.size(); i++) {
-                if (reqCount > 0) {
-                    response.getWriter().print(",\n");
-                }
-                JsonElement item = array.get(i);
+            List<JsonObject> items = new ArrayList<>(array.size());
+            for (JsonElement item : array) {
                 if (item instanceof JsonObject) {
-                    executeSingleQuery(request, response, (JsonObject) item);
-                    reqCount++;
+                    items.add((JsonObject) item);
                 }
             }
-
-            response.getWriter().print("\n]");
+            HttpSession httpSession = request.getSession(false);
+            if (items.isEmpty()) {
+                try (Writer writer = openResponseWriter(request, response)) {
+                    writer.write("[]");
+                }
+            } else if (batchExecutor != null && httpSession != null && items.size() > 1) {
+                executeBatchParallel(request, response, httpSession, items);
+            } else {
+                executeBatchSerial(request, response, items);
+            }
         } else if (json instanceof JsonObject) {
             JsonObject reqObject = (JsonObject) json;
-            executeSingleQuery(request, response, reqObject);
+            ExecutionResult result = executeSingleQuery(request, response, reqObject, false);
+            if (result != null) {
+                sendResult(request, response, result);
+            }
         } else {
             response.sendError(400, "Bad JSON request");
         }
     }
 
-    private void executeSingleQuery(HttpServletRequest request, HttpServletResponse response, JsonObject reqObject) throws IOException {
+    /**
+     * Executes batch items one by one. Each result is written and flushed as soon as it is ready.
+     * The first item is executed before the response body is started, so it may create the session (and set cookies).
+     * Headers set by the next items are ignored: response is already committed.
+     */
+    private void executeBatchSerial(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        List<JsonObject> items) throws IOException
+    {
+        try (BatchResultWriter resultWriter = new BatchResultWriter(request, response)) {
+            for (int i = 0; i < items.size(); i++) {
+                BatchItemResponse itemResponse = i == 0 ? null : new BatchItemResponse(response);
+                ExecutionResult result = executeSingleQuery(request, itemResponse == null ? response : itemResponse, items.get(i), true);
+                if (itemResponse != null) {
+                    itemResponse.discard();
+                }
+                if (!resultWriter.writeResult(result)) {
+                    // Error was sent by the first request
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes batch items concurrently. Results are written in request order: each result is written and flushed
+     * as soon as it and all previous results are ready.
+     * Number of concurrently executed items is limited per session, so the batch never takes over the whole pool.
+     * Items of a new session (without HTTP session yet) are executed sequentially because the first call creates the session.
+     * Each item gets its own request and response wrappers: servlet request and response are not thread-safe.
+     * Headers, cookies and errors set by the first item are applied to the response before its body is started,
+     * ones set by the next items are ignored.
+     * Note that all batch items (including mutations) are executed concurrently.
+     */
+    private void executeBatchParallel(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        HttpSession httpSession,
+        List<JsonObject> items) throws IOException
+    {
+        Semaphore sessionPermits = getSessionBatchPermits(httpSession);
+        List<Future<ExecutionResult>> futures = new ArrayList<>(items.size());
+        List<BatchItemResponse> itemResponses = new ArrayList<>(items.size());
+        try (BatchResultWriter resultWriter = new BatchResultWriter(request, response)) {
+            for (int i = 0; i < items.size(); i++) {
+                // Submit as many items as session permits allow. Wait for a permit only if the next result needs it.
+                while (futures.size() < items.size()) {
+                    if (futures.size() == i) {
+                        sessionPermits.acquire();
+                    } else if (!sessionPermits.tryAcquire()) {
+                        break;
+                    }
+                    BatchItemResponse itemResponse = new BatchItemResponse(response);
+                    itemResponses.add(itemResponse);
+                    futures.add(submitBatchItem(new BatchItemRequest(request), itemResponse, items.get(futures.size()), sessionPermits));
+                }
+                ExecutionResult result;
+                try {
+                    result = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    log.debug("Batched GraphQL request failed", cause);
+                    result = makeErrorResult(cause.getMessage());
+                }
+                if (i == 0) {
+                    itemResponses.get(i).applyTo(response);
+                } else {
+                    itemResponses.get(i).discard();
+                }
+                if (!resultWriter.writeResult(result)) {
+                    // Error was sent by the first request
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch execution interrupted", e);
+        } finally {
+            // Client may disconnect in the middle of the batch, don't execute the rest of it
+            for (Future<ExecutionResult> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Submits batch item. Session permit is released when item is finished or cancelled (even if it was never started).
+     */
+    private Future<ExecutionResult> submitBatchItem(
+        BatchItemRequest itemRequest,
+        BatchItemResponse itemResponse,
+        JsonObject item,
+        Semaphore sessionPermits)
+    {
+        AtomicBoolean permitReleased = new AtomicBoolean();
+        Runnable releasePermit = () -> {
+            if (permitReleased.compareAndSet(false, true)) {
+                sessionPermits.release();
+            }
+        };
+        FutureTask<ExecutionResult> task = new FutureTask<>(() -> {
+            try {
+                return executeSingleQuery(itemRequest, itemResponse, item, true);
+            } finally {
+                releasePermit.run();
+            }
+        }) {
+            @Override
+            protected void done() {
+                releasePermit.run();
+            }
+        };
+        try {
+            batchExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            releasePermit.run();
+            throw e;
+        }
+        return task;
+    }
+
+    private Semaphore getSessionBatchPermits(HttpSession httpSession) {
+        synchronized (httpSession) {
+            Semaphore permits = (Semaphore) httpSession.getAttribute(SESSION_BATCH_PERMITS);
+            if (permits == null) {
+                permits = new Semaphore(Math.max(1, CBApplication.getInstance().getGraphqlBatchSessionThreads()));
+                httpSession.setAttribute(SESSION_BATCH_PERMITS, permits);
+            }
+            return permits;
+        }
+    }
+
+    @Nullable
+    private ExecutionResult executeSingleQuery(HttpServletRequest request, HttpServletResponse response, JsonObject reqObject, boolean inBatch) throws IOException {
         JsonElement query = reqObject.get("query");
-        if (query == null) {
+        String queryText = query == null || query instanceof JsonNull ? null : query.getAsString();
+        String persistedQueryHash = getPersistedQueryHash(reqObject);
+        if (persistedQueryHash != null) {
+            // Client may send query hash instead of query text
+            if (queryText == null) {
+                queryText = GraphQLDocumentCache.getInstance().getPersistedQuery(persistedQueryHash);
+                if (queryText == null) {
+                    return makeErrorResult(GraphQLConstants.ERROR_PERSISTED_QUERY_NOT_FOUND);
+                }
+            } else if (!GraphQLDocumentCache.getQueryHash(queryText).equalsIgnoreCase(persistedQueryHash)) {
+                return makeErrorResult("Provided query hash does not match query");
+            }
+        }
+        if (queryText == null) {
+            if (inBatch) {
+                return makeErrorResult("Query not specified");
+            }
             response.sendError(400, "Query not specified");
-            return;
+            return null;
         }
         JsonElement varJSON = reqObject.get("variables");
         Map<String, Object> variables = varJSON == null ? null : gson.fromJson(varJSON, Map.class);
 
         JsonElement operNameJSON = reqObject.get("operationName");
 
-        executeQuery(request, response, query.getAsString(), variables, operNameJSON == null || operNameJSON instanceof JsonNull ? null : operNameJSON.getAsString());
+        return executeQuery(request, response, queryText, variables, operNameJSON == null || operNameJSON instanceof JsonNull ? null : operNameJSON.getAsString());
     }
 
     @Override
@@ -209,7 +415,7 @@ public class GraphQLEndpoint extends HttpServlet {
         boolean develMode = CBApplication.getInstance().isDevelMode();
 
         if (path.contentEquals("/schema.json") && develMode) {
-            executeQuery(request, response, GraphQLConstants.SCHEMA_READ_QUERY, null, null);
+            sendResult(request, response, executeQuery(request, response, GraphQLConstants.SCHEMA_READ_QUERY, null, null));
         } else if (path.contentEquals("/console") && develMode) {
             try (InputStream consolePageStream = WebServiceUtils.openStaticResource("static/graphiql/index.html")) {
                 IOUtils.copyStream(consolePageStream, response.getOutputStream());
@@ -217,14 +423,15 @@ public class GraphQLEndpoint extends HttpServlet {
         } else {
             String query = request.getParameter("query");
             if (query != null) {
-                executeQuery(request, response, query, null, request.getParameter("operationName"));
+                sendResult(request, response, executeQuery(request, response, query, null, request.getParameter("operationName")));
             } else {
                 response.sendError(400, "Bad GET request");
             }
         }
     }
 
-    private void executeQuery(HttpServletRequest request, HttpServletResponse response, String query, Map<String, Object> variables, String operationName) throws IOException {
+    @NotNull
+    private ExecutionResult executeQuery(HttpServletRequest request, HttpServletResponse response, String query, Map<String, Object> variables, String operationName) {
         GraphQLContext context = new GraphQLContext.Builder()
             .of("request", request)
             .of("response", response)
@@ -251,13 +458,268 @@ public class GraphQLEndpoint extends HttpServlet {
             }
         }
         ExecutionInput executionInput = contextBuilder.build();
-        ExecutionResult executionResult = graphQL.execute(executionInput);
+        return graphQL.execute(executionInput);
+    }
 
-        Map<String, Object> resJSON = executionResult.toSpecification();
-        String resString = gson.toJson(resJSON);
+    @Nullable
+    private static String getPersistedQueryHash(JsonObject reqObject) {
+        JsonElement extensions = reqObject.get("extensions");
+        if (!(extensions instanceof JsonObject)) {
+            return null;
+        }
+        JsonElement persistedQuery = ((JsonObject) extensions).get("persistedQuery");
+        if (!(persistedQuery instanceof JsonObject)) {
+            return null;
+        }
+        JsonElement hash = ((JsonObject) persistedQuery).get("sha256Hash");
+        return hash == null || hash instanceof JsonNull ? null : hash.getAsString();
+    }
+
+    @NotNull
+    private static ExecutionResult makeErrorResult(String message) {
+        return ExecutionResultImpl.newExecutionResult()
+            .addError(GraphqlErrorBuilder.newError().message(message).build())
+            .build();
+    }
+
+    private void sendResult(HttpServletRequest request, HttpServletResponse response, ExecutionResult executionResult) throws IOException {
+        try (Writer writer = openResponseWriter(request, response)) {
+            writeResult(writer, executionResult);
+        }
+    }
+
+    /**
+     * Opens response body writer. Response is gzip-compressed if client accepts it.
+     * Headers must be set before the writer is opened.
+     */
+    @NotNull
+    private Writer openResponseWriter(HttpServletRequest request, HttpServletResponse response) throws IOException {
         setDevelHeaders(request, response);
         response.setContentType(GraphQLConstants.CONTENT_TYPE_JSON_UTF8);
-        response.getWriter().print(resString);
+        response.addHeader(HEADER_VARY, HEADER_ACCEPT_ENCODING);
+        OutputStream out = response.getOutputStream();
+        if (WebAppUtils.isGzipAccepted(request)) {
+            response.setHeader(HEADER_CONTENT_ENCODING, ENCODING_GZIP);
+            // Sync flush, so flushed batch results are sent to the client immediately
+            out = new GZIPOutputStream(out, GraphQLConstants.RESPONSE_BUFFER_SIZE, true);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), GraphQLConstants.RESPONSE_BUFFER_SIZE);
+    }
+
+    /**
+     * Serializes result directly into the response writer, without building an intermediate string
+     */
+    private void writeResult(Writer writer, ExecutionResult executionResult) throws IOException {
+        Map<String, Object> resJSON = executionResult.toSpecification();
+        Gson resultGson = CBApplication.getInstance().isDevelMode() ? prettyGson : gson;
+        JsonWriter jsonWriter = resultGson.newJsonWriter(writer);
+        try {
+            resultGson.toJson(resJSON, Map.class, jsonWriter);
+        } catch (JsonIOException e) {
+            throw new IOException("Error writing GraphQL response", e);
+        }
+        // No flush here: caller flushes or closes the writer
+    }
+
+    /**
+     * Writes batch results as JSON array. Response body is started when the first result is written.
+     */
+    private class BatchResultWriter implements Closeable {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private Writer writer;
+
+        BatchResultWriter(HttpServletRequest request, HttpServletResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        /**
+         * Writes and flushes the next result.
+         *
+         * @return false if response was committed before the body was started (e.g. error was sent)
+         */
+        boolean writeResult(ExecutionResult result) throws IOException {
+            if (writer == null) {
+                if (response.isCommitted()) {
+                    return false;
+                }
+                writer = openResponseWriter(request, response);
+                writer.write("[\n");
+            } else {
+                writer.write(",\n");
+            }
+            GraphQLEndpoint.this.writeResult(writer, result);
+            writer.flush();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.write("\n]");
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Request of batch item executed in a worker thread. Keeps own attributes, session access is serialized.
+     */
+    private static class BatchItemRequest extends HttpServletRequestWrapper {
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private final Set<String> removedAttributes = ConcurrentHashMap.newKeySet();
+
+        BatchItemRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            Object value = attributes.get(name);
+            if (value != null || removedAttributes.contains(name)) {
+                return value;
+            }
+            return super.getAttribute(name);
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            Set<String> names = new LinkedHashSet<>(Collections.list(super.getAttributeNames()));
+            names.removeAll(removedAttributes);
+            names.addAll(attributes.keySet());
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            if (value == null) {
+                removeAttribute(name);
+                return;
+            }
+            removedAttributes.remove(name);
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            attributes.remove(name);
+            removedAttributes.add(name);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            synchronized (getRequest()) {
+                return super.getSession(create);
+            }
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+    }
+
+    /**
+     * Response of batch item executed in a worker thread.
+     * Records headers, cookies and errors, they are applied to the real response by the servlet thread
+     * (if response body wasn't started yet) or discarded.
+     */
+    private static class BatchItemResponse extends HttpServletResponseWrapper {
+        private final List<ResponseAction> actions = new ArrayList<>();
+
+        private interface ResponseAction {
+            void apply(HttpServletResponse response) throws IOException;
+        }
+
+        BatchItemResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private synchronized void record(ResponseAction action) {
+            actions.add(action);
+        }
+
+        synchronized void applyTo(HttpServletResponse response) throws IOException {
+            for (ResponseAction action : actions) {
+                if (response.isCommitted()) {
+                    break;
+                }
+                action.apply(response);
+            }
+        }
+
+        synchronized void discard() {
+            if (!actions.isEmpty()) {
+                log.debug("Headers of batched GraphQL request are ignored: response body is already started");
+                actions.clear();
+            }
+        }
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            record(response -> response.addCookie(cookie));
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            record(response -> response.setHeader(name, value));
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            record(response -> response.addHeader(name, value));
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+            record(response -> response.setDateHeader(name, date));
+        }
+
+        @Override
+        public void addDateHeader(String name, long date) {
+            record(response -> response.addDateHeader(name, date));
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            record(response -> response.setIntHeader(name, value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            record(response -> response.addIntHeader(name, value));
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            record(response -> response.setStatus(sc));
+        }
+
+        @Override
+        public void sendError(int sc) {
+            record(response -> response.sendError(sc));
+        }
+
+        @Override
+        public void sendError(int sc, String msg) {
+            record(response -> response.sendError(sc, msg));
+        }
+
+        @Override
+        public void sendRedirect(String location) {
+            record(response -> response.sendRedirect(location));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            throw new IllegalStateException("Batched request can't write response body");
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            throw new IllegalStateException("Batched request can't write response body");
+        }
     }
 
     private static class WebInstrumentation extends SimpleInstrumentation {
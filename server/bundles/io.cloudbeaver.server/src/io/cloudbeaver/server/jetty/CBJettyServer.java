@@ -6,6 +6,7 @@ import io.cloudbeaver.server.graphql.GraphQLEndpoint;
 import io.cloudbeaver.server.servlets.CBImageServlet;
 import io.cloudbeaver.server.servlets.CBStaticServlet;
 import io.cloudbeaver.server.servlets.CBStatusServlet;
+import io.cloudbeaver.server.servlets.CBTaskEventsServlet;
 import io.cloudbeaver.service.DBWServiceBindingServlet;
 import org.eclipse.jetty.server.*;
 import org.eclipse.jetty.server.session.DefaultSessionCache;
@@ -72,6 +73,10 @@ public class CBJettyServer {
                 servletContextHandler.addServlet(new ServletHolder("status", new CBStatusServlet()), "/status");
 
                 servletContextHandler.addServlet(new ServletHolder("graphql", new GraphQLEndpoint()), application.getServicesURI() + "gql/*");
+
+                ServletHolder taskEventsServletHolder = new ServletHolder("taskEvents", new CBTaskEventsServlet(application));
+                taskEventsServletHolder.setAsyncSupported(true);
+                servletContextHandler.addServlet(taskEventsServletHolder, application.getServicesURI() + "events/tasks");
                 servletContextHandler.addEventListener(new CBServerContextListener());
 
                 // Add extensions from services
@@ -1,7 +1,11 @@
 package io.cloudbeaver.server.servlets;
 
 import com.google.gson.stream.JsonWriter;
+import io.cloudbeaver.model.session.WebAsyncTaskScheduler;
 import io.cloudbeaver.server.CBConstants;
+import io.cloudbeaver.server.graphql.GraphQLDocumentCache;
+import io.cloudbeaver.service.security.EmbeddedSecurityControllerFactory;
+import io.cloudbeaver.service.security.db.CBDatabase;
 import org.eclipse.jetty.servlet.DefaultServlet;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.data.json.JSONUtils;
@@ -27,6 +31,17 @@ public class CBStatusServlet extends DefaultServlet {
         infoMap.put("health", "ok");
         infoMap.put("product.name", GeneralUtils.getProductName());
         infoMap.put("product.version", GeneralUtils.getProductVersion().toString());
+        GraphQLDocumentCache documentCache = GraphQLDocumentCache.getInstance();
+        infoMap.put("graphql.documentCache.size", documentCache.getSize());
+        infoMap.put("graphql.documentCache.hits", documentCache.getHitCount());
+        infoMap.put("graphql.documentCache.misses", documentCache.getMissCount());
+        infoMap.put("graphql.documentCache.evictions", documentCache.getEvictionCount());
+        infoMap.putAll(WebAsyncTaskScheduler.getInstance().getMetrics());
+        CBDatabase database = EmbeddedSecurityControllerFactory.getDbInstance();
+        if (database != null) {
+            infoMap.putAll(database.getPoolMetrics());
+            infoMap.putAll(database.getExpiredDataMetrics());
+        }
         try (JsonWriter writer = new JsonWriter(response.getWriter())) {
             JSONUtils.serializeMap(writer, infoMap);
         }
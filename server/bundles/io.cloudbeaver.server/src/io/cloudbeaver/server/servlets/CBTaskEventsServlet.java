@@ -0,0 +1,320 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.server.servlets;
+
+import com.google.gson.stream.JsonWriter;
+import io.cloudbeaver.model.WebAsyncTaskInfo;
+import io.cloudbeaver.model.session.WebAsyncTaskListener;
+import io.cloudbeaver.model.session.WebSession;
+import io.cloudbeaver.server.CBApplication;
+import io.cloudbeaver.service.WebServiceServletBase;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Server-sent events stream of session async task changes.
+ * <p>
+ * Client opens the stream (e.g. with EventSource) and receives "task" events with task id, name, status
+ * and running flag each time task status changes or task finishes. The current state of all session tasks
+ * is sent right after the stream is opened, so events raised before the connection are not lost.
+ * Task results are still read with asyncTaskInfo query, which also remains the polling fallback.
+ * <p>
+ * Streams are served asynchronously and written with non-blocking IO, so slow clients hold neither request
+ * nor writer threads. Events of the same task are coalesced if client reads them slower than they are raised.
+ * Stream of a client which doesn't read at all is closed when its output queue is full.
+ * Stream is closed after a timeout or when session is closed, EventSource reconnects automatically.
+ */
+public class CBTaskEventsServlet extends WebServiceServletBase {
+
+    private static final Log log = Log.getLog(CBTaskEventsServlet.class);
+
+    private static final String CONTENT_TYPE_EVENT_STREAM = "text/event-stream";
+    private static final String EVENT_TASK = "task";
+    private static final long STREAM_TIMEOUT = 10 * 60 * 1000;
+    private static final long PING_PERIOD = 20 * 1000;
+    private static final long RECONNECT_DELAY = 3000;
+    private static final int EVENT_THREADS = 2;
+    // Max size of data not yet accepted by client connection
+    private static final int MAX_PENDING_SIZE = 256 * 1024;
+
+    private final ScheduledExecutorService eventExecutor;
+    private final Set<EventStream> streams = ConcurrentHashMap.newKeySet();
+
+    public CBTaskEventsServlet(CBApplication application) {
+        super(application);
+        this.eventExecutor = Executors.newScheduledThreadPool(EVENT_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "Task events writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.eventExecutor.scheduleWithFixedDelay(this::pingStreams, PING_PERIOD, PING_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        eventExecutor.shutdownNow();
+        for (EventStream stream : streams) {
+            stream.close();
+        }
+        super.destroy();
+    }
+
+    @Override
+    protected void processServiceRequest(WebSession session, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(CONTENT_TYPE_EVENT_STREAM);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // Disable proxy buffering (nginx)
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(STREAM_TIMEOUT);
+        EventStream stream = new EventStream(session, asyncContext, response.getOutputStream());
+        asyncContext.addListener(stream);
+        streams.add(stream);
+        stream.write("retry: " + RECONNECT_DELAY + "\n\n");
+        response.getOutputStream().setWriteListener(stream);
+
+        session.addAsyncTaskListener(stream);
+        for (WebAsyncTaskInfo taskInfo : session.getAsyncTasks()) {
+            stream.asyncTaskChanged(taskInfo);
+        }
+    }
+
+    private void pingStreams() {
+        for (EventStream stream : streams) {
+            stream.ping();
+        }
+    }
+
+    @NotNull
+    private static String serializeTask(@NotNull WebAsyncTaskInfo taskInfo) throws IOException {
+        Map<String, Object> taskMap = new LinkedHashMap<>();
+        taskMap.put("id", taskInfo.getId());
+        taskMap.put("name", taskInfo.getName());
+        taskMap.put("running", taskInfo.isRunning());
+        taskMap.put("status", taskInfo.getStatus());
+        Throwable jobError = taskInfo.getJobError();
+        if (jobError != null) {
+            taskMap.put("error", jobError.getMessage());
+        }
+        StringWriter buffer = new StringWriter();
+        try (JsonWriter jsonWriter = new JsonWriter(buffer)) {
+            JSONUtils.serializeMap(jsonWriter, taskMap);
+        }
+        return buffer.toString();
+    }
+
+    private class EventStream implements WebAsyncTaskListener, AsyncListener, WriteListener {
+        private final WebSession session;
+        private final AsyncContext asyncContext;
+        private final ServletOutputStream outputStream;
+        // Data not yet written to the output stream. Guarded by this.
+        private final Deque<byte[]> pendingData = new ArrayDeque<>();
+        private int pendingSize;
+        private boolean flushNeeded;
+        private boolean writeListenerSet;
+        // Tasks changed since the last flush. Only the last state of each task is sent.
+        private final Map<String, WebAsyncTaskInfo> changedTasks = new LinkedHashMap<>();
+        private boolean flushScheduled;
+        private volatile boolean closed;
+
+        EventStream(WebSession session, AsyncContext asyncContext, ServletOutputStream outputStream) {
+            this.session = session;
+            this.asyncContext = asyncContext;
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public void asyncTaskChanged(@NotNull WebAsyncTaskInfo taskInfo) {
+            synchronized (changedTasks) {
+                if (closed) {
+                    return;
+                }
+                changedTasks.put(taskInfo.getId(), taskInfo);
+                if (flushScheduled) {
+                    return;
+                }
+                flushScheduled = true;
+            }
+            try {
+                eventExecutor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        private void flush() {
+            List<WebAsyncTaskInfo> tasks;
+            synchronized (changedTasks) {
+                tasks = new ArrayList<>(changedTasks.values());
+                changedTasks.clear();
+                flushScheduled = false;
+            }
+            StringBuilder events = new StringBuilder();
+            for (WebAsyncTaskInfo taskInfo : tasks) {
+                try {
+                    events.append("event: ").append(EVENT_TASK).append('\n')
+                        .append("data: ").append(serializeTask(taskInfo)).append("\n\n");
+                } catch (IOException e) {
+                    log.debug("Error serializing task event: " + e.getMessage());
+                }
+            }
+            if (events.length() > 0) {
+                write(events.toString());
+            }
+        }
+
+        void ping() {
+            synchronized (this) {
+                if (!pendingData.isEmpty()) {
+                    // Client hasn't read previous data yet
+                    return;
+                }
+            }
+            write(": ping\n\n");
+        }
+
+        /**
+         * Queues data and writes as much of it as the connection accepts without blocking.
+         */
+        void write(String data) {
+            byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pendingSize + bytes.length > MAX_PENDING_SIZE) {
+                    log.debug("Task events client doesn't read events, closing stream");
+                } else {
+                    pendingData.add(bytes);
+                    pendingSize += bytes.length;
+                    if (writePending()) {
+                        return;
+                    }
+                }
+            }
+            close();
+        }
+
+        /**
+         * Writes pending data while output stream is ready.
+         * If stream is not ready then the rest is written from {@link #onWritePossible()}.
+         *
+         * @return false if connection is broken
+         */
+        private synchronized boolean writePending() {
+            if (!writeListenerSet || closed) {
+                // Non-blocking writes are allowed only after write listener is set
+                return true;
+            }
+            try {
+                while (outputStream.isReady()) {
+                    byte[] data = pendingData.poll();
+                    if (data == null) {
+                        if (!flushNeeded) {
+                            break;
+                        }
+                        flushNeeded = false;
+                        outputStream.flush();
+                        continue;
+                    }
+                    pendingSize -= data.length;
+                    outputStream.write(data);
+                    flushNeeded = true;
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Client disconnected
+                return false;
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            boolean connected;
+            synchronized (this) {
+                writeListenerSet = true;
+                connected = writePending();
+            }
+            if (!connected) {
+                close();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void sessionClosed() {
+            close();
+        }
+
+        void close() {
+            synchronized (changedTasks) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                changedTasks.clear();
+            }
+            synchronized (this) {
+                pendingData.clear();
+                pendingSize = 0;
+            }
+            session.removeAsyncTaskListener(this);
+            streams.remove(this);
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // Already completed
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service;
+
+import io.cloudbeaver.utils.WebAppUtils;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Sends files to HTTP clients.
+ * <p>
+ * File content is sent with FileChannel.transferTo, so it is not copied through intermediate stream buffers.
+ * Supports single byte range requests (Range and If-Range headers), so interrupted downloads can be resumed,
+ * conditional requests (ETag and Last-Modified validators) and precompressed (.gz) file variants.
+ * File is closed right after it is sent, so it can be deleted immediately (on Windows too).
+ */
+public class WebServiceFileSender {
+
+    private static final String HEADER_RANGE = "Range";
+    private static final String HEADER_IF_RANGE = "If-Range";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+    private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    private static final String HEADER_VARY = "Vary";
+    private static final String RANGE_UNIT_BYTES = "bytes";
+    private static final String PRECOMPRESSED_EXTENSION = ".gz";
+
+    private final Path file;
+    private String contentType = "application/octet-stream";
+    private String attachmentName;
+    private boolean precompressed;
+
+    public WebServiceFileSender(@NotNull Path file) {
+        this.file = file;
+    }
+
+    public WebServiceFileSender setContentType(@NotNull String contentType) {
+        this.contentType = contentType;
+        return this;
+    }
+
+    /**
+     * Sets file name which is reported in Content-Disposition header
+     */
+    public WebServiceFileSender setAttachmentName(@Nullable String attachmentName) {
+        this.attachmentName = attachmentName;
+        return this;
+    }
+
+    /**
+     * Enables sending of precompressed file variant (file name with .gz extension) if it exists and client accepts gzip
+     */
+    public WebServiceFileSender setPrecompressed(boolean precompressed) {
+        this.precompressed = precompressed;
+        return this;
+    }
+
+    /**
+     * Sends file (or the requested range of file).
+     *
+     * @return true if file content was sent up to the end of file (whole file or the last range of resumed download)
+     */
+    public boolean send(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        String rangeHeader = request.getHeader(HEADER_RANGE);
+        Path sentFile = file;
+        if (precompressed && rangeHeader == null) {
+            response.addHeader(HEADER_VARY, "Accept-Encoding");
+            if (WebAppUtils.isGzipAccepted(request)) {
+                Path compressedFile = file.resolveSibling(file.getFileName() + PRECOMPRESSED_EXTENSION);
+                BasicFileAttributes compressedAttrs = readAttributes(compressedFile);
+                // Stale compressed variant (older than the file) is ignored
+                if (compressedAttrs != null && compressedAttrs.isRegularFile() &&
+                    compressedAttrs.lastModifiedTime().compareTo(attrs.lastModifiedTime()) >= 0)
+                {
+                    sentFile = compressedFile;
+                    attrs = compressedAttrs;
+                    response.setHeader(HEADER_CONTENT_ENCODING, "gzip");
+                }
+            }
+        }
+        // Validators are derived from the file which is actually sent
+        long fileSize = attrs.size();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        String etag = makeETag(fileSize, lastModified);
+
+        response.setHeader(HEADER_ACCEPT_RANGES, RANGE_UNIT_BYTES);
+        response.setHeader(HEADER_ETAG, etag);
+        response.setDateHeader(HEADER_LAST_MODIFIED, lastModified);
+        response.setHeader("Content-Type", contentType);
+        if (attachmentName != null) {
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + attachmentName + "\"");
+        }
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+
+        if (rangeHeader != null && isRangeValid(request, etag, lastModified)) {
+            long[] range = parseRange(rangeHeader, fileSize);
+            if (range == null) {
+                response.setHeader(HEADER_CONTENT_RANGE, RANGE_UNIT_BYTES + " */" + fileSize);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return false;
+            }
+            if (range[0] != 0 || range[1] != fileSize - 1) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HEADER_CONTENT_RANGE, RANGE_UNIT_BYTES + " " + range[0] + "-" + range[1] + "/" + fileSize);
+                sendRegion(response, file, range[0], range[1] - range[0] + 1);
+                return range[1] == fileSize - 1;
+            }
+        }
+
+        sendRegion(response, sentFile, 0, fileSize);
+        return true;
+    }
+
+    @Nullable
+    private static BasicFileAttributes readAttributes(@NotNull Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void sendRegion(@NotNull HttpServletResponse response, @NotNull Path file, long offset, long length) throws IOException {
+        response.setHeader("Content-Length", String.valueOf(length));
+        ServletOutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel outChannel = Channels.newChannel(out);
+            for (long position = offset, end = offset + length; position < end; ) {
+                long sent = channel.transferTo(position, end - position, outChannel);
+                if (sent <= 0) {
+                    // File was truncated
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private static boolean isNotModified(@NotNull HttpServletRequest request, @NotNull String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HEADER_IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = getDateHeader(request, HEADER_IF_MODIFIED_SINCE);
+        // Header dates have seconds precision
+        return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * If-Range makes range request unconditional: the whole file is sent if it was changed
+     */
+    private static boolean isRangeValid(@NotNull HttpServletRequest request, @NotNull String etag, long lastModified) {
+        String ifRange = request.getHeader(HEADER_IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long ifRangeDate = getDateHeader(request, HEADER_IF_RANGE);
+        return ifRangeDate != -1 && lastModified / 1000 == ifRangeDate / 1000;
+    }
+
+    /**
+     * Parses single byte range.
+     * Multiple ranges are not supported, whole file is sent for them.
+     *
+     * @return first and last byte positions or null if range is not satisfiable
+     */
+    @Nullable
+    private static long[] parseRange(@NotNull String rangeHeader, long fileSize) {
+        String rangeSpec = rangeHeader.trim();
+        if (!rangeSpec.startsWith(RANGE_UNIT_BYTES + "=") || rangeSpec.contains(",")) {
+            return new long[] {0, fileSize - 1};
+        }
+        rangeSpec = rangeSpec.substring(RANGE_UNIT_BYTES.length() + 1).trim();
+        int divPos = rangeSpec.indexOf('-');
+        if (divPos == -1) {
+            return new long[] {0, fileSize - 1};
+        }
+        String startSpec = rangeSpec.substring(0, divPos).trim();
+        String endSpec = rangeSpec.substring(divPos + 1).trim();
+        try {
+            long start, end;
+            if (startSpec.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffixLength = Long.parseLong(endSpec);
+                if (suffixLength <= 0) {
+                    return null;
+                }
+                start = Math.max(fileSize - suffixLength, 0);
+                end = fileSize - 1;
+            } else {
+                start = Long.parseLong(startSpec);
+                end = endSpec.isEmpty() ? fileSize - 1 : Math.min(Long.parseLong(endSpec), fileSize - 1);
+            }
+            if (start < 0 || start > end || start >= fileSize) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            // Invalid range header is ignored
+            return new long[] {0, fileSize - 1};
+        }
+    }
+
+    private static long getDateHeader(@NotNull HttpServletRequest request, @NotNull String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    @NotNull
+    private static String makeETag(long fileSize, long lastModified) {
+        return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(fileSize) + "\"";
+    }
+
+}
@@ -82,7 +82,7 @@ public interface DBWServiceCore extends DBWService {
     WebSession getSessionState(@NotNull WebSession webSession) throws DBWebException;
 
     @WebAction
-    List<WebServerMessage> readSessionLog(@NotNull WebSession webSession, Integer maxEntries, Boolean clearEntries) throws DBWebException;
+    List<WebServerMessage> readSessionLog(@NotNull WebSession webSession, Integer maxEntries, Boolean clearEntries, @Nullable Long afterId) throws DBWebException;
 
     @WebAction(requirePermissions = {})
     boolean closeSession(HttpServletRequest request) throws DBWebException;
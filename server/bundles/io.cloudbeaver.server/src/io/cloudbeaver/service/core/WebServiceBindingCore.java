@@ -30,6 +30,7 @@ import io.cloudbeaver.server.graphql.GraphQLEndpoint;
 import io.cloudbeaver.service.DBWBindingContext;
 import io.cloudbeaver.service.WebServiceBindingBase;
 import io.cloudbeaver.service.core.impl.WebServiceCore;
+import org.jkiss.utils.CommonUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -80,10 +81,12 @@ public class WebServiceBindingCore extends WebServiceBindingBase<DBWServiceCore>
                 if (session == null) {
                     return Collections.emptyList();
                 }
+                String afterId = env.getArgument("afterId");
                 return getService(env).readSessionLog(
                     session,
                     env.getArgument("maxEntries"),
-                    env.getArgument("clearEntries"));
+                    env.getArgument("clearEntries"),
+                    CommonUtils.isEmpty(afterId) ? null : CommonUtils.toLong(afterId));
             })
         ;
 
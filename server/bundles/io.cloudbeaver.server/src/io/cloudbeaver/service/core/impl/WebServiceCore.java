@@ -113,8 +113,8 @@ public class WebServiceCore implements DBWServiceCore {
         if (projectId != null) {
             stream = stream.filter(c -> c.getProjectId().equals(projectId));
         }
-        List<DBPDriver> applicableDrivers = CBPlatform.getInstance().getApplicableDrivers();
-        return stream.filter(c -> applicableDrivers.contains(c.getDataSourceContainer().getDriver()))
+        CBPlatform platform = CBPlatform.getInstance();
+        return stream.filter(c -> platform.isDriverApplicable(c.getDataSourceContainer().getDriver()))
             .collect(Collectors.toList());
     }
 
@@ -127,7 +127,7 @@ public class WebServiceCore implements DBWServiceCore {
 
         for (DBPDataSourceContainer ds : dsRegistry.getDataSources()) {
             if (ds.isTemplate()) {
-                if (CBPlatform.getInstance().getApplicableDrivers().contains(ds.getDriver())) {
+                if (CBPlatform.getInstance().isDriverApplicable(ds.getDriver())) {
                     result.add(new WebDataSourceConfig(ds));
                 } else {
                     log.debug("Template datasource '" + ds.getName() + "' ignored - driver is not applicable");
@@ -149,7 +149,7 @@ public class WebServiceCore implements DBWServiceCore {
         DBPDataSourceRegistry registry = webSession.getProjectById(projectId).getDataSourceRegistry();
         for (DBPDataSourceContainer ds : registry.getDataSources()) {
             if (ds.isTemplate() &&
-                CBPlatform.getInstance().getApplicableDrivers().contains(ds.getDriver()))
+                CBPlatform.getInstance().isDriverApplicable(ds.getDriver()))
             {
                 result.add(new WebConnectionInfo(webSession, ds));
             }
@@ -207,8 +207,8 @@ public class WebServiceCore implements DBWServiceCore {
     }
 
     @Override
-    public List<WebServerMessage> readSessionLog(@NotNull WebSession webSession, Integer maxEntries, Boolean clearEntries) {
-        return webSession.readLog(maxEntries, clearEntries);
+    public List<WebServerMessage> readSessionLog(@NotNull WebSession webSession, Integer maxEntries, Boolean clearEntries, @Nullable Long afterId) {
+        return webSession.readLog(afterId, maxEntries, clearEntries);
     }
 
     @Override
@@ -34,7 +34,6 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.model.*;
-import org.jkiss.dbeaver.model.connection.DBPDriver;
 import org.jkiss.dbeaver.model.edit.DBECommandContext;
 import org.jkiss.dbeaver.model.edit.DBEObjectMaker;
 import org.jkiss.dbeaver.model.edit.DBEObjectRenamer;
@@ -64,6 +63,9 @@ public class WebServiceNavigator implements DBWServiceNavigator {
     public static final String ROOT_DATABASES = "databases";
     private static final boolean SHOW_EXTRA_NODES = false;
 
+    private static final String ATTR_NODE_CHILDREN_CURSORS = "navigatorNodeChildrenCursors";
+    private static final int MAX_NODE_CHILDREN_CURSORS = 100;
+
     @Override
     public List<WebNavigatorNodeInfo> getNavigatorNodeChildren(
         @NotNull WebSession session,
@@ -78,7 +80,6 @@ public class WebServiceNavigator implements DBWServiceNavigator {
             DBNNode[] nodeChildren;
             boolean isRootPath = CommonUtils.isEmpty(parentPath) || "/".equals(parentPath) || ROOT_DATABASES.equals(parentPath);
             DBNModel navigatorModel = session.getNavigatorModel();
-            List<DBPDriver> applicableDrivers = CBPlatform.getInstance().getApplicableDrivers();
             if (isRootPath) {
                 DBNRoot rootNode = navigatorModel.getRoot();
                 nodeChildren = DBNUtils.getNodeChildrenFiltered(monitor, rootNode, true);
@@ -105,43 +106,109 @@ public class WebServiceNavigator implements DBWServiceNavigator {
             if (nodeChildren == null) {
                 return EMPTY_NODE_LIST;
             }
+            boolean paged = offset != null && limit != null;
+            int firstIndex = paged ? Math.max(offset, 0) : 0;
+            int endIndex = paged ? (int) Math.min((long) firstIndex + Math.max(limit, 0), Integer.MAX_VALUE) : Integer.MAX_VALUE;
+
+            // Node infos are created only for nodes of the requested page
             List<WebNavigatorNodeInfo> result = new ArrayList<>();
+            int nodeIndex = 0;
             if (isRootPath) {
                 // Add navigator extensions
                 for (DBNNode extraNode : navigatorModel.getRoot().getExtraNodes()) {
-                    result.add(new WebNavigatorNodeInfo(session, extraNode));
+                    if (nodeIndex >= firstIndex && nodeIndex < endIndex) {
+                        result.add(new WebNavigatorNodeInfo(session, extraNode));
+                    }
+                    nodeIndex++;
                 }
             }
 
-            for (DBNNode node : nodeChildren) {
-                if (node instanceof DBNDatabaseFolder && CommonUtils.isEmpty(((DBNDatabaseFolder) node).getMeta().getChildren(null))) {
-                    // Skip empty folders. Folder may become empty if their nested elements are provided by UI plugins.
+            int childIndex = 0;
+            String cursorKey = parentPath + (CommonUtils.toBoolean(onlyFolders) ? ":folders" : ":all");
+            Map<String, NodeChildrenCursor> cursors = paged ? getNodeChildrenCursors(session) : null;
+            if (cursors != null && firstIndex > nodeIndex) {
+                // Continue from the end of the previous page, so visible nodes before it aren't counted again
+                NodeChildrenCursor cursor;
+                synchronized (cursors) {
+                    cursor = cursors.get(cursorKey);
+                }
+                if (cursor != null && cursor.isValid(nodeChildren) && cursor.nodeIndex >= nodeIndex && cursor.nodeIndex <= firstIndex) {
+                    nodeIndex = cursor.nodeIndex;
+                    childIndex = cursor.childIndex;
+                }
+            }
+            for (; childIndex < nodeChildren.length && nodeIndex < endIndex; childIndex++) {
+                DBNNode node = nodeChildren[childIndex];
+                if (!isNodeVisible(node, onlyFolders)) {
                     continue;
                 }
-                if (!CommonUtils.toBoolean(onlyFolders) || node instanceof DBNContainer) {
-                    // Skip connections which are not supported in CB
-                    if (node instanceof DBNDataSource) {
-                        DBPDataSourceContainer container = ((DBNDataSource) node).getDataSourceContainer();
-                        if (!applicableDrivers.contains(container.getDriver())) {
-                            continue;
-                        }
-                    }
+                if (nodeIndex >= firstIndex) {
                     result.add(new WebNavigatorNodeInfo(session, node));
                 }
+                nodeIndex++;
             }
-            // Checks the range of the expected result
-            if (offset == null || limit == null || (offset == 0 && limit >= result.size())) {
-                return result;
-            } else if (offset + limit <= result.size()) {
-                return result.subList(offset, offset + limit);
-            } else  {
-                return result.subList(offset, result.size());
+            if (cursors != null && childIndex > 0) {
+                synchronized (cursors) {
+                    cursors.put(cursorKey, new NodeChildrenCursor(nodeIndex, childIndex, nodeChildren[childIndex - 1]));
+                }
             }
+            return result;
         } catch (DBException e) {
             throw new DBWebException(e, null);
         }
     }
 
+    private static boolean isNodeVisible(@NotNull DBNNode node, Boolean onlyFolders) {
+        if (node instanceof DBNDatabaseFolder && CommonUtils.isEmpty(((DBNDatabaseFolder) node).getMeta().getChildren(null))) {
+            // Skip empty folders. Folder may become empty if their nested elements are provided by UI plugins.
+            return false;
+        }
+        if (CommonUtils.toBoolean(onlyFolders) && !(node instanceof DBNContainer)) {
+            return false;
+        }
+        if (node instanceof DBNDataSource) {
+            // Skip connections which are not supported in CB
+            DBPDataSourceContainer container = ((DBNDataSource) node).getDataSourceContainer();
+            return CBPlatform.getInstance().isDriverApplicable(container.getDriver());
+        }
+        return true;
+    }
+
+    @NotNull
+    private static Map<String, NodeChildrenCursor> getNodeChildrenCursors(@NotNull WebSession session) {
+        return session.getAttribute(
+            ATTR_NODE_CHILDREN_CURSORS,
+            cursors -> new LinkedHashMap<String, NodeChildrenCursor>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, NodeChildrenCursor> eldest) {
+                    return size() > MAX_NODE_CHILDREN_CURSORS;
+                }
+            },
+            null);
+    }
+
+    /**
+     * Position in node children after the last returned page.
+     * Valid while children array is the same up to the cursor position.
+     */
+    private static class NodeChildrenCursor {
+        // Number of visible nodes before the cursor
+        private final int nodeIndex;
+        // Index in children array
+        private final int childIndex;
+        private final DBNNode lastNode;
+
+        NodeChildrenCursor(int nodeIndex, int childIndex, DBNNode lastNode) {
+            this.nodeIndex = nodeIndex;
+            this.childIndex = childIndex;
+            this.lastNode = lastNode;
+        }
+
+        boolean isValid(DBNNode[] nodeChildren) {
+            return childIndex <= nodeChildren.length && nodeChildren[childIndex - 1] == lastNode;
+        }
+    }
+
     @Override
     public List<WebNavigatorNodeInfo> getNavigatorNodeParents(
         @NotNull WebSession session,
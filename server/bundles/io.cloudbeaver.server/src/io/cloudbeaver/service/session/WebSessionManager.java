@@ -20,9 +20,11 @@ import io.cloudbeaver.DBWebException;
 import io.cloudbeaver.model.session.WebSession;
 import io.cloudbeaver.registry.WebHandlerRegistry;
 import io.cloudbeaver.registry.WebSessionHandlerDescriptor;
+import io.cloudbeaver.server.CBAppConfig;
 import io.cloudbeaver.server.CBApplication;
 import io.cloudbeaver.server.CBPlatform;
 import io.cloudbeaver.service.DBWSessionHandler;
+import io.cloudbeaver.service.sql.WebSQLConstants;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
@@ -34,6 +36,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -52,7 +55,15 @@ public class WebSessionManager {
         return instance;
     }
 
-    private final Map<String, WebSession> sessionMap = new HashMap<>();
+    // Lookups are lock-free
+    private final Map<String, WebSession> sessionMap = new ConcurrentHashMap<>();
+    // Per session ID locks, so two requests of the same session don't create two web sessions
+    private final Map<String, Object> sessionCreateLocks = new ConcurrentHashMap<>();
+    // Sessions ordered by last access time known at the moment of check. Guarded by itself.
+    private final PriorityQueue<SessionAccessInfo> expiryQueue = new PriorityQueue<>(
+        Comparator.comparingLong(info -> info.accessTime));
+    // Expiry queue entries by session ID, so closed sessions can be removed from the queue. Guarded by expiryQueue.
+    private final Map<String, SessionAccessInfo> expiryQueueEntries = new HashMap<>();
 
     public WebSessionManager() {
     }
@@ -60,12 +71,10 @@ public class WebSessionManager {
     public WebSession closeSession(@NotNull HttpServletRequest request) throws DBException {
         HttpSession session = request.getSession();
         if (session != null) {
-            WebSession webSession;
-            synchronized (sessionMap) {
-                webSession = sessionMap.remove(session.getId());
-            }
+            WebSession webSession = sessionMap.remove(session.getId());
             if (webSession != null) {
                 log.debug("> Close session '" + session.getId() + "'");
+                removeFromExpiryQueue(webSession);
                 webSession.close();
                 return webSession;
             }
@@ -94,59 +103,82 @@ public class WebSessionManager {
     public WebSession getWebSession(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, boolean updateInfo, boolean errorOnNoFound) throws DBWebException {
         HttpSession httpSession = request.getSession(true);
         String sessionId = httpSession.getId();
-        WebSession webSession;
         long maxSessionIdleTime = CBApplication.getInstance().getMaxSessionIdleTime();
-        synchronized (sessionMap) {
-            webSession = sessionMap.get(sessionId);
-            if (webSession == null) {
-                CBApplication application = CBApplication.getInstance();
-                Map<String, DBWSessionHandler> sessionHandlers = WebHandlerRegistry.getInstance().getSessionHandlers()
-                    .stream()
-                    .collect(Collectors.toMap(WebSessionHandlerDescriptor::getId, WebSessionHandlerDescriptor::getInstance));
-                try {
+        WebSession webSession = sessionMap.get(sessionId);
+        if (webSession == null) {
+            webSession = createWebSession(httpSession, maxSessionIdleTime, errorOnNoFound);
+        } else {
+            if (updateInfo) {
+                // Update only once per request
+                if (!CommonUtils.toBoolean(request.getAttribute("sessionUpdated"))) {
+                    webSession.updateInfo(request, response, maxSessionIdleTime);
+                    request.setAttribute("sessionUpdated", true);
+                }
+            }
+        }
+        return webSession;
+    }
 
-                    webSession = new WebSession(httpSession, application, sessionHandlers, maxSessionIdleTime);
-                } catch (DBException e) {
-                    throw new DBWebException("Failed to create web session", e);
+    @NotNull
+    private WebSession createWebSession(@NotNull HttpSession httpSession, long maxSessionIdleTime, boolean errorOnNoFound) throws DBWebException {
+        String sessionId = httpSession.getId();
+        while (true) {
+            Object createLock = sessionCreateLocks.computeIfAbsent(sessionId, id -> new Object());
+            synchronized (createLock) {
+                if (sessionCreateLocks.get(sessionId) != createLock) {
+                    // Lock was released by concurrent request, session map must be checked under the actual lock
+                    continue;
                 }
-                sessionMap.put(sessionId, webSession);
+                try {
+                    WebSession webSession = sessionMap.get(sessionId);
+                    if (webSession != null) {
+                        // Created by concurrent request
+                        return webSession;
+                    }
+                    CBApplication application = CBApplication.getInstance();
+                    Map<String, DBWSessionHandler> sessionHandlers = WebHandlerRegistry.getInstance().getSessionHandlers()
+                        .stream()
+                        .collect(Collectors.toMap(WebSessionHandlerDescriptor::getId, WebSessionHandlerDescriptor::getInstance));
+                    try {
+                        webSession = new WebSession(httpSession, application, sessionHandlers, maxSessionIdleTime);
+                    } catch (DBException e) {
+                        throw new DBWebException("Failed to create web session", e);
+                    }
+                    sessionMap.put(sessionId, webSession);
+                    synchronized (expiryQueue) {
+                        SessionAccessInfo accessInfo = new SessionAccessInfo(webSession);
+                        expiryQueue.add(accessInfo);
+                        expiryQueueEntries.put(sessionId, accessInfo);
+                    }
 
-                if (!CBApplication.getInstance().isConfigurationMode()) {
-                    if (!httpSession.isNew()) {
-                        webSession.setCacheExpired(true);
-                        if (errorOnNoFound) {
-                            throw new DBWebException("Session has expired", DBWebException.ERROR_CODE_SESSION_EXPIRED);
+                    if (!CBApplication.getInstance().isConfigurationMode()) {
+                        if (!httpSession.isNew()) {
+                            webSession.setCacheExpired(true);
+                            if (errorOnNoFound) {
+                                throw new DBWebException("Session has expired", DBWebException.ERROR_CODE_SESSION_EXPIRED);
+                            }
                         }
-                    }
 
-                    log.debug("> New web session '" + webSession.getSessionId() + "'");
-                }
-            } else {
-                if (updateInfo) {
-                    // Update only once per request
-                    if (!CommonUtils.toBoolean(request.getAttribute("sessionUpdated"))) {
-                        webSession.updateInfo(request, response, maxSessionIdleTime);
-                        request.setAttribute("sessionUpdated", true);
+                        log.debug("> New web session '" + webSession.getSessionId() + "'");
                     }
+                    return webSession;
+                } finally {
+                    // Removed under the lock: waiters of this lock will re-check the session map under a new lock
+                    sessionCreateLocks.remove(sessionId, createLock);
                 }
             }
         }
-        return webSession;
     }
 
     @Nullable
     public WebSession getWebSession(@NotNull String sessionId) {
-        synchronized (sessionMap) {
-            return sessionMap.get(sessionId);
-        }
+        return sessionMap.get(sessionId);
     }
 
     @Nullable
     public WebSession findWebSession(HttpServletRequest request) {
         String sessionId = request.getSession().getId();
-        synchronized (sessionMap) {
-            return sessionMap.get(sessionId);
-        }
+        return sessionMap.get(sessionId);
     }
 
     public WebSession findWebSession(HttpServletRequest request, boolean errorOnNoFound) throws DBWebException {
@@ -166,17 +198,39 @@ public class WebSessionManager {
             // In configuration mode sessions expire after a week
             maxSessionIdleTime = 60 * 60 * 1000 * 24 * 7;
         }
+        expireIdleSessions(maxSessionIdleTime);
+    }
 
+    /**
+     * Expires sessions idle longer than the specified time (in milliseconds).
+     * Only sessions which were idle long enough at the time of the previous check are examined.
+     * Sessions accessed since then are put back to the queue with the actual access time.
+     */
+    public void expireIdleSessions(long maxSessionIdleTime) {
+        long expireTime = System.currentTimeMillis() - maxSessionIdleTime;
         List<WebSession> expiredList = new ArrayList<>();
-        synchronized (sessionMap) {
-            for (Iterator<WebSession> iterator = sessionMap.values().iterator(); iterator.hasNext(); ) {
-                WebSession session = iterator.next();
-                long idleMillis = System.currentTimeMillis() - session.getLastAccessTimeMillis();
-                if (idleMillis >= maxSessionIdleTime) {
-                    iterator.remove();
-                    expiredList.add(session);
+        synchronized (expiryQueue) {
+            List<SessionAccessInfo> accessedList = new ArrayList<>();
+            while (!expiryQueue.isEmpty() && expiryQueue.peek().accessTime <= expireTime) {
+                SessionAccessInfo info = expiryQueue.poll();
+                String sessionId = info.session.getSessionId();
+                if (sessionMap.get(sessionId) != info.session) {
+                    // Already closed
+                    expiryQueueEntries.remove(sessionId, info);
+                    continue;
+                }
+                long lastAccessTime = info.session.getLastAccessTimeMillis();
+                if (lastAccessTime <= expireTime) {
+                    expiryQueueEntries.remove(sessionId, info);
+                    if (sessionMap.remove(sessionId, info.session)) {
+                        expiredList.add(info.session);
+                    }
+                } else {
+                    info.accessTime = lastAccessTime;
+                    accessedList.add(info);
                 }
             }
+            expiryQueue.addAll(accessedList);
         }
 
         for (WebSession session : expiredList) {
@@ -185,4 +239,80 @@ public class WebSessionManager {
         }
     }
 
+    private void removeFromExpiryQueue(@NotNull WebSession webSession) {
+        synchronized (expiryQueue) {
+            SessionAccessInfo info = expiryQueueEntries.get(webSession.getSessionId());
+            if (info != null && info.session == webSession) {
+                expiryQueueEntries.remove(webSession.getSessionId());
+                expiryQueue.remove(info);
+            }
+        }
+    }
+
+    /**
+     * Removes expired finished async tasks of all sessions
+     */
+    public void expireAsyncTasks() {
+        CBAppConfig appConfig = CBApplication.getInstance().getAppConfiguration();
+        Number taskTTL = appConfig.getResourceQuota(WebSQLConstants.QUOTA_PROP_TASK_RESULT_TTL);
+        Number finishedTasksLimit = appConfig.getResourceQuota(WebSQLConstants.QUOTA_PROP_FINISHED_TASKS_LIMIT);
+        long ttl = taskTTL == null ? WebSQLConstants.TASK_RESULT_TTL : taskTTL.longValue();
+        int maxFinishedTasks = finishedTasksLimit == null ? WebSQLConstants.FINISHED_TASKS_LIMIT : finishedTasksLimit.intValue();
+        for (WebSession session : sessionMap.values()) {
+            session.expireAsyncTasks(ttl, maxFinishedTasks);
+        }
+    }
+
+    @NotNull
+    public List<WebSession> getAllActiveSessions() {
+        return new ArrayList<>(sessionMap.values());
+    }
+
+    /**
+     * Enforces session memory limits. If total memory usage of all sessions exceeds the global limit
+     * then data of least recently accessed sessions is released first.
+     */
+    public void checkMemoryUsage() {
+        Number memoryLimit = CBApplication.getInstance().getAppConfiguration().getResourceQuota(
+            WebSQLConstants.QUOTA_PROP_SESSIONS_MEMORY_LIMIT);
+        long maxSize = memoryLimit != null ? memoryLimit.longValue() :
+            Runtime.getRuntime().maxMemory() / 100 * WebSQLConstants.SESSIONS_MEMORY_LIMIT_PERCENT;
+
+        List<WebSession> sessions = getAllActiveSessions();
+        Map<WebSession, Long> sessionsUsage = new HashMap<>();
+        Map<WebSession, Long> sessionsAccessTime = new HashMap<>();
+        long totalUsage = 0;
+        for (WebSession session : sessions) {
+            session.checkMemoryUsage();
+            long memoryUsage = session.getMemoryUsage();
+            sessionsUsage.put(session, memoryUsage);
+            totalUsage += memoryUsage;
+        }
+        if (maxSize <= 0 || totalUsage <= maxSize) {
+            return;
+        }
+        log.debug("Sessions memory limit exceeded (" + totalUsage + " bytes)");
+        // Access time changes concurrently, so sessions are sorted by its snapshot
+        for (WebSession session : sessions) {
+            sessionsAccessTime.put(session, session.getLastAccessTimeMillis());
+        }
+        sessions.sort(Comparator.comparingLong(sessionsAccessTime::get));
+        for (WebSession session : sessions) {
+            if (totalUsage <= maxSize) {
+                break;
+            }
+            totalUsage -= session.releaseMemory(Math.min(sessionsUsage.get(session), totalUsage - maxSize));
+        }
+    }
+
+    private static class SessionAccessInfo {
+        private final WebSession session;
+        private long accessTime;
+
+        SessionAccessInfo(WebSession session) {
+            this.session = session;
+            this.accessTime = session.getLastAccessTimeMillis();
+        }
+    }
+
 }
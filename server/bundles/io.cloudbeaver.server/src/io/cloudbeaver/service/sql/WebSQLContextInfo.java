@@ -156,6 +156,10 @@ public class WebSQLContextInfo implements WebSessionProvider {
     }
 
     public boolean closeResult(@NotNull String resultId) {
+        WebSQLResultsCache resultsCache = WebSQLResultsCache.findResultsCache(getWebSession());
+        if (resultsCache != null) {
+            resultsCache.removeResults(this, resultId);
+        }
         return resultInfoMap.remove(resultId) != null;
     }
 
@@ -163,6 +167,10 @@ public class WebSQLContextInfo implements WebSessionProvider {
     // Async model
 
     void dispose() {
+        WebSQLResultsCache resultsCache = WebSQLResultsCache.findResultsCache(getWebSession());
+        if (resultsCache != null) {
+            resultsCache.removeContext(this);
+        }
         resultInfoMap.clear();
     }
 
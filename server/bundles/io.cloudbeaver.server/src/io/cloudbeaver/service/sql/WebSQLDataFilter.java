@@ -92,6 +92,23 @@ public class WebSQLDataFilter {
         return where;
     }
 
+    /**
+     * Returns string which identifies filter conditions and ordering (but not offset and limit)
+     */
+    public String getFilterKey() {
+        StringBuilder key = new StringBuilder();
+        key.append(CommonUtils.notEmpty(where));
+        for (WebSQLDataFilterConstraint constr : constraints) {
+            key.append('|').append(constr.getAttributePosition())
+                .append(':').append(constr.getOrderPosition())
+                .append(':').append(constr.getOrderAsc())
+                .append(':').append(constr.getCriteria())
+                .append(':').append(constr.getOperator())
+                .append(':').append(constr.getValue());
+        }
+        return key.toString();
+    }
+
     public DBDDataFilter makeDataFilter(@Nullable WebSQLResultsInfo resultInfo) throws DBException
     {
         DBDDataFilter dataFilter = new DBDDataFilter();
@@ -22,13 +22,15 @@ import io.cloudbeaver.server.CBPlatform;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.sql.DBQuotaException;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.utils.CommonUtils;
 
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Timestamp;
@@ -38,6 +40,7 @@ import java.util.List;
 
 public class WebSQLDataLOBReceiver implements DBDDataReceiver {
     private static final Log log = Log.getLog(WebSQLDataLOBReceiver.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
     public static final Path DATA_EXPORT_FOLDER = CBPlatform.getInstance().getTempFolder(new VoidProgressMonitor(), "sql-lob-files");
 
     private final String tableName;
@@ -71,26 +74,97 @@ public class WebSQLDataLOBReceiver implements DBDDataReceiver {
         String s = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(ts);
         fileName.append(s);
         exportFileName = CommonUtils.escapeFileName(fileName.toString());
-        byte[] binaryValue;
         Number fileSizeLimit = CBApplication.getInstance().getAppConfiguration().getResourceQuota(CBConstants.QUOTA_PROP_FILE_LIMIT);
-        if (lobValue instanceof DBDContent) {
-            binaryValue = ContentUtils.getContentBinaryValue(session.getProgressMonitor(), (DBDContent) lobValue);
-        } else {
-            binaryValue = lobValue.getRawValue().toString().getBytes();
+        long maxFileSize = fileSizeLimit == null ? Long.MAX_VALUE : fileSizeLimit.longValue();
+        Path file = DATA_EXPORT_FOLDER.resolve(exportFileName);
+        boolean success = false;
+        try {
+            if (lobValue instanceof DBDContent) {
+                writeContent(session.getProgressMonitor(), (DBDContent) lobValue, file, maxFileSize);
+            } else {
+                Object rawValue = lobValue.getRawValue();
+                if (rawValue == null) {
+                    throw new DBCException("Lob value is null");
+                }
+                byte[] binaryValue = rawValue.toString().getBytes();
+                checkFileSize(maxFileSize, binaryValue.length);
+                Files.write(file, binaryValue);
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                Files.deleteIfExists(file);
+            }
         }
-        if (binaryValue == null) {
-            throw new DBCException("Lob value is null");
+        return exportFileName;
+    }
+
+
+
+    /**
+     * Copies content to the file by chunks, so the whole value is never loaded in memory.
+     * Content is streamed from the raw JDBC value (Blob or Clob) if it is available.
+     * File size quota is checked before content is read (by content length) and while content is copied.
+     */
+    private static void writeContent(DBRProgressMonitor monitor, DBDContent content, Path file, long maxFileSize) throws DBCException, IOException {
+        // Content length of text is in chars, it is a lower bound of bytes count
+        checkFileSize(maxFileSize, content.getContentLength());
+        try (CountingOutputStream out = new CountingOutputStream(Files.newOutputStream(file))) {
+            Reader rawReader = WebSQLUtils.openRawContentReader(content);
+            if (rawReader != null) {
+                copyText(rawReader, out, maxFileSize);
+                return;
+            }
+            InputStream rawStream = WebSQLUtils.openRawContentStream(content);
+            if (rawStream != null) {
+                copyBinary(rawStream, out, maxFileSize);
+                return;
+            }
+            DBDContentStorage storage = content.getContents(monitor);
+            if (storage == null) {
+                throw new DBCException("Lob value is null");
+            }
+            try {
+                if (ContentUtils.isTextContent(content)) {
+                    copyText(storage.getContentReader(), out, maxFileSize);
+                } else {
+                    copyBinary(storage.getContentStream(), out, maxFileSize);
+                }
+            } finally {
+                storage.release();
+            }
         }
-        if (binaryValue.length > fileSizeLimit.longValue()) {
-            throw new DBQuotaException(
-                    "Data export quota exceeded", CBConstants.QUOTA_PROP_FILE_LIMIT, fileSizeLimit.longValue(), binaryValue.length);
+    }
+
+    private static void copyText(Reader contentReader, CountingOutputStream out, long maxFileSize) throws DBCException, IOException {
+        try (Reader reader = contentReader) {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            char[] buffer = new char[COPY_BUFFER_SIZE];
+            for (int count; (count = reader.read(buffer)) != -1; ) {
+                writer.write(buffer, 0, count);
+                // Flush encoded bytes, so the quota is checked by the real file size
+                writer.flush();
+                checkFileSize(maxFileSize, out.getCount());
+            }
         }
-        Path file = DATA_EXPORT_FOLDER.resolve(exportFileName);
-        Files.write(file, binaryValue);
-        return exportFileName;
     }
 
+    private static void copyBinary(InputStream contentStream, CountingOutputStream out, long maxFileSize) throws DBCException, IOException {
+        try (InputStream in = contentStream) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            for (int count; (count = in.read(buffer)) != -1; ) {
+                out.write(buffer, 0, count);
+                checkFileSize(maxFileSize, out.getCount());
+            }
+        }
+    }
 
+    private static void checkFileSize(long maxFileSize, long fileSize) throws DBQuotaException {
+        if (fileSize > maxFileSize) {
+            throw new DBQuotaException(
+                "Data export quota exceeded", CBConstants.QUOTA_PROP_FILE_LIMIT, maxFileSize, fileSize);
+        }
+    }
 
     @Override
     public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
@@ -117,4 +191,31 @@ public class WebSQLDataLOBReceiver implements DBDDataReceiver {
     public void close() {
 
     }
+
+    /**
+     * Counts bytes written to the file
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
 }
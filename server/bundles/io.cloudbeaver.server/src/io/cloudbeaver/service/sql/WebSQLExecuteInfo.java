@@ -16,13 +16,21 @@
  */
 package io.cloudbeaver.service.sql;
 
+import io.cloudbeaver.model.session.WebSessionMemoryConsumer;
+import io.cloudbeaver.server.CBPlatform;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.meta.Property;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * WebSQLExecuteInfo.
  */
-public class WebSQLExecuteInfo {
+public class WebSQLExecuteInfo implements WebSessionMemoryConsumer {
 
     private static final Log log = Log.getLog(WebSQLExecuteInfo.class);
 
@@ -66,4 +74,52 @@ public class WebSQLExecuteInfo {
     public void setResults(WebSQLQueryResults[] results) {
         this.results = results;
     }
+
+    /**
+     * Estimated size of result rows
+     */
+    @Override
+    public long getMemoryUsage() {
+        long size = 0;
+        for (WebSQLQueryResultSet resultSet : getResultSets()) {
+            size += resultSet.getMemoryUsage();
+        }
+        return size;
+    }
+
+    /**
+     * Moves all result rows to disk. Rows are read back when results are read by client.
+     */
+    @Override
+    public long releaseMemory(long size) {
+        long oldSize = getMemoryUsage();
+        Path spillFolder = CBPlatform.getInstance().getTempFolder(new VoidProgressMonitor(), WebSQLResultsCache.RESULTS_TEMP_FOLDER);
+        for (WebSQLQueryResultSet resultSet : getResultSets()) {
+            try {
+                resultSet.spillRows(spillFolder);
+            } catch (IOException e) {
+                log.debug("Error spilling query results: " + e.getMessage());
+            }
+        }
+        return oldSize - getMemoryUsage();
+    }
+
+    @Override
+    public void disposeData() {
+        for (WebSQLQueryResultSet resultSet : getResultSets()) {
+            resultSet.disposeSpilledRows();
+        }
+    }
+
+    private List<WebSQLQueryResultSet> getResultSets() {
+        List<WebSQLQueryResultSet> resultSets = new ArrayList<>();
+        if (results != null) {
+            for (WebSQLQueryResults result : results) {
+                if (result.getResultSet() != null) {
+                    resultSets.add(result.getResultSet());
+                }
+            }
+        }
+        return resultSets;
+    }
 }
@@ -160,6 +160,7 @@ public class WebSQLProcessor implements WebSessionProvider {
         DBSDataContainer dataContainer = new WebSQLQueryDataContainer(connection.getDataSource(), sql);
 
         DBCExecutionContext context = getExecutionContext(dataContainer);
+        WebSQLResultsCache resultsCache = WebSQLResultsCache.getResultsCache(webSession);
 
         try {
             final DBDDataFilter dataFilter = filter.makeDataFilter((resultId == null ? null : contextInfo.getResults(resultId)));
@@ -171,7 +172,19 @@ public class WebSQLProcessor implements WebSessionProvider {
                     dataFilter);
             }
 
+            final String cacheKey = WebSQLResultsCache.makeQueryKey(sql + ":" + filter.getFilterKey(), dataFormat);
+            if (resultsCache != null && resultId != null) {
+                if (readCachedResults(contextInfo, resultsCache, resultId, cacheKey, filter, dataFormat, executeInfo)) {
+                    setResultFilterText(dataContainer, context.getDataSource(), executeInfo, dataFilter);
+                    executeInfo.setDuration(System.currentTimeMillis() - startTime);
+                    executeInfo.setStatusMessage("Success");
+                    return executeInfo;
+                }
+                resultsCache.removeResults(contextInfo, resultId);
+            }
+
             final WebSQLDataFilter webDataFilter = filter;
+            final int fetchLimit = resultsCache == null ? filter.getLimit() : resultsCache.getFetchLimit(filter.getLimit());
             final String sqlQueryText = sql;
             SQLQuery sqlQuery = new SQLQuery(context.getDataSource(), sqlQueryText);
             DBExecUtils.tryExecuteRecover(monitor, connection.getDataSource(), param -> {
@@ -188,7 +201,7 @@ public class WebSQLProcessor implements WebSessionProvider {
                         DBCStatementType.SCRIPT,
                         sqlQuery,
                         webDataFilter.getOffset(),
-                        webDataFilter.getLimit()))
+                        fetchLimit))
                     {
                         // Set query timeout
                         int queryTimeout = (int) session.getDataSource().getContainer().getPreferenceStore()
@@ -207,7 +220,9 @@ public class WebSQLProcessor implements WebSessionProvider {
                         }
 
                         boolean hasResultSet = dbStat.executeStatement();
-                        fillQueryResults(contextInfo, dataContainer, dbStat, hasResultSet, executeInfo, webDataFilter, dataFilter, dataFormat);
+                        fillQueryResults(
+                            contextInfo, dataContainer, dbStat, hasResultSet, executeInfo, webDataFilter, dataFilter, dataFormat,
+                            resultsCache, cacheKey, fetchLimit);
                     } catch (DBException e) {
                         throw new InvocationTargetException(e);
                     }
@@ -239,24 +254,48 @@ public class WebSQLProcessor implements WebSessionProvider {
 
         DBCExecutionContext executionContext = getExecutionContext(dataContainer);
         DBDDataFilter dataFilter = filter.makeDataFilter((resultId == null ? null : contextInfo.getResults(resultId)));
+
+        WebSQLResultsCache resultsCache = WebSQLResultsCache.getResultsCache(webSession);
+        String cacheKey = resultsCache == null ? null : WebSQLResultsCache.makeQueryKey(
+            DBUtils.getObjectFullId(dataContainer) + ":" + filter.getFilterKey(), dataFormat);
+        if (resultsCache != null && resultId != null) {
+            long startTime = System.currentTimeMillis();
+            if (readCachedResults(contextInfo, resultsCache, resultId, cacheKey, filter, dataFormat, executeInfo)) {
+                setResultFilterText(dataContainer, executionContext.getDataSource(), executeInfo, dataFilter);
+                executeInfo.setDuration(System.currentTimeMillis() - startTime);
+                executeInfo.setStatusMessage(
+                    executeInfo.getResults()[0].getResultSet().getRows().length + " row(s) fetched");
+                return executeInfo;
+            }
+            resultsCache.removeResults(contextInfo, resultId);
+        }
+        int fetchLimit = resultsCache == null ? filter.getLimit() : resultsCache.getFetchLimit(filter.getLimit());
+
         DBExecUtils.tryExecuteRecover(monitor, connection.getDataSource(), param -> {
             try (DBCSession session = executionContext.openSession(monitor, resolveQueryPurpose(dataFilter), "Read data from container")) {
-                try (WebSQLQueryDataReceiver dataReceiver = new WebSQLQueryDataReceiver(contextInfo, dataContainer, dataFormat)) {
+                WebSQLResultsBuffer readAheadBuffer = resultsCache == null ? null :
+                    resultsCache.createReadAheadBuffer(filter.getOffset(), filter.getLimit());
+                try (WebSQLQueryDataReceiver dataReceiver = new WebSQLQueryDataReceiver(
+                    contextInfo, dataContainer, dataFormat, readAheadBuffer, filter.getLimit()))
+                {
                     DBCStatistics statistics = dataContainer.readData(
                         new WebExecutionSource(dataContainer, executionContext, this),
                         session,
                         dataReceiver,
                         dataFilter,
                         filter.getOffset(),
-                        filter.getLimit(),
+                        fetchLimit,
                         DBSDataContainer.FLAG_NONE,
-                        filter.getLimit());
+                        fetchLimit);
                     executeInfo.setDuration(statistics.getTotalTime());
 
                     WebSQLQueryResults results = new WebSQLQueryResults(webSession, dataFormat);
                     WebSQLQueryResultSet resultSet = dataReceiver.getResultSet();
                     results.setResultSet(resultSet);
                     executeInfo.setResults(new WebSQLQueryResults[]{results});
+                    if (readAheadBuffer != null) {
+                        cacheResults(contextInfo, resultsCache, cacheKey, fetchLimit, results, readAheadBuffer);
+                    }
                     setResultFilterText(dataContainer, session.getDataSource(), executeInfo, dataFilter);
 
                     if (resultSet != null && resultSet.getRows() != null) {
@@ -288,6 +327,12 @@ public class WebSQLProcessor implements WebSessionProvider {
 
         WebSQLResultsInfo resultsInfo = contextInfo.getResults(resultsId);
 
+        // Cached rows don't reflect data changes
+        WebSQLResultsCache resultsCache = WebSQLResultsCache.findResultsCache(webSession);
+        if (resultsCache != null) {
+            resultsCache.removeResults(contextInfo, resultsId);
+        }
+
         long totalUpdateCount = 0;
 
         WebSQLExecuteInfo result = new WebSQLExecuteInfo();
@@ -719,9 +764,13 @@ public class WebSQLProcessor implements WebSessionProvider {
         @NotNull WebSQLExecuteInfo executeInfo,
         @NotNull WebSQLDataFilter webDataFilter,
         @NotNull DBDDataFilter dataFilter,
-        @Nullable WebDataFormat dataFormat) throws DBException {
+        @Nullable WebDataFormat dataFormat,
+        @Nullable WebSQLResultsCache resultsCache,
+        @NotNull String cacheKey,
+        int fetchLimit) throws DBException {
 
         List<WebSQLQueryResults> resultList = new ArrayList<>();
+        List<WebSQLResultsBuffer> readAheadBuffers = new ArrayList<>();
         int maxResultsCount = resolveMaxResultsCount(dataContainer.getDataSource());
         for (int i = 0; i < maxResultsCount; i++) {
             WebSQLQueryResults results = new WebSQLQueryResults(webSession, dataFormat);
@@ -730,10 +779,17 @@ public class WebSQLProcessor implements WebSessionProvider {
                     if (resultSet == null) {
                         break;
                     }
-                    try (WebSQLQueryDataReceiver dataReceiver = new WebSQLQueryDataReceiver(contextInfo, dataContainer, dataFormat)) {
-                        readResultSet(dbStat.getSession(), resultSet, webDataFilter, dataReceiver);
+                    WebSQLResultsBuffer readAheadBuffer = resultsCache == null ? null :
+                        resultsCache.createReadAheadBuffer(webDataFilter.getOffset(), webDataFilter.getLimit());
+                    try (WebSQLQueryDataReceiver dataReceiver = new WebSQLQueryDataReceiver(
+                        contextInfo, dataContainer, dataFormat, readAheadBuffer, webDataFilter.getLimit()))
+                    {
+                        readResultSet(dbStat.getSession(), resultSet, webDataFilter.getOffset(), fetchLimit, dataReceiver);
                         results.setResultSet(dataReceiver.getResultSet());
                     }
+                    if (readAheadBuffer != null) {
+                        readAheadBuffers.add(readAheadBuffer);
+                    }
                 }
             } else {
                 long updateRowCount = dbStat.getUpdateRowCount();
@@ -749,6 +805,14 @@ public class WebSQLProcessor implements WebSessionProvider {
         if (resultList.isEmpty()) {
             resultList.add(new WebSQLQueryResults(webSession, dataFormat));
         }
+        if (resultsCache != null) {
+            if (resultList.size() == 1 && readAheadBuffers.size() == 1) {
+                cacheResults(contextInfo, resultsCache, cacheKey, fetchLimit, resultList.get(0), readAheadBuffers.get(0));
+            } else {
+                // Multiple results are not cached
+                readAheadBuffers.forEach(WebSQLResultsBuffer::dispose);
+            }
+        }
         executeInfo.setResults(resultList.toArray(new WebSQLQueryResults[0]));
 
         setResultFilterText(dataContainer, dbStat.getSession().getDataSource(), executeInfo, dataFilter);
@@ -767,11 +831,11 @@ public class WebSQLProcessor implements WebSessionProvider {
         }
     }
 
-    private void readResultSet(@NotNull DBCSession session, @NotNull DBCResultSet dbResult, @NotNull WebSQLDataFilter filter, @NotNull WebSQLQueryDataReceiver dataReceiver) throws DBCException {
-        dataReceiver.fetchStart(session, dbResult, filter.getOffset(), filter.getLimit());
+    private void readResultSet(@NotNull DBCSession session, @NotNull DBCResultSet dbResult, long offset, long limit, @NotNull WebSQLQueryDataReceiver dataReceiver) throws DBCException {
+        dataReceiver.fetchStart(session, dbResult, offset, limit);
         int rowCount = 0;
         while (dbResult.nextRow()) {
-            if (rowCount > filter.getLimit()) {
+            if (rowCount > limit) {
                 break;
             }
 
@@ -781,6 +845,63 @@ public class WebSQLProcessor implements WebSessionProvider {
         dataReceiver.fetchEnd(session, dbResult);
     }
 
+    ////////////////////////////////////////////////
+    // Results cache
+
+    private boolean readCachedResults(
+        @NotNull WebSQLContextInfo contextInfo,
+        @NotNull WebSQLResultsCache resultsCache,
+        @NotNull String resultId,
+        @NotNull String cacheKey,
+        @NotNull WebSQLDataFilter filter,
+        @Nullable WebDataFormat dataFormat,
+        @NotNull WebSQLExecuteInfo executeInfo) throws DBWebException
+    {
+        Object[][] rows = resultsCache.readPage(contextInfo, resultId, cacheKey, filter.getOffset(), filter.getLimit());
+        if (rows == null) {
+            return false;
+        }
+        // Same as for pages fetched from the database: page rows plus "more data" flag
+        boolean hasMoreData = resultsCache.hasMoreRows(contextInfo, resultId, filter.getOffset() + rows.length);
+        WebSQLResultsInfo prevResultsInfo = contextInfo.getResults(resultId);
+        DBDAttributeBinding[] bindings = prevResultsInfo.getAttributes();
+        // Client closes previous results, so the page gets new results ID and cached rows move to it
+        WebSQLResultsInfo resultsInfo = contextInfo.saveResult(prevResultsInfo.getDataContainer(), bindings);
+        resultsCache.moveResults(contextInfo, resultId, resultsInfo.getId());
+
+        WebSQLQueryResultSet resultSet = new WebSQLQueryResultSet();
+        resultSet.setColumns(bindings);
+        resultSet.setRows(rows);
+        resultSet.setHasMoreData(hasMoreData);
+        resultSet.setResultsInfo(resultsInfo);
+        resultSet.setSingleEntity(DBExecUtils.detectSingleSourceTable(bindings) != null);
+        DBDRowIdentifier rowIdentifier = resultsInfo.getDefaultRowIdentifier();
+        resultSet.setHasRowIdentifier(rowIdentifier != null && rowIdentifier.isValidIdentifier());
+
+        WebSQLQueryResults results = new WebSQLQueryResults(webSession, dataFormat);
+        results.setResultSet(resultSet);
+        executeInfo.setResults(new WebSQLQueryResults[]{results});
+        return true;
+    }
+
+    private void cacheResults(
+        @NotNull WebSQLContextInfo contextInfo,
+        @NotNull WebSQLResultsCache resultsCache,
+        @NotNull String cacheKey,
+        int fetchLimit,
+        @NotNull WebSQLQueryResults results,
+        @NotNull WebSQLResultsBuffer readAheadBuffer)
+    {
+        WebSQLQueryResultSet resultSet = results.getResultSet();
+        if (resultSet == null || resultSet.getRows() == null || resultSet.getResultsInfo() == null) {
+            readAheadBuffer.dispose();
+            return;
+        }
+        readAheadBuffer.setComplete(resultSet.getRows().length + readAheadBuffer.getRowCount() < fetchLimit);
+        resultsCache.putResults(contextInfo, resultSet.getResultsInfo().getId(), cacheKey, readAheadBuffer);
+        contextInfo.getWebSession().checkMemoryUsage();
+    }
+
     /**
      * Key data receiver
      */
@@ -18,6 +18,7 @@ package io.cloudbeaver.service.sql;
 
 import io.cloudbeaver.model.session.WebSession;
 import io.cloudbeaver.server.CBApplication;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBUtils;
@@ -30,24 +31,53 @@ import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Query data receiver.
+ * <p>
+ * Rows are collected into an array pre-sized from the fetch limit. Attributes are bound at the end of fetch
+ * (binding may run metadata queries and may change value handlers, so it can't be done while result set is open
+ * and rows must not be converted before it). Then rows are converted into their web representation in place.
+ * If read-ahead buffer is specified then rows after the first page go to that buffer.
+ */
 class WebSQLQueryDataReceiver implements DBDDataReceiver {
     private static final Log log = Log.getLog(WebSQLQueryDataReceiver.class);
 
+    // Upper bound for rows buffer pre-allocation. Buffer grows beyond it if needed.
+    private static final int MAX_PREALLOCATED_ROWS = 10000;
+    private static final int DEFAULT_ROWS_CAPACITY = 200;
+
     private final WebSQLContextInfo contextInfo;
     private final DBSDataContainer dataContainer;
     private final WebDataFormat dataFormat;
     private final WebSQLQueryResultSet webResultSet = new WebSQLQueryResultSet();
+    @Nullable
+    private final WebSQLResultsBuffer readAheadBuffer;
+    private final int pageSize;
 
     private DBDAttributeBinding[] bindings;
-    private List<Object[]> rows = new ArrayList<>();
+    private Object[][] rows = new Object[0][];
+    private int rowCount;
     private final Number rowLimit;
 
     WebSQLQueryDataReceiver(WebSQLContextInfo contextInfo, DBSDataContainer dataContainer, WebDataFormat dataFormat) {
+        this(contextInfo, dataContainer, dataFormat, null, 0);
+    }
+
+    WebSQLQueryDataReceiver(
+        WebSQLContextInfo contextInfo,
+        DBSDataContainer dataContainer,
+        WebDataFormat dataFormat,
+        @Nullable WebSQLResultsBuffer readAheadBuffer,
+        int pageSize
+    ) {
         this.contextInfo = contextInfo;
         this.dataContainer = dataContainer;
         this.dataFormat = dataFormat;
+        this.readAheadBuffer = readAheadBuffer;
+        this.pageSize = pageSize;
         rowLimit = CBApplication.getInstance().getAppConfiguration().getResourceQuota(WebSQLConstants.QUOTA_PROP_ROW_LIMIT);
     }
 
@@ -64,6 +94,8 @@ class WebSQLQueryDataReceiver implements DBDDataReceiver {
             DBCAttributeMetaData attrMeta = attributes.get(i);
             bindings[i] = new DBDAttributeBindingMeta(dataContainer, dbResult.getSession(), attrMeta);
         }
+        rowCount = 0;
+        rows = new Object[getInitialCapacity(maxRows)][];
     }
 
     @Override
@@ -85,51 +117,44 @@ class WebSQLQueryDataReceiver implements DBDDataReceiver {
             }
         }
 
-        rows.add(row);
-
-        if (rowLimit != null && rows.size() > rowLimit.longValue()) {
+        // Read-ahead rows are not limited by quota
+        boolean pageRow = readAheadBuffer == null || rowCount < pageSize;
+        if (rowLimit != null && pageRow && rowCount >= rowLimit.longValue()) {
             throw new DBQuotaException(
-                "Result set rows quota exceeded", WebSQLConstants.QUOTA_PROP_ROW_LIMIT, rowLimit.longValue(), rows.size());
+                "Result set rows quota exceeded", WebSQLConstants.QUOTA_PROP_ROW_LIMIT, rowLimit.longValue(), rowCount + 1);
         }
+
+        addRow(row);
     }
 
     @Override
     public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
 
-        WebSession webSession = contextInfo.getProcessor().getWebSession();
-        DBSEntity entity = dataContainer instanceof DBSEntity ? (DBSEntity) dataContainer : null;
-
-        try {
-            DBExecUtils.bindAttributes(session, entity, resultSet, bindings, rows);
-        } catch (DBException e) {
-            log.error("Error binding attributes", e);
-        }
+        bindAttributes(session, resultSet, Arrays.asList(rows).subList(0, rowCount));
 
         if (dataFormat != WebDataFormat.document) {
             convertComplexValuesToRelationalView(session);
         }
+        updateOrdinalPositions();
 
-        // Set proper order position
-        for (int i = 0; i < bindings.length; i++) {
-            DBDAttributeBinding binding = bindings[i];
-            if (binding instanceof DBDAttributeBindingType) {
-                // Type bindings are produced by dynamic map resolve
-                // Their positions are valid only within parent value
-                // In web we make plain list of attributes so we must reorder leaf attributes
-                ((DBDAttributeBindingType) binding).setOrdinalPosition(i);
-            }
+        // Convert row values in place
+        for (int i = 0; i < rowCount; i++) {
+            convertRowToWebValues(rows[i]);
         }
 
-        // Convert row values
-        for (Object[] row : rows) {
-            for (int i = 0; i < bindings.length; i++) {
-                DBDAttributeBinding binding = bindings[i];
-                row[i] = WebSQLUtils.makeWebCellValue(webSession, binding, row[i], dataFormat);
+        if (readAheadBuffer != null && rowCount > pageSize) {
+            for (int i = pageSize; i < rowCount; i++) {
+                readAheadBuffer.addRow(rows[i]);
+                rows[i] = null;
             }
+            rowCount = pageSize;
+        }
+        if (readAheadBuffer != null && readAheadBuffer.getRowCount() > 0) {
+            webResultSet.setHasMoreData(true);
         }
 
         webResultSet.setColumns(bindings);
-        webResultSet.setRows(rows.toArray(new Object[0][]));
+        webResultSet.setRows(rowCount == rows.length ? rows : Arrays.copyOf(rows, rowCount));
 
         WebSQLResultsInfo resultsInfo = contextInfo.saveResult(dataContainer, bindings);
         webResultSet.setResultsInfo(resultsInfo);
@@ -142,6 +167,51 @@ class WebSQLQueryDataReceiver implements DBDDataReceiver {
         webResultSet.setHasRowIdentifier(rowIdentifier != null && rowIdentifier.isValidIdentifier());
     }
 
+    private void bindAttributes(DBCSession session, DBCResultSet resultSet, List<Object[]> rawRows) {
+        DBSEntity entity = dataContainer instanceof DBSEntity ? (DBSEntity) dataContainer : null;
+        try {
+            DBExecUtils.bindAttributes(session, entity, resultSet, bindings, rawRows);
+        } catch (DBException e) {
+            log.error("Error binding attributes", e);
+        }
+    }
+
+    private void updateOrdinalPositions() {
+        // Set proper order position
+        for (int i = 0; i < bindings.length; i++) {
+            DBDAttributeBinding binding = bindings[i];
+            if (binding instanceof DBDAttributeBindingType) {
+                // Type bindings are produced by dynamic map resolve
+                // Their positions are valid only within parent value
+                // In web we make plain list of attributes so we must reorder leaf attributes
+                ((DBDAttributeBindingType) binding).setOrdinalPosition(i);
+            }
+        }
+    }
+
+    private void convertRowToWebValues(Object[] row) throws DBCException {
+        WebSession webSession = contextInfo.getProcessor().getWebSession();
+        for (int i = 0; i < bindings.length; i++) {
+            row[i] = WebSQLUtils.makeWebCellValue(webSession, bindings[i], row[i], dataFormat);
+        }
+    }
+
+    private int getInitialCapacity(long maxRows) {
+        // Processor reads one extra row to detect that there is more data
+        long capacity = maxRows > 0 ? maxRows + 1 : DEFAULT_ROWS_CAPACITY;
+        if (rowLimit != null && rowLimit.longValue() >= 0) {
+            capacity = Math.min(capacity, rowLimit.longValue() + 1);
+        }
+        return (int) Math.min(capacity, MAX_PREALLOCATED_ROWS);
+    }
+
+    private void addRow(Object[] row) {
+        if (rowCount == rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(DEFAULT_ROWS_CAPACITY, rows.length + (rows.length >> 1)));
+        }
+        rows[rowCount++] = row;
+    }
+
     private void convertComplexValuesToRelationalView(DBCSession session) {
         // Here we get leaf attributes and refetch them into plain tabl structure
         List<DBDAttributeBinding> leafBindings = new ArrayList<>();
@@ -154,10 +224,11 @@ class WebSQLQueryDataReceiver implements DBDDataReceiver {
         }
 
         // Convert original rows into new rows with leaf attributes
-        // Extract values for leaf attributes from original row
+        // Extract values for leaf attributes from original row.
+        // Rows are replaced in place so we don't keep both copies in memory.
         DBDAttributeBinding[] leafAttributes = leafBindings.toArray(new DBDAttributeBinding[0]);
-        List<Object[]> newRows = new ArrayList<>();
-        for (Object[] row : rows) {
+        for (int r = 0; r < rowCount; r++) {
+            Object[] row = rows[r];
             Object[] newRow = new Object[leafBindings.size()];
             for (int i = 0; i < leafBindings.size(); i++) {
                 DBDAttributeBinding leafAttr = leafBindings.get(i);
@@ -177,10 +248,9 @@ class WebSQLQueryDataReceiver implements DBDDataReceiver {
                     newRow[i] = new DBDValueError(e);
                 }
             }
-            newRows.add(newRow);
+            rows[r] = newRow;
         }
         this.bindings = leafAttributes;
-        this.rows = newRows;
     }
 
     private void collectLeafBindings(DBDAttributeBinding attr, List<DBDAttributeBinding> leafBindings) {
@@ -196,6 +266,7 @@ class WebSQLQueryDataReceiver implements DBDDataReceiver {
 
     @Override
     public void close() {
-        rows.clear();
+        rows = new Object[0][];
+        rowCount = 0;
     }
 }
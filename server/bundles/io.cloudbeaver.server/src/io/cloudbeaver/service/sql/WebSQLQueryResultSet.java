@@ -16,10 +16,14 @@
  */
 package io.cloudbeaver.service.sql;
 
+import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.meta.Property;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Web SQL query resultset.
  */
@@ -29,6 +33,8 @@ public class WebSQLQueryResultSet {
 
     private WebSQLQueryResultColumn[] columns;
     private Object[][] rows;
+    // Rows moved to disk until they are read
+    private WebSQLResultsBuffer spilledRows;
     private boolean hasMoreData;
     private WebSQLResultsInfo resultsInfo;
     private boolean singleEntity = true;
@@ -60,14 +66,63 @@ public class WebSQLQueryResultSet {
     }
 
     @Property
-    public Object[][] getRows() {
+    public synchronized Object[][] getRows() {
+        if (spilledRows != null) {
+            try {
+                rows = spilledRows.readRows(0, spilledRows.getRowCount());
+            } catch (IOException e) {
+                throw new IllegalStateException("Error reading spilled result rows", e);
+            } finally {
+                disposeSpilledRows();
+            }
+        }
         return rows;
     }
 
-    public void setRows(Object[][] rows) {
+    public synchronized void setRows(Object[][] rows) {
+        disposeSpilledRows();
         this.rows = rows;
     }
 
+    /**
+     * Moves rows to a buffer spilled to the specified folder. Rows are read back on the first access.
+     */
+    synchronized void spillRows(@NotNull Path folder) throws IOException {
+        if (rows == null || rows.length == 0 || spilledRows != null) {
+            return;
+        }
+        WebSQLResultsBuffer buffer = new WebSQLResultsBuffer(0);
+        for (Object[] row : rows) {
+            buffer.addRow(row);
+        }
+        buffer.setComplete(true);
+        try {
+            buffer.spill(folder);
+        } catch (IOException e) {
+            buffer.dispose();
+            throw e;
+        }
+        spilledRows = buffer;
+        rows = null;
+    }
+
+    synchronized void disposeSpilledRows() {
+        if (spilledRows != null) {
+            spilledRows.dispose();
+            spilledRows = null;
+        }
+    }
+
+    /**
+     * Estimated heap size of rows
+     */
+    synchronized long getMemoryUsage() {
+        if (spilledRows != null) {
+            return spilledRows.getHeapSize();
+        }
+        return rows == null ? 0 : WebSQLResultsBuffer.estimateRowsSize(rows);
+    }
+
     @Property
     public boolean isHasMoreData() {
         return hasMoreData;
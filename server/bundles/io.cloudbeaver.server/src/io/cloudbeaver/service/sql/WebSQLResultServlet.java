@@ -4,12 +4,12 @@ import io.cloudbeaver.DBWebException;
 import io.cloudbeaver.model.session.WebSession;
 import io.cloudbeaver.server.CBApplication;
 import io.cloudbeaver.server.servlets.CBStaticServlet;
+import io.cloudbeaver.service.WebServiceFileSender;
 import io.cloudbeaver.service.WebServiceServletBase;
 import org.eclipse.jetty.server.Request;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.utils.CommonUtils;
-import org.jkiss.utils.IOUtils;
 
 import javax.servlet.MultipartConfigElement;
 import javax.servlet.ServletException;
@@ -18,7 +18,6 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.Part;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.UUID;
@@ -69,16 +68,16 @@ public class WebSQLResultServlet extends WebServiceServletBase {
 
             Path dataFile = WebSQLDataLOBReceiver.DATA_EXPORT_FOLDER.resolve(valuePath);
             session.addInfoMessage("Download LOB file ...");
-            response.setHeader("Content-Type", "application/octet-stream");
-            response.setHeader("Content-Disposition", "attachment; filename=\"" + dataFile.getFileName().toString() + "\"");
-            response.setHeader("Content-Length", String.valueOf(Files.size(dataFile)));
             response.setDateHeader("Expires", System.currentTimeMillis() + CBStaticServlet.STATIC_CACHE_SECONDS * 1000);
             response.setHeader("Cache-Control", "public, max-age=" + CBStaticServlet.STATIC_CACHE_SECONDS);
 
-            try (InputStream is = Files.newInputStream(dataFile)) {
-                IOUtils.copyStream(is, response.getOutputStream());
+            boolean sentToEnd = new WebServiceFileSender(dataFile)
+                .setAttachmentName(dataFile.getFileName().toString())
+                .send(request, response);
+            // Keep file until the download reaches its end (whole file or the last range), so it can be resumed
+            if (sentToEnd) {
+                Files.deleteIfExists(dataFile);
             }
-            Files.deleteIfExists(dataFile);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,513 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.sql;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Columnar buffer of web result rows.
+ * <p>
+ * Values are stored per column. Web values of numbers and dates are display strings, so integer columns
+ * (strings which are exact long representations) keep primitive longs, other string columns keep UTF-8 data
+ * in a single byte array, boolean columns keep bit sets. Other values (content, geometry, complex values) are kept as is.
+ * Once filled, string and integer columns can be spilled to a temp file so they don't occupy JVM heap.
+ * Spilled data is read back in chunks (one positional read per column and requested rows range),
+ * the file is closed and deleted on dispose.
+ */
+public class WebSQLResultsBuffer {
+
+    private static final Log log = Log.getLog(WebSQLResultsBuffer.class);
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long offset;
+    private Column[] columns;
+    private int rowCount;
+    private boolean complete;
+    private Path spillFile;
+    private FileChannel spillChannel;
+
+    public WebSQLResultsBuffer(long offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Offset of the first buffered row in the whole result
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * True if buffer contains all rows up to the end of result
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    public void addRow(@NotNull Object[] row) {
+        if (spillFile != null) {
+            throw new IllegalStateException("Can't add rows to spilled results buffer");
+        }
+        if (columns == null) {
+            columns = new Column[row.length];
+            for (int i = 0; i < row.length; i++) {
+                columns[i] = new Column();
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(rowCount, i < row.length ? row[i] : null);
+        }
+        rowCount++;
+    }
+
+    @NotNull
+    public synchronized Object[][] readRows(int fromRow, int toRow) throws IOException {
+        int columnCount = columns == null ? 0 : columns.length;
+        Object[][] rows = new Object[toRow - fromRow][];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = new Object[columnCount];
+        }
+        for (int i = 0; i < columnCount; i++) {
+            Object[] values = columns[i].readValues(spillChannel, fromRow, toRow);
+            for (int r = 0; r < rows.length; r++) {
+                rows[r][i] = values[r];
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Estimated size of buffer data in heap
+     */
+    public long getHeapSize() {
+        long size = 0;
+        if (columns != null) {
+            for (Column column : columns) {
+                size += column.getHeapSize(rowCount);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Estimated total size of buffer data (heap and spilled)
+     */
+    public long getDataSize() {
+        long size = getHeapSize();
+        if (columns != null) {
+            for (Column column : columns) {
+                size += column.getSpilledSize();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Moves string and integer columns data into a temp file in the specified folder.
+     */
+    public synchronized void spill(@NotNull Path folder) throws IOException {
+        if (spillFile != null || columns == null) {
+            return;
+        }
+        Path file = Files.createTempFile(folder, "results-", ".bin");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long position = 0;
+            for (Column column : columns) {
+                if (column.kind == Column.KIND_STRING || column.kind == Column.KIND_LONG) {
+                    position = column.spill(channel, position, rowCount);
+                }
+            }
+        } catch (IOException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        spillFile = file;
+        spillChannel = channel;
+    }
+
+    public synchronized void dispose() {
+        columns = null;
+        rowCount = 0;
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } catch (IOException e) {
+                log.debug("Error closing results file " + spillFile + ": " + e.getMessage());
+            }
+            spillChannel = null;
+        }
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                log.debug("Can't delete results file " + spillFile + ": " + e.getMessage());
+            }
+            spillFile = null;
+        }
+    }
+
+    /**
+     * Estimated heap size of web rows (not buffered)
+     */
+    static long estimateRowsSize(@NotNull Object[][] rows) {
+        long size = 16 + 8L * rows.length;
+        for (Object[] row : rows) {
+            size += 16 + 8L * row.length;
+            for (Object value : row) {
+                size += estimateValueSize(value);
+            }
+        }
+        return size;
+    }
+
+    private static long estimateValueSize(Object value) {
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        } else if (value instanceof Map) {
+            long size = 64 + 48L * ((Map<?, ?>) value).size();
+            for (Object item : ((Map<?, ?>) value).values()) {
+                size += estimateValueSize(item);
+            }
+            return size;
+        } else if (value != null) {
+            return 24;
+        }
+        return 0;
+    }
+
+    private static class Column {
+        static final byte KIND_UNDEFINED = 0;
+        static final byte KIND_STRING = 1;
+        static final byte KIND_BOOLEAN = 2;
+        static final byte KIND_OBJECT = 3;
+        static final byte KIND_LONG = 4;
+
+        byte kind = KIND_UNDEFINED;
+        final BitSet nulls = new BitSet();
+
+        // Strings
+        int[] offsets;
+        byte[] data;
+        int dataLength;
+
+        // Integers
+        long[] longs;
+
+        // Position of spilled data in file (offsets or longs, then string data), -1 if column is not spilled
+        long spilledPosition = -1;
+        long spilledDataPosition;
+        long spilledSize;
+
+        // Booleans
+        BitSet booleans;
+
+        // Other values
+        Object[] values;
+
+        void add(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                if (kind == KIND_STRING) {
+                    addString(row, null);
+                } else if (kind == KIND_LONG) {
+                    addLong(row, 0);
+                } else if (kind == KIND_OBJECT) {
+                    addObject(row, null);
+                }
+                return;
+            }
+            if (kind == KIND_UNDEFINED) {
+                initKind(row, value);
+            } else if (((kind == KIND_STRING || kind == KIND_LONG) && !(value instanceof String)) ||
+                (kind == KIND_BOOLEAN && !(value instanceof Boolean)))
+            {
+                convertToObjects(row);
+            } else if (kind == KIND_LONG && !isLongString((String) value)) {
+                convertToStrings(row);
+            }
+            switch (kind) {
+                case KIND_STRING:
+                    addString(row, (String) value);
+                    break;
+                case KIND_LONG:
+                    addLong(row, Long.parseLong((String) value));
+                    break;
+                case KIND_BOOLEAN:
+                    if ((Boolean) value) {
+                        booleans.set(row);
+                    }
+                    break;
+                default:
+                    addObject(row, value);
+                    break;
+            }
+        }
+
+        Object get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            switch (kind) {
+                case KIND_STRING:
+                    return getString(row);
+                case KIND_LONG:
+                    return Long.toString(longs[row]);
+                case KIND_BOOLEAN:
+                    return booleans.get(row);
+                case KIND_OBJECT:
+                    return values[row];
+                default:
+                    return null;
+            }
+        }
+
+        private void initKind(int row, Object value) {
+            if (value instanceof String && isLongString((String) value)) {
+                kind = KIND_LONG;
+                longs = new long[Math.max(INITIAL_CAPACITY, row + 1)];
+            } else if (value instanceof String) {
+                kind = KIND_STRING;
+                offsets = new int[Math.max(INITIAL_CAPACITY, row + 2)];
+                data = new byte[INITIAL_CAPACITY * 16];
+                // Previous rows were nulls
+                for (int i = 0; i < row; i++) {
+                    addString(i, null);
+                }
+            } else if (value instanceof Boolean) {
+                kind = KIND_BOOLEAN;
+                booleans = new BitSet();
+            } else {
+                kind = KIND_OBJECT;
+                values = new Object[Math.max(INITIAL_CAPACITY, row + 1)];
+            }
+        }
+
+        private void convertToObjects(int rowCount) {
+            Object[] newValues = new Object[Math.max(INITIAL_CAPACITY, rowCount + 1)];
+            for (int i = 0; i < rowCount; i++) {
+                newValues[i] = get(i);
+            }
+            kind = KIND_OBJECT;
+            values = newValues;
+            offsets = null;
+            data = null;
+            longs = null;
+            booleans = null;
+        }
+
+        private void convertToStrings(int rowCount) {
+            long[] oldLongs = longs;
+            kind = KIND_STRING;
+            longs = null;
+            offsets = new int[Math.max(INITIAL_CAPACITY, rowCount + 2)];
+            data = new byte[INITIAL_CAPACITY * 16];
+            dataLength = 0;
+            for (int i = 0; i < rowCount; i++) {
+                addString(i, nulls.get(i) ? null : Long.toString(oldLongs[i]));
+            }
+        }
+
+        /**
+         * True if value is the exact string representation of long (so it can be restored from long)
+         */
+        private static boolean isLongString(String value) {
+            int length = value.length();
+            if (length == 0 || length > 20) {
+                return false;
+            }
+            try {
+                return Long.toString(Long.parseLong(value)).equals(value);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private void addLong(int row, long value) {
+            if (row >= longs.length) {
+                longs = Arrays.copyOf(longs, Math.max(row + 1, longs.length + (longs.length >> 1)));
+            }
+            longs[row] = value;
+        }
+
+        private void addString(int row, String value) {
+            if (row + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+            }
+            if (value != null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (dataLength + bytes.length > data.length) {
+                    data = Arrays.copyOf(data, Math.max(dataLength + bytes.length, data.length + (data.length >> 1)));
+                }
+                System.arraycopy(bytes, 0, data, dataLength, bytes.length);
+                dataLength += bytes.length;
+            }
+            offsets[row + 1] = dataLength;
+        }
+
+        private String getString(int row) {
+            return new String(data, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads values of rows range. Spilled values of the range are read from file at once.
+         */
+        Object[] readValues(FileChannel channel, int fromRow, int toRow) throws IOException {
+            Object[] values = new Object[toRow - fromRow];
+            if (spilledPosition < 0) {
+                for (int r = fromRow; r < toRow; r++) {
+                    values[r - fromRow] = get(r);
+                }
+                return values;
+            }
+            if (kind == KIND_LONG) {
+                ByteBuffer longsBuffer = readFully(
+                    channel, spilledPosition + (long) fromRow * Long.BYTES, (toRow - fromRow) * Long.BYTES);
+                for (int r = fromRow; r < toRow; r++) {
+                    long value = longsBuffer.getLong();
+                    values[r - fromRow] = nulls.get(r) ? null : Long.toString(value);
+                }
+                return values;
+            }
+            ByteBuffer offsetsBuffer = readFully(
+                channel, spilledPosition + (long) fromRow * Integer.BYTES, (toRow - fromRow + 1) * Integer.BYTES);
+            int[] rangeOffsets = new int[toRow - fromRow + 1];
+            offsetsBuffer.asIntBuffer().get(rangeOffsets);
+            ByteBuffer dataBuffer = readFully(
+                channel, spilledDataPosition + rangeOffsets[0], rangeOffsets[rangeOffsets.length - 1] - rangeOffsets[0]);
+            byte[] rangeData = dataBuffer.array();
+            for (int r = fromRow; r < toRow; r++) {
+                if (!nulls.get(r)) {
+                    int start = rangeOffsets[r - fromRow] - rangeOffsets[0];
+                    int end = rangeOffsets[r - fromRow + 1] - rangeOffsets[0];
+                    values[r - fromRow] = new String(rangeData, start, end - start, StandardCharsets.UTF_8);
+                }
+            }
+            return values;
+        }
+
+        private void addObject(int row, Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, values.length + (values.length >> 1));
+            }
+            values[row] = value;
+        }
+
+        long spill(FileChannel channel, long position, int rowCount) throws IOException {
+            if (kind == KIND_LONG) {
+                ByteBuffer longsBuffer = ByteBuffer.allocate(rowCount * Long.BYTES).order(ByteOrder.nativeOrder());
+                longsBuffer.asLongBuffer().put(longs, 0, rowCount);
+                spilledPosition = position;
+                spilledSize = writeFully(channel, longsBuffer, position);
+                longs = null;
+                return position + spilledSize;
+            }
+            ByteBuffer offsetsBuffer = ByteBuffer.allocate((rowCount + 1) * Integer.BYTES).order(ByteOrder.nativeOrder());
+            offsetsBuffer.asIntBuffer().put(offsets, 0, rowCount + 1);
+            spilledPosition = position;
+            position += writeFully(channel, offsetsBuffer, position);
+            spilledDataPosition = position;
+            position += writeFully(channel, ByteBuffer.wrap(data, 0, dataLength), position);
+            spilledSize = position - spilledPosition;
+            offsets = null;
+            data = null;
+            return position;
+        }
+
+        private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            int written = 0;
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer, position + written);
+            }
+            return written;
+        }
+
+        private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.nativeOrder());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of results file");
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        long getHeapSize(int rowCount) {
+            long size = 32 + nulls.size() / 8;
+            switch (kind) {
+                case KIND_STRING:
+                    if (data != null) {
+                        size += 4L * offsets.length + data.length;
+                    }
+                    break;
+                case KIND_LONG:
+                    if (longs != null) {
+                        size += 8L * longs.length;
+                    }
+                    break;
+                case KIND_BOOLEAN:
+                    size += booleans.size() / 8;
+                    break;
+                case KIND_OBJECT:
+                    size += 8L * values.length;
+                    for (int i = 0; i < rowCount; i++) {
+                        size += estimateValueSize(values[i]);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return size;
+        }
+
+        long getSpilledSize() {
+            return spilledPosition < 0 ? 0 : spilledSize;
+        }
+    }
+
+}
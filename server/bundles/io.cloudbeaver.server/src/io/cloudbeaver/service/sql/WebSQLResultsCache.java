@@ -0,0 +1,350 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.sql;
+
+import io.cloudbeaver.model.session.WebSession;
+import io.cloudbeaver.model.session.WebSessionMemoryConsumer;
+import io.cloudbeaver.server.CBAppConfig;
+import io.cloudbeaver.server.CBApplication;
+import io.cloudbeaver.server.CBPlatform;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Session-wide cache of fetched result rows.
+ * <p>
+ * Query execution reads some rows ahead of the requested page. These rows are kept here (keyed by SQL context
+ * and results ID), so the next page is served without re-executing the query.
+ * Rows are kept in columnar {@link WebSQLResultsBuffer}s. Once session heap budget is exceeded least recently used
+ * buffers are spilled to temp files.
+ * Entries are evicted by TTL and in LRU order once session rows or total size caps are exceeded.
+ * Heap size of cached rows is accounted in session memory usage, entries are evicted if session memory limit is exceeded.
+ */
+public class WebSQLResultsCache implements WebSessionMemoryConsumer {
+
+    private static final Log log = Log.getLog(WebSQLResultsCache.class);
+
+    private static final String ATTR_RESULTS_CACHE = "sqlResultsCache";
+    static final String RESULTS_TEMP_FOLDER = "sql-results";
+
+    private final int readAheadRows;
+    private final long maxRows;
+    private final long maxSize;
+    private final long heapLimit;
+    private final long ttl;
+
+    // Access-ordered, so iteration starts from the least recently used entry
+    private final Map<String, CachedResults> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalRows;
+    private long totalSize;
+    private long heapSize;
+
+    /**
+     * @param heapLimit heap size of cached rows above which buffers are spilled to disk
+     * @param ttl       time (in milliseconds) after the last access when results expire. Not positive means no expiration.
+     */
+    public WebSQLResultsCache(int readAheadRows, long maxRows, long maxSize, long heapLimit, long ttl) {
+        this.readAheadRows = readAheadRows;
+        this.maxRows = maxRows;
+        this.maxSize = maxSize;
+        this.heapLimit = heapLimit;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns session results cache or null if results caching is disabled in server configuration.
+     */
+    @Nullable
+    public static WebSQLResultsCache getResultsCache(@NotNull WebSession webSession) {
+        CBAppConfig config = CBApplication.getInstance().getAppConfiguration();
+        int readAheadRows = CommonUtils.toInt(config.getResourceQuota(
+            WebSQLConstants.QUOTA_PROP_RESULTS_CACHE_READ_AHEAD, WebSQLConstants.RESULTS_CACHE_READ_AHEAD));
+        if (readAheadRows <= 0) {
+            return null;
+        }
+        return webSession.getAttribute(
+            ATTR_RESULTS_CACHE,
+            cache -> new WebSQLResultsCache(
+                readAheadRows,
+                CommonUtils.toLong(config.getResourceQuota(
+                    WebSQLConstants.QUOTA_PROP_RESULTS_CACHE_MAX_ROWS, WebSQLConstants.RESULTS_CACHE_MAX_ROWS)),
+                CommonUtils.toLong(config.getResourceQuota(
+                    WebSQLConstants.QUOTA_PROP_RESULTS_CACHE_MAX_SIZE, WebSQLConstants.RESULTS_CACHE_MAX_SIZE)),
+                CommonUtils.toLong(config.getResourceQuota(
+                    WebSQLConstants.QUOTA_PROP_RESULTS_CACHE_HEAP_LIMIT, WebSQLConstants.RESULTS_CACHE_HEAP_LIMIT)),
+                CommonUtils.toLong(config.getResourceQuota(
+                    WebSQLConstants.QUOTA_PROP_RESULTS_CACHE_TTL, WebSQLConstants.RESULTS_CACHE_TTL))),
+            WebSQLResultsCache::dispose);
+    }
+
+    /**
+     * Returns existing session results cache. Doesn't create a new one.
+     */
+    @Nullable
+    static WebSQLResultsCache findResultsCache(@NotNull WebSession webSession) {
+        return webSession.getAttribute(ATTR_RESULTS_CACHE);
+    }
+
+    /**
+     * Number of rows to fetch from the database for the page of the specified size.
+     * Read-ahead rows are not limited by the result set rows quota because they are kept in the results buffer.
+     */
+    public int getFetchLimit(int pageSize) {
+        return (int) Math.min((long) pageSize + Math.min(readAheadRows, maxRows), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates buffer for rows which follow the requested page
+     */
+    @NotNull
+    WebSQLResultsBuffer createReadAheadBuffer(long pageOffset, int pageSize) {
+        return new WebSQLResultsBuffer(pageOffset + pageSize);
+    }
+
+    /**
+     * Reads page from cached rows.
+     * Cache contains only rows which follow the page fetched from the database,
+     * so the explicit refresh always re-executes the query.
+     *
+     * @return page rows or null if cache doesn't contain the whole page
+     */
+    @Nullable
+    public synchronized Object[][] readPage(
+        @NotNull WebSQLContextInfo contextInfo,
+        @NotNull String resultsId,
+        @NotNull String queryKey,
+        long offset,
+        int limit)
+    {
+        removeExpiredEntries();
+        CachedResults results = entries.get(makeEntryKey(contextInfo, resultsId));
+        if (results == null || !results.queryKey.equals(queryKey)) {
+            return null;
+        }
+        WebSQLResultsBuffer buffer = results.buffer;
+        if (offset < buffer.getOffset() || offset > buffer.getOffset() + buffer.getRowCount()) {
+            return null;
+        }
+        int fromRow = (int) (offset - buffer.getOffset());
+        int toRow = fromRow + limit;
+        if (toRow > buffer.getRowCount()) {
+            if (!buffer.isComplete()) {
+                return null;
+            }
+            toRow = buffer.getRowCount();
+        }
+        results.lastAccessTime = System.currentTimeMillis();
+        try {
+            return buffer.readRows(fromRow, toRow);
+        } catch (IOException e) {
+            // Query will be re-executed
+            log.debug("Error reading cached results: " + e.getMessage());
+            removeEntry(makeEntryKey(contextInfo, resultsId));
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if there are rows after the specified offset (cached or not fetched yet)
+     */
+    public synchronized boolean hasMoreRows(@NotNull WebSQLContextInfo contextInfo, @NotNull String resultsId, long offset) {
+        CachedResults results = entries.get(makeEntryKey(contextInfo, resultsId));
+        if (results == null) {
+            return false;
+        }
+        WebSQLResultsBuffer buffer = results.buffer;
+        return !buffer.isComplete() || buffer.getOffset() + buffer.getRowCount() > offset;
+    }
+
+    public synchronized void putResults(
+        @NotNull WebSQLContextInfo contextInfo,
+        @NotNull String resultsId,
+        @NotNull String queryKey,
+        @NotNull WebSQLResultsBuffer buffer)
+    {
+        String entryKey = makeEntryKey(contextInfo, resultsId);
+        removeEntry(entryKey);
+
+        if (buffer.getRowCount() == 0 || buffer.getRowCount() > maxRows || buffer.getDataSize() > maxSize) {
+            buffer.dispose();
+            return;
+        }
+        CachedResults results = new CachedResults(queryKey, buffer);
+        entries.put(entryKey, results);
+        totalRows += buffer.getRowCount();
+        totalSize += results.dataSize;
+        heapSize += results.heapSize;
+
+        removeExpiredEntries();
+        // Evict least recently used results
+        for (Iterator<CachedResults> iter = entries.values().iterator();
+             iter.hasNext() && (totalRows > maxRows || totalSize > maxSize); )
+        {
+            CachedResults eldest = iter.next();
+            if (eldest == results) {
+                break;
+            }
+            iter.remove();
+            disposeResults(eldest);
+        }
+        // Spill least recently used buffers (the new one is the last)
+        if (heapSize > heapLimit) {
+            Path spillFolder = CBPlatform.getInstance().getTempFolder(new VoidProgressMonitor(), RESULTS_TEMP_FOLDER);
+            for (CachedResults cached : entries.values()) {
+                if (heapSize <= heapLimit) {
+                    break;
+                }
+                if (cached.buffer.isSpilled()) {
+                    continue;
+                }
+                try {
+                    cached.buffer.spill(spillFolder);
+                } catch (IOException e) {
+                    log.debug("Error spilling results buffer: " + e.getMessage());
+                    continue;
+                }
+                long newHeapSize = cached.buffer.getHeapSize();
+                heapSize -= cached.heapSize - newHeapSize;
+                cached.heapSize = newHeapSize;
+            }
+        }
+    }
+
+    /**
+     * Moves cached rows to the new results ID. Page served from cache gets a new results ID
+     * and the previous one is closed by the client.
+     */
+    public synchronized void moveResults(
+        @NotNull WebSQLContextInfo contextInfo,
+        @NotNull String oldResultsId,
+        @NotNull String newResultsId)
+    {
+        CachedResults results = entries.remove(makeEntryKey(contextInfo, oldResultsId));
+        if (results != null) {
+            entries.put(makeEntryKey(contextInfo, newResultsId), results);
+        }
+    }
+
+    public synchronized void removeResults(@NotNull WebSQLContextInfo contextInfo, @NotNull String resultsId) {
+        removeEntry(makeEntryKey(contextInfo, resultsId));
+    }
+
+    public synchronized void removeContext(@NotNull WebSQLContextInfo contextInfo) {
+        String prefix = makeEntryKey(contextInfo, "");
+        for (Iterator<Map.Entry<String, CachedResults>> iter = entries.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<String, CachedResults> entry = iter.next();
+            if (entry.getKey().startsWith(prefix)) {
+                iter.remove();
+                disposeResults(entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public synchronized long getMemoryUsage() {
+        return heapSize;
+    }
+
+    /**
+     * Evicts least recently used results
+     */
+    @Override
+    public synchronized long releaseMemory(long size) {
+        long oldHeapSize = heapSize;
+        for (Iterator<CachedResults> iter = entries.values().iterator(); iter.hasNext() && oldHeapSize - heapSize < size; ) {
+            CachedResults eldest = iter.next();
+            iter.remove();
+            disposeResults(eldest);
+        }
+        return oldHeapSize - heapSize;
+    }
+
+    public synchronized WebSQLResultsCache dispose() {
+        for (CachedResults results : entries.values()) {
+            results.buffer.dispose();
+        }
+        entries.clear();
+        totalRows = 0;
+        totalSize = 0;
+        heapSize = 0;
+        return this;
+    }
+
+    private void removeEntry(String entryKey) {
+        CachedResults results = entries.remove(entryKey);
+        if (results != null) {
+            disposeResults(results);
+        }
+    }
+
+    private void disposeResults(CachedResults results) {
+        totalRows -= results.buffer.getRowCount();
+        totalSize -= results.dataSize;
+        heapSize -= results.heapSize;
+        results.buffer.dispose();
+    }
+
+    private void removeExpiredEntries() {
+        if (ttl <= 0) {
+            return;
+        }
+        long expireTime = System.currentTimeMillis() - ttl;
+        entries.values().removeIf(results -> {
+            if (results.lastAccessTime < expireTime) {
+                disposeResults(results);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @NotNull
+    private static String makeEntryKey(@NotNull WebSQLContextInfo contextInfo, @NotNull String resultsId) {
+        return contextInfo.getId() + "/" + resultsId;
+    }
+
+    @NotNull
+    static String makeQueryKey(@NotNull String queryText, @Nullable WebDataFormat dataFormat) {
+        return dataFormat + ":" + queryText;
+    }
+
+    private static class CachedResults {
+        private final String queryKey;
+        private final WebSQLResultsBuffer buffer;
+        private final long dataSize;
+        private long heapSize;
+        private long lastAccessTime;
+
+        CachedResults(String queryKey, WebSQLResultsBuffer buffer) {
+            this.queryKey = queryKey;
+            this.buffer = buffer;
+            this.dataSize = buffer.getDataSize();
+            this.heapSize = buffer.getHeapSize();
+            this.lastAccessTime = System.currentTimeMillis();
+        }
+    }
+
+}
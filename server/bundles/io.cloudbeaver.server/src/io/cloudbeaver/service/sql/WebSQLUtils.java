@@ -22,6 +22,7 @@ import io.cloudbeaver.server.CBAppConfig;
 import io.cloudbeaver.server.CBApplication;
 import io.cloudbeaver.utils.CBModelConstants;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.data.storage.ExternalContentStorage;
@@ -30,6 +31,7 @@ import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.gis.DBGeometry;
 import org.jkiss.dbeaver.model.gis.GisConstants;
 import org.jkiss.dbeaver.model.gis.GisTransformUtils;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSTypedObject;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
@@ -39,9 +41,15 @@ import org.jkiss.utils.Base64;
 import org.jkiss.utils.CommonUtils;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
 import java.util.*;
 
 /**
@@ -156,28 +164,29 @@ public class WebSQLUtils {
             map.put(WebSQLConstants.ATTR_TEXT, stringValue);
         } else {
             map.put(WebSQLConstants.ATTR_BINARY, true);
-            byte[] binaryValue = ContentUtils.getContentBinaryValue(session.getProgressMonitor(), value);
-            if (binaryValue != null) {
-                byte[] previewValue = binaryValue;
-                // gets parameters from the configuration file
-                CBAppConfig config = CBApplication.getInstance().getAppConfiguration();
-                // the max length of the text preview
-                int textPreviewMaxLength = CommonUtils.toInt(
-                    config.getResourceQuota(
-                        WebSQLConstants.QUOTA_PROP_TEXT_PREVIEW_MAX_LENGTH,
-                        WebSQLConstants.TEXT_PREVIEW_MAX_LENGTH));
-                if (previewValue.length > textPreviewMaxLength) {
-                    previewValue = Arrays.copyOf(previewValue, textPreviewMaxLength);
-                }
-                map.put(WebSQLConstants.ATTR_TEXT, GeneralUtils.convertToString(previewValue, 0, previewValue.length));
-                // the max length of the binary preview
-                int binaryPreviewMaxLength = CommonUtils.toInt(
-                    config.getResourceQuota(
-                        WebSQLConstants.QUOTA_PROP_BINARY_PREVIEW_MAX_LENGTH,
-                        WebSQLConstants.BINARY_PREVIEW_MAX_LENGTH));
-                byte[] inlineValue = binaryValue;
+            // gets parameters from the configuration file
+            CBAppConfig config = CBApplication.getInstance().getAppConfiguration();
+            // the max length of the text preview
+            int textPreviewMaxLength = CommonUtils.toInt(
+                config.getResourceQuota(
+                    WebSQLConstants.QUOTA_PROP_TEXT_PREVIEW_MAX_LENGTH,
+                    WebSQLConstants.TEXT_PREVIEW_MAX_LENGTH));
+            // the max length of the binary preview
+            int binaryPreviewMaxLength = CommonUtils.toInt(
+                config.getResourceQuota(
+                    WebSQLConstants.QUOTA_PROP_BINARY_PREVIEW_MAX_LENGTH,
+                    WebSQLConstants.BINARY_PREVIEW_MAX_LENGTH));
+            // Only previews are read (one extra byte shows that value is longer than binary preview).
+            // Truncated value is marked, its full value is read on demand (see readLobValue)
+            byte[] previewValue = readContentPrefix(
+                session.getProgressMonitor(), value, Math.max(textPreviewMaxLength, binaryPreviewMaxLength + 1));
+            if (previewValue != null) {
+                map.put(WebSQLConstants.ATTR_TEXT, GeneralUtils.convertToString(
+                    previewValue, 0, Math.min(previewValue.length, textPreviewMaxLength)));
+                byte[] inlineValue = previewValue;
                 if (inlineValue.length > binaryPreviewMaxLength) {
-                    inlineValue = Arrays.copyOf(inlineValue, textPreviewMaxLength);
+                    inlineValue = Arrays.copyOf(inlineValue, binaryPreviewMaxLength);
+                    map.put(WebSQLConstants.ATTR_TRUNCATED, true);
                 }
                 map.put(WebSQLConstants.ATTR_BINARY, Base64.encode(inlineValue));
             } else {
@@ -189,6 +198,83 @@ public class WebSQLUtils {
         return map;
     }
 
+    /**
+     * Reads the first bytes of content. Prefix is read from the raw JDBC value (Blob) if it is available,
+     * so the rest of content is not read from the database at all.
+     *
+     * @return content prefix or null if content is null
+     */
+    @Nullable
+    private static byte[] readContentPrefix(DBRProgressMonitor monitor, DBDContent value, int maxLength) throws DBCException {
+        if (value.isNull()) {
+            return null;
+        }
+        Object rawValue = value.getRawValue();
+        if (rawValue instanceof Blob) {
+            try {
+                Blob blob = (Blob) rawValue;
+                return blob.getBytes(1, (int) Math.min(blob.length(), maxLength));
+            } catch (SQLException e) {
+                throw new DBCException("Error reading content value", e);
+            }
+        }
+        DBDContentStorage storage = value.getContents(monitor);
+        if (storage == null) {
+            return null;
+        }
+        try {
+            long contentLength = storage.getContentLength();
+            byte[] buffer = new byte[contentLength >= 0 && contentLength < maxLength ? (int) contentLength : maxLength];
+            int length = 0;
+            try (InputStream contentStream = storage.getContentStream()) {
+                for (int count; length < buffer.length && (count = contentStream.read(buffer, length, buffer.length - length)) != -1; ) {
+                    length += count;
+                }
+            }
+            return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+        } catch (IOException e) {
+            throw new DBCException("Error reading content value", e);
+        }
+    }
+
+    /**
+     * Opens binary stream of the raw JDBC value (Blob), so content is read directly from the database
+     * without materializing it in memory or in a temp file.
+     *
+     * @return content stream or null if raw value is not a Blob (e.g. content was already read)
+     */
+    @Nullable
+    public static InputStream openRawContentStream(@NotNull DBDContent value) throws DBCException {
+        Object rawValue = value.getRawValue();
+        if (!(rawValue instanceof Blob)) {
+            return null;
+        }
+        try {
+            return ((Blob) rawValue).getBinaryStream();
+        } catch (SQLException e) {
+            throw new DBCException("Error opening content stream", e);
+        }
+    }
+
+    /**
+     * Opens character stream of the raw JDBC value (Clob), so content is read directly from the database
+     * without materializing it in memory or in a temp file.
+     *
+     * @return content reader or null if raw value is not a Clob (e.g. content was already read)
+     */
+    @Nullable
+    public static Reader openRawContentReader(@NotNull DBDContent value) throws DBCException {
+        Object rawValue = value.getRawValue();
+        if (!(rawValue instanceof Clob)) {
+            return null;
+        }
+        try {
+            return ((Clob) rawValue).getCharacterStream();
+        } catch (SQLException e) {
+            throw new DBCException("Error opening content reader", e);
+        }
+    }
+
     private static Object serializeGeometryValue(DBGeometry value) {
         Map<String, Object> map = createMapOfType(WebSQLConstants.VALUE_TYPE_GEOMETRY);
         map.put("srid", value.getSRID());
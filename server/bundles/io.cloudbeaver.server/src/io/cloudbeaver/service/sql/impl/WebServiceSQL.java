@@ -21,6 +21,7 @@ import io.cloudbeaver.DBWebException;
 import io.cloudbeaver.model.WebAsyncTaskInfo;
 import io.cloudbeaver.model.WebConnectionInfo;
 import io.cloudbeaver.model.session.WebAsyncTaskProcessor;
+import io.cloudbeaver.model.session.WebAsyncTaskType;
 import io.cloudbeaver.model.session.WebSession;
 import io.cloudbeaver.service.WebServiceBindingBase;
 import io.cloudbeaver.service.sql.*;
@@ -451,7 +452,7 @@ public class WebServiceSQL implements DBWServiceSQL {
                 }
             }
         };
-        return contextInfo.getProcessor().getWebSession().createAndRunAsyncTask("SQL query execution plan explain", runnable);
+        return contextInfo.getProcessor().getWebSession().createAndRunAsyncTask("SQL query execution plan explain", WebAsyncTaskType.EXPLAIN, runnable);
     }
 
     @Override
@@ -0,0 +1,62 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.admin;
+
+import io.cloudbeaver.model.session.WebSession;
+import io.cloudbeaver.model.user.WebUser;
+
+/**
+ * Session memory usage info
+ */
+public class AdminSessionMemoryInfo {
+
+    private final WebSession session;
+    private final long asyncTasksMemoryUsage;
+    private final long attributesMemoryUsage;
+
+    public AdminSessionMemoryInfo(WebSession session) {
+        this.session = session;
+        this.asyncTasksMemoryUsage = session.getAsyncTasksMemoryUsage();
+        this.attributesMemoryUsage = session.getAttributesMemoryUsage();
+    }
+
+    public String getSessionId() {
+        return session.getSessionId();
+    }
+
+    public String getUserId() {
+        WebUser user = session.getUser();
+        return user == null ? null : user.getUserId();
+    }
+
+    public String getLastAccessTime() {
+        return session.getLastAccessTime();
+    }
+
+    public long getMemoryUsage() {
+        return asyncTasksMemoryUsage + attributesMemoryUsage;
+    }
+
+    public long getAsyncTasksMemoryUsage() {
+        return asyncTasksMemoryUsage;
+    }
+
+    public long getCachedResultsMemoryUsage() {
+        return attributesMemoryUsage;
+    }
+
+}
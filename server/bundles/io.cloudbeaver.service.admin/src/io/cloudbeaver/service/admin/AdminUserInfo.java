@@ -20,14 +20,17 @@ import io.cloudbeaver.DBWebException;
 import io.cloudbeaver.model.session.WebSession;
 import io.cloudbeaver.model.user.WebUser;
 import io.cloudbeaver.model.user.WebUserOriginInfo;
+import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.meta.Property;
 import org.jkiss.dbeaver.model.security.SMDataSourceGrant;
 import org.jkiss.dbeaver.model.security.SMObjects;
+import org.jkiss.dbeaver.model.security.user.SMObjectPermissions;
 import org.jkiss.dbeaver.model.security.user.SMRole;
 import org.jkiss.dbeaver.registry.auth.AuthProviderDescriptor;
 import org.jkiss.dbeaver.registry.auth.AuthProviderRegistry;
+import org.jkiss.utils.CommonUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -43,6 +46,7 @@ public class AdminUserInfo {
     private final WebSession session;
     private final WebUser user;
     private String[] userLinkedProviders;
+    private String[] accessibleConnections;
 
 
     public AdminUserInfo(WebSession session, WebUser user) {
@@ -92,6 +96,31 @@ public class AdminUserInfo {
             .toArray(SMDataSourceGrant[]::new);
     }
 
+    /**
+     * Connections accessible by user (granted to user directly or to user roles)
+     */
+    @Property
+    public String[] getAccessibleConnections() throws DBException {
+        if (accessibleConnections == null) {
+            setAccessibleConnections(session.getAdminSecurityController()
+                .getAllAvailableObjectsPermissions(getUserId(), SMObjects.DATASOURCE));
+        }
+        return accessibleConnections;
+    }
+
+    /**
+     * Sets effective data source permissions of user (if they were read in bulk for several users)
+     */
+    public void setAccessibleConnections(@NotNull List<SMObjectPermissions> dataSourcePermissions) {
+        List<String> connectionIds = new ArrayList<>();
+        for (SMObjectPermissions permissions : dataSourcePermissions) {
+            if (!CommonUtils.isEmpty(permissions.getPermissions())) {
+                connectionIds.add(permissions.getObjectId());
+            }
+        }
+        this.accessibleConnections = connectionIds.toArray(new String[0]);
+    }
+
     @Property
     public WebUserOriginInfo[] getOrigins() throws DBWebException {
         List<WebUserOriginInfo> result = new ArrayList<>();
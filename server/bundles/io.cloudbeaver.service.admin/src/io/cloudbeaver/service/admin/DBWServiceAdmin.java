@@ -75,6 +75,9 @@ public interface DBWServiceAdmin extends DBWService {
     @WebAction(requirePermissions = DBWConstants.PERMISSION_ADMIN)
     boolean revokeUserRole(@NotNull WebSession webSession, String user, String role) throws DBWebException;
 
+    @WebAction(requirePermissions = DBWConstants.PERMISSION_ADMIN)
+    boolean setUsersRoles(@NotNull WebSession webSession, @NotNull Map<String, List<String>> usersRoles) throws DBWebException;
+
     @WebAction(requirePermissions = DBWConstants.PERMISSION_ADMIN)
     List<AdminPermissionInfo> setSubjectPermissions(@NotNull WebSession webSession, String roleID, List<String> permissions) throws DBWebException;
 
@@ -118,6 +121,13 @@ public interface DBWServiceAdmin extends DBWService {
     @WebAction(requirePermissions = DBWConstants.PERMISSION_ADMIN)
     List<DBWFeatureSet> listFeatureSets(@NotNull WebSession webSession) throws DBWebException;
 
+    ////////////////////////////////////////////////////////////////////
+    // Sessions
+
+    @WebAction(requirePermissions = DBWConstants.PERMISSION_ADMIN)
+    @NotNull
+    List<AdminSessionMemoryInfo> listSessionsMemoryUsage(@NotNull WebSession webSession) throws DBWebException;
+
     ////////////////////////////////////////////////////////////////////
     // Auth providers
 
@@ -72,6 +72,8 @@ public class WebServiceBindingAdmin extends WebServiceBindingBase<DBWServiceAdmi
                 env -> getService(env).grantUserRole(getWebSession(env), env.getArgument("userId"), env.getArgument("roleId")))
             .dataFetcher("revokeUserRole",
                 env -> getService(env).revokeUserRole(getWebSession(env), env.getArgument("userId"), env.getArgument("roleId")))
+            .dataFetcher("setUsersRoles",
+                env -> getService(env).setUsersRoles(getWebSession(env), env.getArgument("usersRoles")))
             .dataFetcher("setSubjectPermissions",
                 env -> getService(env).setSubjectPermissions(getWebSession(env), env.getArgument("roleId"), env.getArgument("permissions")))
         .dataFetcher("setUserCredentials",
@@ -124,6 +126,9 @@ public class WebServiceBindingAdmin extends WebServiceBindingBase<DBWServiceAdmi
         .dataFetcher("listFeatureSets",
             env -> getService(env).listFeatureSets(getWebSession(env)))
 
+        .dataFetcher("listSessionsMemoryUsage",
+            env -> getService(env).listSessionsMemoryUsage(getWebSession(env)))
+
         .dataFetcher("listAuthProviderConfigurationParameters",
             env -> getService(env).listAuthProviderConfigurationParameters(getWebSession(env), env.getArgument("providerId")))
         .dataFetcher("listAuthProviderConfigurations",
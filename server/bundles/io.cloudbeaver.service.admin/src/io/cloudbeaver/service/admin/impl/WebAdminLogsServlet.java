@@ -4,18 +4,17 @@ import io.cloudbeaver.DBWConstants;
 import io.cloudbeaver.DBWebException;
 import io.cloudbeaver.model.session.WebSession;
 import io.cloudbeaver.server.CBApplication;
+import io.cloudbeaver.service.WebServiceFileSender;
 import io.cloudbeaver.service.WebServiceServletBase;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBConstants;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.dbeaver.utils.MimeTypes;
-import org.jkiss.utils.IOUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -47,15 +46,14 @@ public class WebAdminLogsServlet extends WebServiceServletBase {
             throw new DBWebException("Log file '" + logFileName + "' not found");
         }
 
-        response.setHeader("Content-Type", MimeTypes.TEXT_PLAIN);
         if (logFileName.equals(".log")) {
             logFileName = "server.log";
         }
-        response.setHeader("Content-Disposition", "attachment; filename=\"" + logFileName + "\"");
-
-        try (InputStream is = Files.newInputStream(logFile)) {
-            IOUtils.copyStream(is, response.getOutputStream());
-        }
+        new WebServiceFileSender(logFile)
+            .setContentType(MimeTypes.TEXT_PLAIN)
+            .setAttachmentName(logFileName)
+            .setPrecompressed(true)
+            .send(request, response);
     }
 
 }
\ No newline at end of file
@@ -37,6 +37,8 @@ import io.cloudbeaver.server.CBConstants;
 import io.cloudbeaver.server.CBPlatform;
 import io.cloudbeaver.service.DBWServiceServerConfigurator;
 import io.cloudbeaver.service.admin.*;
+import io.cloudbeaver.service.security.SMBulkAdminController;
+import io.cloudbeaver.service.security.SMObjectPermissionsResolver;
 import io.cloudbeaver.service.security.SMUtils;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
@@ -54,6 +56,7 @@ import org.jkiss.dbeaver.model.security.SMAuthProviderCustomConfiguration;
 import org.jkiss.dbeaver.model.security.SMConstants;
 import org.jkiss.dbeaver.model.security.SMDataSourceGrant;
 import org.jkiss.dbeaver.model.security.SMObjects;
+import org.jkiss.dbeaver.model.security.user.SMObjectPermissions;
 import org.jkiss.dbeaver.model.security.user.SMRole;
 import org.jkiss.dbeaver.model.security.user.SMUser;
 import org.jkiss.dbeaver.registry.DataSourceDescriptor;
@@ -84,10 +87,21 @@ public class WebServiceAdmin implements DBWServiceAdmin {
     @Override
     public List<AdminUserInfo> listUsers(@NotNull WebSession webSession, String userName) throws DBWebException {
         try {
+            var adminSecurityController = webSession.getAdminSecurityController();
             List<AdminUserInfo> webUsers = new ArrayList<>();
-            for (SMUser smUser : webSession.getAdminSecurityController().findUsers(userName)) {
+            for (SMUser smUser : adminSecurityController.findUsers(userName)) {
                 webUsers.add(new AdminUserInfo(webSession, new WebUser(smUser)));
             }
+            if (adminSecurityController instanceof SMObjectPermissionsResolver && !webUsers.isEmpty()) {
+                // Read accessible connections of all users at once
+                Set<String> userIds = webUsers.stream().map(AdminUserInfo::getUserId).collect(Collectors.toSet());
+                Map<String, List<SMObjectPermissions>> usersPermissions = ((SMObjectPermissionsResolver) adminSecurityController)
+                    .getSubjectsObjectPermissions(userIds, SMObjects.DATASOURCE);
+                for (AdminUserInfo webUser : webUsers) {
+                    webUser.setAccessibleConnections(
+                        usersPermissions.getOrDefault(webUser.getUserId(), Collections.emptyList()));
+                }
+            }
             return webUsers;
         } catch (Exception e) {
             throw new DBWebException("Error reading users", e);
@@ -258,6 +272,34 @@ public class WebServiceAdmin implements DBWServiceAdmin {
         }
     }
 
+    @Override
+    public boolean setUsersRoles(@NotNull WebSession webSession, @NotNull Map<String, List<String>> usersRoles) throws DBWebException {
+        WebUser grantor = webSession.getUser();
+        if (grantor == null) {
+            throw new DBWebException("Cannot grant role in anonymous mode");
+        }
+        if (usersRoles.containsKey(grantor.getUserId())) {
+            throw new DBWebException("You cannot edit your own permissions");
+        }
+        Map<String, String[]> userRoleIds = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : usersRoles.entrySet()) {
+            userRoleIds.put(entry.getKey(), entry.getValue() == null ? new String[0] : entry.getValue().toArray(new String[0]));
+        }
+        try {
+            var adminSecurityController = webSession.getAdminSecurityController();
+            if (adminSecurityController instanceof SMBulkAdminController) {
+                ((SMBulkAdminController) adminSecurityController).setUsersRoles(userRoleIds, grantor.getUserId());
+            } else {
+                for (Map.Entry<String, String[]> entry : userRoleIds.entrySet()) {
+                    adminSecurityController.setUserRoles(entry.getKey(), entry.getValue(), grantor.getUserId());
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            throw new DBWebException("Error granting roles", e);
+        }
+    }
+
     @Override
     public List<AdminPermissionInfo> setSubjectPermissions(@NotNull WebSession webSession, String roleID, List<String> permissions) throws DBWebException {
         validatePermissions(SMConstants.SUBJECT_PERMISSION_SCOPE, permissions);
@@ -332,7 +374,7 @@ public class WebServiceAdmin implements DBWServiceAdmin {
             if (id != null && !id.equals(ds.getId())) {
                 continue;
             }
-            if (CBPlatform.getInstance().getApplicableDrivers().contains(ds.getDriver())) {
+            if (CBPlatform.getInstance().isDriverApplicable(ds.getDriver())) {
                 result.add(new WebConnectionInfo(webSession, ds));
             }
         }
@@ -464,6 +506,18 @@ public class WebServiceAdmin implements DBWServiceAdmin {
         return WebFeatureRegistry.getInstance().getWebFeatures();
     }
 
+    ////////////////////////////////////////////////////////////////////
+    // Sessions
+
+    @NotNull
+    @Override
+    public List<AdminSessionMemoryInfo> listSessionsMemoryUsage(@NotNull WebSession webSession) throws DBWebException {
+        return CBPlatform.getInstance().getSessionManager().getAllActiveSessions().stream()
+            .map(AdminSessionMemoryInfo::new)
+            .sorted(Comparator.comparingLong(AdminSessionMemoryInfo::getMemoryUsage).reversed())
+            .collect(Collectors.toList());
+    }
+
     ////////////////////////////////////////////////////////////////////
     // Auth providers
 
@@ -731,14 +785,24 @@ public class WebServiceAdmin implements DBWServiceAdmin {
             throw new DBWebException("Cannot grant access in anonymous mode");
         }
         try {
-            webSession.getAdminSecurityController().deleteAllSubjectObjectPermissions(subjectId, SMObjects.DATASOURCE);
-            webSession.getAdminSecurityController()
-                .setObjectPermissions(
+            var adminSM = webSession.getAdminSecurityController();
+            if (adminSM instanceof SMBulkAdminController) {
+                // Replace the whole grant set in one transaction
+                Map<String, Set<String>> objectPermissions = new LinkedHashMap<>();
+                for (String connectionId : connections) {
+                    objectPermissions.put(connectionId, Set.of(SMConstants.DATA_SOURCE_ACCESS_PERMISSION));
+                }
+                ((SMBulkAdminController) adminSM).setSubjectObjectPermissions(
+                    subjectId, SMObjects.DATASOURCE, objectPermissions, grantor.getUserId());
+            } else {
+                adminSM.deleteAllSubjectObjectPermissions(subjectId, SMObjects.DATASOURCE);
+                adminSM.setObjectPermissions(
                     new HashSet<>(connections),
                     SMObjects.DATASOURCE,
                     Set.of(subjectId),
                     Set.of(SMConstants.DATA_SOURCE_ACCESS_PERMISSION),
                     grantor.getUserId());
+            }
         } catch (DBException e) {
             throw new DBWebException("Error setting subject connection access", e);
         }
@@ -19,26 +19,34 @@ package io.cloudbeaver.service.data.transfer.impl;
 import io.cloudbeaver.DBWebException;
 import io.cloudbeaver.model.session.WebSession;
 import io.cloudbeaver.server.CBApplication;
+import io.cloudbeaver.service.WebServiceFileSender;
 import io.cloudbeaver.service.WebServiceServletBase;
 import io.cloudbeaver.service.data.transfer.DBWServiceDataTransfer;
+import io.cloudbeaver.utils.WebAppUtils;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.tools.transfer.registry.DataTransferProcessorDescriptor;
 import org.jkiss.dbeaver.tools.transfer.registry.DataTransferRegistry;
 import org.jkiss.utils.CommonUtils;
-import org.jkiss.utils.IOUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
 
 public class WebDataTransferServlet extends WebServiceServletBase {
 
     private static final Log log = Log.getLog(WebDataTransferServlet.class);
 
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final long STREAM_POLL_PERIOD = 100;
+    // Max time to wait for new export data (e.g. while export task is queued)
+    private static final long STREAM_IDLE_TIMEOUT = 30 * 60 * 1000;
+
     private final DBWServiceDataTransfer dtManager;
 
     public WebDataTransferServlet(CBApplication application, DBWServiceDataTransfer dtManager) {
@@ -72,15 +80,17 @@ public class WebDataTransferServlet extends WebServiceServletBase {
             fileName = taskInfo.getDataFileId();
         }
 
+        if (taskInfo.isStreamed()) {
+            streamData(session, dtConfig, taskInfo, processor, fileName, request, response);
+            return;
+        }
+
         Path dataFile = taskInfo.getDataFile();
         session.addInfoMessage("Download data ...");
-        response.setHeader("Content-Type", processor.getContentType());
-        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
-        response.setHeader("Content-Length", String.valueOf(Files.size(dataFile)));
-
-        try (InputStream is = Files.newInputStream(dataFile)) {
-            IOUtils.copyStream(is, response.getOutputStream());
-        }
+        new WebServiceFileSender(dataFile)
+            .setContentType(processor.getContentType())
+            .setAttachmentName(fileName)
+            .send(request, response);
 
         // TODO: cleanup export files ASAP?
         if (false) {
@@ -88,4 +98,88 @@ public class WebDataTransferServlet extends WebServiceServletBase {
         }
     }
 
+    /**
+     * Sends streamed export data while export is running. Data is sent with chunked transfer encoding
+     * (and gzip-compressed if client accepts it). Streamed export is downloaded once: data file is deleted
+     * after successful download. If download fails (client disconnects) then export is paused and can be
+     * downloaded again. Export is cancelled if download isn't resumed soon (see WebDataTransferTaskConfig#waitForStream).
+     * If export doesn't produce data for too long then it is cancelled.
+     */
+    private void streamData(
+        WebSession session,
+        WebDataTransferSessionConfig dtConfig,
+        WebDataTransferTaskConfig taskInfo,
+        DataTransferProcessorDescriptor processor,
+        String fileName,
+        HttpServletRequest request,
+        HttpServletResponse response) throws DBException, IOException
+    {
+        if (!taskInfo.attachStream()) {
+            throw new DBWebException("Data '" + taskInfo.getDataFileId() + "' is already being downloaded");
+        }
+        boolean downloaded = false;
+        try {
+            session.addInfoMessage("Download data ...");
+            response.setHeader("Content-Type", processor.getContentType());
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+            OutputStream out = response.getOutputStream();
+            if (!processor.isBinaryFormat() && WebAppUtils.isGzipAccepted(request)) {
+                response.setHeader("Content-Encoding", "gzip");
+                // Sync flush, so data is sent to the client as soon as it is read
+                out = new GZIPOutputStream(out, STREAM_BUFFER_SIZE, true);
+            }
+            Path dataFile = taskInfo.getDataFile();
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            InputStream in = null;
+            long lastDataTime = System.currentTimeMillis();
+            try {
+                while (true) {
+                    // Check state before reading, so data written before export end is fully read
+                    boolean exportFinished = taskInfo.isExportFinished();
+                    if (taskInfo.getExportError() != null) {
+                        dtConfig.removeTask(taskInfo);
+                        throw new DBException("Data export failed", taskInfo.getExportError());
+                    }
+                    if (in == null && Files.exists(dataFile)) {
+                        in = Files.newInputStream(dataFile);
+                    }
+                    int count = in == null ? -1 : in.read(buffer);
+                    if (count > 0) {
+                        out.write(buffer, 0, count);
+                        taskInfo.addBytesSent(count);
+                        lastDataTime = System.currentTimeMillis();
+                        continue;
+                    }
+                    if (exportFinished) {
+                        break;
+                    }
+                    if (System.currentTimeMillis() - lastDataTime > STREAM_IDLE_TIMEOUT) {
+                        if (taskInfo.getTaskId() != null) {
+                            session.asyncTaskCancel(taskInfo.getTaskId());
+                        }
+                        taskInfo.abortExport(new DBException("Data export timed out"));
+                        dtConfig.removeTask(taskInfo);
+                        throw new DBException("No export data received in " + STREAM_IDLE_TIMEOUT / 1000 + " seconds");
+                    }
+                    out.flush();
+                    try {
+                        taskInfo.waitForData(STREAM_POLL_PERIOD);
+                    } catch (InterruptedException e) {
+                        throw new DBException("Data download interrupted", e);
+                    }
+                }
+            } finally {
+                if (in != null) {
+                    in.close();
+                }
+            }
+            out.close();
+            downloaded = true;
+        } finally {
+            taskInfo.detachStream(!downloaded);
+        }
+        // Removed after successful download only. Failed download keeps the export, so it can be downloaded again.
+        dtConfig.removeTask(taskInfo);
+    }
+
 }
\ No newline at end of file
@@ -27,7 +27,9 @@ public class WebDataTransferSessionConfig {
     }
 
     public WebDataTransferTaskConfig getTask(String dataFileId) {
-        return tasks.get(dataFileId);
+        synchronized (tasks) {
+            return tasks.get(dataFileId);
+        }
     }
 
     public void addTask(WebDataTransferTaskConfig taskConfig) {
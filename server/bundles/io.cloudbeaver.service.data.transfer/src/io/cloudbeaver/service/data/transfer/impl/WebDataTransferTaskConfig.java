@@ -16,7 +16,11 @@
  */
 package io.cloudbeaver.service.data.transfer.impl;
 
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -30,9 +34,25 @@ public class WebDataTransferTaskConfig {
     private WebDataTransferParameters parameters;
     private String exportFileName;
 
+    // Streamed export state. Streamed export is downloaded while it is being written.
+    private final boolean streamed;
+    private String taskId;
+    private volatile boolean exportFinished;
+    private volatile Throwable exportError;
+    private boolean streamAttached;
+    private long bytesSent;
+    // Time when download stream failed (client disconnected), 0 if stream wasn't lost
+    private long streamLostTime;
+
     public WebDataTransferTaskConfig(Path dataFile, WebDataTransferParameters parameters) {
+        this(dataFile, parameters, false);
+    }
+
+    public WebDataTransferTaskConfig(Path dataFile, WebDataTransferParameters parameters, boolean streamed) {
         this.dataFile = dataFile;
         this.parameters = parameters;
+        this.streamed = streamed;
+        this.exportFinished = !streamed;
     }
 
     public Path getDataFile() {
@@ -55,9 +75,124 @@ public class WebDataTransferTaskConfig {
         this.exportFileName = exportFileName;
     }
 
+    public boolean isStreamed() {
+        return streamed;
+    }
+
+    /**
+     * ID of the async task which writes the data file
+     */
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public boolean isExportFinished() {
+        return exportFinished;
+    }
+
+    @Nullable
+    public Throwable getExportError() {
+        return exportError;
+    }
+
+    public synchronized void setExportFinished(@Nullable Throwable error) {
+        this.exportError = error;
+        this.exportFinished = true;
+        notifyAll();
+    }
+
+    /**
+     * Finishes export with error if it wasn't finished by export itself
+     * (e.g. export task was cancelled before start or failed to start).
+     */
+    public synchronized void abortExport(@NotNull Throwable error) {
+        if (!exportFinished) {
+            setExportFinished(error);
+        }
+    }
+
+    /**
+     * Attaches download stream. Streamed export can be downloaded only once.
+     *
+     * @return false if export is already being downloaded
+     */
+    public synchronized boolean attachStream() {
+        if (streamAttached) {
+            return false;
+        }
+        streamAttached = true;
+        streamLostTime = 0;
+        // New stream reads data from the beginning
+        bytesSent = 0;
+        return true;
+    }
+
+    /**
+     * Detaches download stream.
+     *
+     * @param failed download failed before export end (e.g. client disconnected). Export waits for a new stream then.
+     */
+    public synchronized void detachStream(boolean failed) {
+        streamAttached = false;
+        streamLostTime = failed && !exportFinished ? System.currentTimeMillis() : 0;
+        notifyAll();
+    }
+
+    public synchronized void addBytesSent(long count) {
+        bytesSent += count;
+        notifyAll();
+    }
+
+    /**
+     * Waits for the new data written by export (or for export end)
+     */
+    public synchronized void waitForData(long timeout) throws InterruptedException {
+        if (!exportFinished) {
+            wait(timeout);
+        }
+    }
+
+    /**
+     * Blocks export while it is ahead of the download stream by more than the specified number of bytes.
+     * Export is not blocked if download wasn't started yet.
+     * If download stream was lost then export is blocked until the download is resumed.
+     *
+     * @throws DBCException if lost download wasn't resumed during the reconnect timeout
+     */
+    public synchronized void waitForStream(
+        DBRProgressMonitor monitor,
+        long bytesWritten,
+        long maxLag,
+        long reconnectTimeout
+    ) throws DBCException {
+        while (!monitor.isCanceled()) {
+            if (streamAttached) {
+                if (bytesWritten - bytesSent <= maxLag) {
+                    return;
+                }
+            } else if (streamLostTime > 0) {
+                if (System.currentTimeMillis() - streamLostTime > reconnectTimeout) {
+                    throw new DBCException("Data download was interrupted by client");
+                }
+            } else {
+                return;
+            }
+            try {
+                wait(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     public void deleteFile() {
         try {
-            Files.delete(dataFile);
+            Files.deleteIfExists(dataFile);
         } catch (IOException e) {
             log.error("Error deleting export file " + dataFile.toAbsolutePath(), e);
         }
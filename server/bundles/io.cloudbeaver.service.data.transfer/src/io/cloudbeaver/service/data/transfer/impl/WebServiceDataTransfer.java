@@ -18,7 +18,9 @@ package io.cloudbeaver.service.data.transfer.impl;
 
 import io.cloudbeaver.DBWebException;
 import io.cloudbeaver.model.WebAsyncTaskInfo;
+import io.cloudbeaver.model.session.WebAsyncTaskListener;
 import io.cloudbeaver.model.session.WebAsyncTaskProcessor;
+import io.cloudbeaver.model.session.WebAsyncTaskType;
 import io.cloudbeaver.model.session.WebSession;
 import io.cloudbeaver.server.CBApplication;
 import io.cloudbeaver.server.CBPlatform;
@@ -65,6 +67,12 @@ public class WebServiceDataTransfer implements DBWServiceDataTransfer {
 
     public static final String QUOTA_PROP_FILE_LIMIT = "dataExportFileSizeLimit";
 
+    // Producer setting which enables download of export data while it is being written
+    public static final String PARAM_STREAMED = "streamed";
+    private static final long STREAM_MAX_LAG = 16 * 1024 * 1024;
+    // Export is cancelled if client doesn't resume interrupted download during this period
+    private static final long STREAM_RECONNECT_TIMEOUT = 60 * 1000;
+
     private static final Log log = Log.getLog(WebServiceDataTransfer.class);
 
     private final Path dataExportFolder;
@@ -151,17 +159,32 @@ public class WebServiceDataTransfer implements DBWServiceDataTransfer {
                                                           @Nullable WebSQLResultsInfo resultsInfo) {
         sqlProcessor.getWebSession().addInfoMessage("Export data");
         DataTransferProcessorDescriptor processor = DataTransferRegistry.getInstance().getProcessor(parameters.getProcessorId());
+        Path exportFile = dataExportFolder.resolve(makeUniqueFileName(sqlProcessor, processor));
+        String exportFileName = CommonUtils.escapeFileName(CommonUtils.truncateString(dataContainer.getName(), 32));
+        WebDataTransferSessionConfig dtConfig = WebDataTransferUtils.getSessionDataTransferConfig(sqlProcessor.getWebSession());
+
+        // Streamed export is registered before start, so client can download it while it is being written
+        WebDataTransferTaskConfig streamConfig = null;
+        if (CommonUtils.getOption(parameters.getDbProducerSettings(), PARAM_STREAMED)) {
+            streamConfig = new WebDataTransferTaskConfig(exportFile, parameters, true);
+            streamConfig.setExportFileName(exportFileName);
+            dtConfig.addTask(streamConfig);
+        }
+        WebDataTransferTaskConfig finalStreamConfig = streamConfig;
+
         WebAsyncTaskProcessor<String> runnable = new WebAsyncTaskProcessor<String>() {
             @Override
             public void run(DBRProgressMonitor monitor) throws InvocationTargetException {
                 monitor.beginTask("Export data", 1);
                 try {
                     monitor.subTask("Export data using " + processor.getName());
-                    Path exportFile = dataExportFolder.resolve(makeUniqueFileName(sqlProcessor, processor));
                     try {
-                        exportData(monitor, processor, dataContainer, parameters, resultsInfo, exportFile);
+                        exportData(monitor, processor, dataContainer, parameters, resultsInfo, exportFile, finalStreamConfig);
                     } catch (Exception e) {
-                        if (Files.exists(exportFile)) {
+                        if (finalStreamConfig != null) {
+                            finalStreamConfig.setExportFinished(e);
+                            dtConfig.removeTask(finalStreamConfig);
+                        } else if (Files.exists(exportFile)) {
                             try {
                                 Files.delete(exportFile);
                             } catch (IOException ex) {
@@ -173,10 +196,13 @@ public class WebServiceDataTransfer implements DBWServiceDataTransfer {
                         }
                         throw new DBException("Error exporting data", e);
                     }
-                    WebDataTransferTaskConfig taskConfig = new WebDataTransferTaskConfig(exportFile, parameters);
-                    String exportFileName = CommonUtils.escapeFileName(CommonUtils.truncateString(dataContainer.getName(), 32));
-                    taskConfig.setExportFileName(exportFileName);
-                    WebDataTransferUtils.getSessionDataTransferConfig(sqlProcessor.getWebSession()).addTask(taskConfig);
+                    if (finalStreamConfig != null) {
+                        finalStreamConfig.setExportFinished(null);
+                    } else {
+                        WebDataTransferTaskConfig taskConfig = new WebDataTransferTaskConfig(exportFile, parameters);
+                        taskConfig.setExportFileName(exportFileName);
+                        dtConfig.addTask(taskConfig);
+                    }
 
                     result = exportFile.getFileName().toString();
                 } catch (Throwable e) {
@@ -186,7 +212,39 @@ public class WebServiceDataTransfer implements DBWServiceDataTransfer {
                 }
             }
         };
-        return sqlProcessor.getWebSession().createAndRunAsyncTask("Data export", runnable);
+        WebSession session = sqlProcessor.getWebSession();
+        WebAsyncTaskInfo taskInfo = session.createAndRunAsyncTask("Data export", WebAsyncTaskType.EXPORT, runnable);
+        if (streamConfig != null) {
+            streamConfig.setTaskId(taskInfo.getId());
+            // Data file ID is known before the export end
+            taskInfo.setResult(exportFile.getFileName().toString());
+            // Task may end without running export (cancelled in queue, quota exceeded, session closed).
+            // Download stream must be finished then.
+            session.addAsyncTaskListener(new WebAsyncTaskListener() {
+                @Override
+                public void asyncTaskChanged(@NotNull WebAsyncTaskInfo changedTask) {
+                    if (changedTask == taskInfo && !changedTask.isRunning()) {
+                        session.removeAsyncTaskListener(this);
+                        abortStreamedExport(finalStreamConfig, changedTask);
+                    }
+                }
+
+                @Override
+                public void sessionClosed() {
+                    finalStreamConfig.abortExport(new DBException("Session was closed"));
+                }
+            });
+            if (!taskInfo.isRunning()) {
+                // Finished before listener was added
+                abortStreamedExport(streamConfig, taskInfo);
+            }
+        }
+        return taskInfo;
+    }
+
+    private static void abortStreamedExport(@NotNull WebDataTransferTaskConfig streamConfig, @NotNull WebAsyncTaskInfo taskInfo) {
+        Throwable jobError = taskInfo.getJobError();
+        streamConfig.abortExport(jobError != null ? jobError : new DBException("Data export was cancelled"));
     }
 
     private void exportData(
@@ -195,7 +253,8 @@ public class WebServiceDataTransfer implements DBWServiceDataTransfer {
         DBSDataContainer dataContainer,
         WebDataTransferParameters parameters,
         WebSQLResultsInfo resultsInfo,
-        Path exportFile) throws DBException, IOException
+        Path exportFile,
+        @Nullable WebDataTransferTaskConfig streamConfig) throws DBException, IOException
     {
         IDataTransferProcessor processorInstance = processor.getInstance();
         if (!(processorInstance instanceof IStreamDataExporter)) {
@@ -213,6 +272,10 @@ public class WebServiceDataTransfer implements DBWServiceDataTransfer {
                     throw new DBQuotaException(
                         "Data export quota exceeded", QUOTA_PROP_FILE_LIMIT, fileSizeLimit.longValue(), getBytesWritten());
                 }
+                if (streamConfig != null) {
+                    // Do not read rows much faster than client downloads them
+                    streamConfig.waitForStream(session.getProgressMonitor(), getBytesWritten(), STREAM_MAX_LAG, STREAM_RECONNECT_TIMEOUT);
+                }
             }
         };
 
@@ -4,6 +4,16 @@ CREATE TABLE CB_SCHEMA_INFO
     UPDATE_TIME TIMESTAMP NOT NULL
 );
 
+-- Version of security data (roles, permissions, grants). Increased on every change, used in multi-node mode
+
+CREATE TABLE CB_SECURITY_VERSION
+(
+    VERSION     BIGINT    NOT NULL,
+    UPDATE_TIME TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO CB_SECURITY_VERSION (VERSION, UPDATE_TIME) VALUES (0, CURRENT_TIMESTAMP);
+
 CREATE TABLE CB_INSTANCE
 (
     INSTANCE_ID     CHAR(36)     NOT NULL, -- Unique instance ID
@@ -282,6 +292,11 @@ CREATE TABLE CB_AUTH_ATTEMPT_INFO
 );
 
 CREATE INDEX CB_SESSION_LOG_INDEX ON CB_SESSION_LOG (SESSION_ID, LOG_TIME);
+CREATE INDEX CB_SESSION_ACCESS_TIME_INDEX ON CB_SESSION (LAST_ACCESS_TIME);
+CREATE INDEX CB_AUTH_TOKEN_SESSION_INDEX ON CB_AUTH_TOKEN (SESSION_ID);
+CREATE INDEX CB_AUTH_TOKEN_EXPIRATION_INDEX ON CB_AUTH_TOKEN (REFRESH_TOKEN_EXPIRATION_TIME);
+CREATE INDEX CB_AUTH_ATTEMPT_SESSION_INDEX ON CB_AUTH_ATTEMPT (SESSION_ID);
+CREATE INDEX CB_AUTH_ATTEMPT_CREATE_TIME_INDEX ON CB_AUTH_ATTEMPT (CREATE_TIME);
 
 -- Secrets
 
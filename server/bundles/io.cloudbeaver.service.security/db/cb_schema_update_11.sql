@@ -0,0 +1,7 @@
+CREATE TABLE CB_SECURITY_VERSION
+(
+    VERSION     BIGINT    NOT NULL,
+    UPDATE_TIME TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO CB_SECURITY_VERSION (VERSION, UPDATE_TIME) VALUES (0, CURRENT_TIMESTAMP);
@@ -0,0 +1,7 @@
+CREATE INDEX CB_SESSION_ACCESS_TIME_INDEX ON CB_SESSION (LAST_ACCESS_TIME);
+
+CREATE INDEX CB_AUTH_TOKEN_SESSION_INDEX ON CB_AUTH_TOKEN (SESSION_ID);
+CREATE INDEX CB_AUTH_TOKEN_EXPIRATION_INDEX ON CB_AUTH_TOKEN (REFRESH_TOKEN_EXPIRATION_TIME);
+
+CREATE INDEX CB_AUTH_ATTEMPT_SESSION_INDEX ON CB_AUTH_ATTEMPT (SESSION_ID);
+CREATE INDEX CB_AUTH_ATTEMPT_CREATE_TIME_INDEX ON CB_AUTH_ATTEMPT (CREATE_TIME);
@@ -27,7 +27,9 @@ import io.cloudbeaver.model.app.WebAuthConfiguration;
 import io.cloudbeaver.model.session.WebAuthInfo;
 import io.cloudbeaver.service.security.db.CBDatabase;
 import io.cloudbeaver.service.security.internal.AuthAttemptSessionInfo;
+import io.cloudbeaver.service.security.internal.AuthTokenCache;
 import io.cloudbeaver.service.security.internal.RefreshTokenInfo;
+import io.cloudbeaver.service.security.internal.SubjectPermissionsCache;
 import io.cloudbeaver.utils.WebAppUtils;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
@@ -64,7 +66,8 @@ import java.util.stream.Collectors;
 /**
  * Server controller
  */
-public class CBEmbeddedSecurityController implements SMAdminController, SMAuthenticationManager {
+public class CBEmbeddedSecurityController
+    implements SMAdminController, SMAuthenticationManager, SMObjectPermissionsResolver, SMBulkAdminController {
 
     private static final Log log = Log.getLog(CBEmbeddedSecurityController.class);
 
@@ -76,12 +79,22 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
     private static final Type MAP_STRING_OBJECT_TYPE = new TypeToken<Map<String, Object>>() {
     }.getType();
     private static final Gson gson = new GsonBuilder().create();
+    // Max number of rows in one JDBC batch
+    private static final int MAX_BATCH_SIZE = 1000;
+    // Number of subjects resolved by one bulk permissions query
+    private static final int SUBJECTS_QUERY_CHUNK_SIZE = 100;
+    // Min period between checks of security data version in multi-node mode
+    private static final long SECURITY_VERSION_CHECK_PERIOD = 1000;
+    // Max time access token info is kept in cache
+    private static final long TOKEN_INFO_CACHE_PERIOD = 10000;
 
     protected final WebApplication application;
     protected final CBDatabase database;
     protected final SMCredentialsProvider credentialsProvider;
 
     private final SMControllerConfiguration smConfig;
+    private final SubjectPermissionsCache permissionsCache = new SubjectPermissionsCache();
+    private final AuthTokenCache tokenCache = new AuthTokenCache(TOKEN_INFO_CACHE_PERIOD);
 
     public CBEmbeddedSecurityController(
         WebApplication application,
@@ -131,8 +144,9 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                         for (Map.Entry<String, String> mp : metaParameters.entrySet()) {
                             dbStat.setString(2, mp.getKey());
                             dbStat.setString(3, mp.getValue());
-                            dbStat.execute();
+                            dbStat.addBatch();
                         }
+                        dbStat.executeBatch();
                     }
                 }
                 txn.commit();
@@ -148,8 +162,10 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
             try (JDBCTransaction txn = new JDBCTransaction(dbCon)) {
                 deleteAuthSubject(dbCon, userId);
                 JDBCUtils.executeStatement(dbCon, "DELETE FROM CB_USER WHERE USER_ID=?", userId);
+                increaseSecurityVersion(dbCon);
                 txn.commit();
             }
+            permissionsCache.invalidate();
         } catch (SQLException e) {
             throw new DBCException("Error deleting user from database", e);
         }
@@ -160,27 +176,84 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
         try (Connection dbCon = database.openConnection()) {
             try (JDBCTransaction txn = new JDBCTransaction(dbCon)) {
                 JDBCUtils.executeStatement(dbCon, "DELETE FROM CB_USER_ROLE WHERE USER_ID=?", userId);
-                if (!ArrayUtils.isEmpty(roleIds)) {
-                    try (PreparedStatement dbStat = dbCon.prepareStatement("INSERT INTO CB_USER_ROLE(USER_ID,ROLE_ID,GRANT_TIME,GRANTED_BY) VALUES(?,?,?,?)")) {
-                        for (String roleId : roleIds) {
-                            dbStat.setString(1, userId);
-                            dbStat.setString(2, roleId);
-                            dbStat.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
-                            dbStat.setString(4, grantorId);
-                            dbStat.execute();
+                insertUserRoles(dbCon, Collections.singletonMap(userId, roleIds), grantorId);
+                increaseSecurityVersion(dbCon);
+                txn.commit();
+            }
+            permissionsCache.invalidate();
+        } catch (SQLException e) {
+            throw new DBCException("Error saving user roles in database", e);
+        }
+    }
+
+    @Override
+    public void setUsersRoles(@NotNull Map<String, String[]> userRoles, String grantorId) throws DBCException {
+        if (userRoles.isEmpty()) {
+            return;
+        }
+        try (Connection dbCon = database.openConnection()) {
+            try (JDBCTransaction txn = new JDBCTransaction(dbCon)) {
+                try (PreparedStatement dbStat = dbCon.prepareStatement("DELETE FROM CB_USER_ROLE WHERE USER_ID=?")) {
+                    int batchSize = 0;
+                    for (String userId : userRoles.keySet()) {
+                        dbStat.setString(1, userId);
+                        dbStat.addBatch();
+                        if (++batchSize % MAX_BATCH_SIZE == 0) {
+                            dbStat.executeBatch();
                         }
                     }
+                    dbStat.executeBatch();
                 }
+                insertUserRoles(dbCon, userRoles, grantorId);
+                increaseSecurityVersion(dbCon);
                 txn.commit();
             }
+            permissionsCache.invalidate();
         } catch (SQLException e) {
-            throw new DBCException("Error saving user roles in database", e);
+            throw new DBCException("Error saving users roles in database", e);
+        }
+    }
+
+    private void insertUserRoles(Connection dbCon, Map<String, String[]> userRoles, String grantorId) throws SQLException {
+        try (PreparedStatement dbStat = dbCon.prepareStatement("INSERT INTO CB_USER_ROLE(USER_ID,ROLE_ID,GRANT_TIME,GRANTED_BY) VALUES(?,?,?,?)")) {
+            Timestamp grantTime = new Timestamp(System.currentTimeMillis());
+            int batchSize = 0;
+            for (Map.Entry<String, String[]> entry : userRoles.entrySet()) {
+                if (ArrayUtils.isEmpty(entry.getValue())) {
+                    continue;
+                }
+                for (String roleId : entry.getValue()) {
+                    dbStat.setString(1, entry.getKey());
+                    dbStat.setString(2, roleId);
+                    dbStat.setTimestamp(3, grantTime);
+                    dbStat.setString(4, grantorId);
+                    dbStat.addBatch();
+                    if (++batchSize % MAX_BATCH_SIZE == 0) {
+                        dbStat.executeBatch();
+                    }
+                }
+            }
+            if (batchSize % MAX_BATCH_SIZE != 0) {
+                dbStat.executeBatch();
+            }
         }
     }
 
     @NotNull
     @Override
     public SMRole[] getUserRoles(String userId) throws DBException {
+        checkPermissionsCacheVersion();
+        SMRole[] roles = permissionsCache.getUserRoles(userId);
+        if (roles == null) {
+            long cacheVersion = permissionsCache.getVersion();
+            roles = readUserRoles(userId);
+            permissionsCache.putUserRoles(userId, roles, cacheVersion);
+        }
+        return roles;
+    }
+
+    @NotNull
+    private SMRole[] readUserRoles(String userId) throws DBException {
         try (Connection dbCon = database.openConnection()) {
             try (PreparedStatement dbStat = dbCon.prepareStatement(
                 "SELECT R.* FROM CB_USER_ROLE UR,CB_ROLE R " +
@@ -288,12 +361,13 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                 if (!metaParameters.isEmpty()) {
                     // Insert new metas
                     try (PreparedStatement dbStat = dbCon.prepareStatement("INSERT INTO CB_USER_META(USER_ID,META_ID,META_VALUE) VALUES(?,?,?)")) {
-                        dbStat.setString(1, userId);
                         for (Map.Entry<String, Object> mpe : metaParameters.entrySet()) {
+                            dbStat.setString(1, userId);
                             dbStat.setString(2, mpe.getKey());
                             dbStat.setString(3, CommonUtils.toString(mpe.getValue()));
-                            dbStat.execute();
+                            dbStat.addBatch();
                         }
+                        dbStat.executeBatch();
                     }
                 }
                 txn.commit();
@@ -432,8 +506,9 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                             dbStat.setString(2, authProvider.getId());
                             dbStat.setString(3, cred[0]);
                             dbStat.setString(4, cred[1]);
-                            dbStat.execute();
+                            dbStat.addBatch();
                         }
+                        dbStat.executeBatch();
                     }
                 }
                 txn.commit();
@@ -647,8 +722,10 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                 insertPermissions(dbCon, roleId,
                     new String[] {DBWConstants.PERMISSION_PUBLIC} , grantor);
 
+                increaseSecurityVersion(dbCon);
                 txn.commit();
             }
+            permissionsCache.invalidate();
         } catch (SQLException e) {
             throw new DBCException("Error saving role in database", e);
         }
@@ -670,8 +747,10 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                         throw new DBCException("Role '" + roleId + "' doesn't exist");
                     }
                 }
+                increaseSecurityVersion(dbCon);
                 txn.commit();
             }
+            permissionsCache.invalidate();
         } catch (SQLException e) {
             throw new DBCException("Error updating role info in database", e);
         }
@@ -700,8 +779,10 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                     dbStat.setString(1, roleId);
                     dbStat.execute();
                 }
+                increaseSecurityVersion(dbCon);
                 txn.commit();
             }
+            permissionsCache.invalidate();
         } catch (SQLException e) {
             throw new DBCException("Error deleting role from database", e);
         }
@@ -717,8 +798,10 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
             try (JDBCTransaction txn = new JDBCTransaction(dbCon)) {
                 JDBCUtils.executeStatement(dbCon, "DELETE FROM CB_AUTH_PERMISSIONS WHERE SUBJECT_ID=?", subjectId);
                 insertPermissions(dbCon, subjectId, permissionIds.toArray(String[]::new), grantorId);
+                increaseSecurityVersion(dbCon);
                 txn.commit();
             }
+            permissionsCache.invalidate();
         } catch (SQLException e) {
             throw new DBCException("Error saving role permissions in database", e);
         }
@@ -727,13 +810,15 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
     private void insertPermissions(Connection dbCon, String subjectId, String[] permissionIds, String grantorId) throws SQLException {
         if (!ArrayUtils.isEmpty(permissionIds)) {
             try (PreparedStatement dbStat = dbCon.prepareStatement("INSERT INTO CB_AUTH_PERMISSIONS(SUBJECT_ID,PERMISSION_ID,GRANT_TIME,GRANTED_BY) VALUES(?,?,?,?)")) {
+                Timestamp grantTime = new Timestamp(System.currentTimeMillis());
                 for (String permission : permissionIds) {
                     dbStat.setString(1, subjectId);
                     dbStat.setString(2, permission);
-                    dbStat.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                    dbStat.setTimestamp(3, grantTime);
                     dbStat.setString(4, grantorId);
-                    dbStat.execute();
+                    dbStat.addBatch();
                 }
+                dbStat.executeBatch();
             }
         }
     }
@@ -741,6 +826,18 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
     @NotNull
     @Override
     public Set<String> getSubjectPermissions(String subjectId) throws DBException {
+        checkPermissionsCacheVersion();
+        Set<String> permissions = permissionsCache.getSubjectPermissions(subjectId);
+        if (permissions == null) {
+            long cacheVersion = permissionsCache.getVersion();
+            permissions = readSubjectPermissions(subjectId);
+            permissionsCache.putSubjectPermissions(subjectId, permissions, cacheVersion);
+        }
+        return permissions;
+    }
+
+    @NotNull
+    private Set<String> readSubjectPermissions(String subjectId) throws DBException {
         try (Connection dbCon = database.openConnection()) {
             Set<String> permissions = new HashSet<>();
             try (PreparedStatement dbStat = dbCon.prepareStatement("SELECT PERMISSION_ID FROM CB_AUTH_PERMISSIONS WHERE SUBJECT_ID=?")) {
@@ -760,27 +857,31 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
     @NotNull
     @Override
     public Set<String> getUserPermissions(String userId) throws DBException {
+        checkPermissionsCacheVersion();
+        Set<String> permissions = permissionsCache.getUserPermissions(userId);
+        if (permissions == null) {
+            long cacheVersion = permissionsCache.getVersion();
+            permissions = readUserPermissions(userId);
+            permissionsCache.putUserPermissions(userId, permissions, cacheVersion);
+        }
+        return permissions;
+    }
+
+    @NotNull
+    private Set<String> readUserPermissions(String userId) throws DBException {
         try (Connection dbCon = database.openConnection()) {
             Set<String> permissions = new HashSet<>();
             try (PreparedStatement dbStat = dbCon.prepareStatement(
-                "SELECT DISTINCT AP.PERMISSION_ID FROM CB_AUTH_PERMISSIONS AP,CB_USER_ROLE UR\n" +
-                    "WHERE UR.ROLE_ID=AP.SUBJECT_ID AND UR.USER_ID=?")) {
-                dbStat.setString(1, userId);
-                try (ResultSet dbResult = dbStat.executeQuery()) {
-                    while (dbResult.next()) {
-                        permissions.add(dbResult.getString(1));
-                    }
-                }
-            }
-            try (PreparedStatement dbStat = dbCon.prepareStatement("SELECT PERMISSION_ID FROM CB_AUTH_PERMISSIONS WHERE SUBJECT_ID=?")) {
+                "SELECT DISTINCT AP.PERMISSION_ID FROM CB_AUTH_PERMISSIONS AP\n" +
+                    "WHERE AP.SUBJECT_ID=? OR AP.SUBJECT_ID IN (SELECT UR.ROLE_ID FROM CB_USER_ROLE UR WHERE UR.USER_ID=?)")) {
                 dbStat.setString(1, userId);
+                dbStat.setString(2, userId);
                 try (ResultSet dbResult = dbStat.executeQuery()) {
                     while (dbResult.next()) {
                         permissions.add(dbResult.getString(1));
                     }
                 }
             }
-            permissions.addAll(getSubjectPermissions(userId));
             return permissions;
         } catch (SQLException e) {
             throw new DBCException("Error reading user permissions", e);
@@ -1163,6 +1264,7 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
     private void invalidateUserTokens(String smToken) throws DBCException {
         try (Connection dbCon = database.openConnection()) {
             JDBCUtils.executeStatement(dbCon, "DELETE FROM CB_AUTH_TOKEN WHERE TOKEN_ID=?", smToken);
+            tokenCache.removeToken(smToken);
         } catch (SQLException e) {
             throw new DBCException("Session invalidation failed", e);
         }
@@ -1393,6 +1495,7 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
         @NotNull Connection dbCon
     ) throws SQLException, DBException {
         JDBCUtils.executeStatement(dbCon, "DELETE FROM CB_AUTH_TOKEN WHERE SESSION_ID=?", smSessionId);
+        tokenCache.removeSessionTokens(smSessionId);
         return generateNewSessionTokens(smSessionId, userId, dbCon);
     }
 
@@ -1426,8 +1529,22 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
 
     @Override
     public SMAuthPermissions getTokenPermissions(String token) throws DBException {
-        String userId;
-        String sessionId;
+        AuthTokenCache.TokenInfo tokenInfo = tokenCache.getTokenInfo(token);
+        if (tokenInfo == null) {
+            long cacheVersion = tokenCache.getVersion();
+            tokenInfo = readTokenInfo(token);
+            tokenCache.putTokenInfo(token, tokenInfo, cacheVersion);
+        }
+        if (application.isMultiNode() && System.currentTimeMillis() > tokenInfo.getExpirationTime()) {
+            throw new SMAccessTokenExpiredException("Token expired");
+        }
+        String userId = tokenInfo.getUserId();
+        var permissions = userId == null ? getAnonymousUserPermissions() : getUserPermissions(userId);
+        return new SMAuthPermissions(userId, tokenInfo.getSessionId(), permissions);
+    }
+
+    @NotNull
+    private AuthTokenCache.TokenInfo readTokenInfo(String token) throws DBException {
         try (Connection dbCon = database.openConnection();
              PreparedStatement dbStat = dbCon.prepareStatement("SELECT USER_ID, EXPIRATION_TIME, SESSION_ID FROM CB_AUTH_TOKEN WHERE TOKEN_ID=?");
         ) {
@@ -1436,18 +1553,15 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                 if (!dbResult.next()) {
                     throw new SMException("Invalid token");
                 }
-                userId = dbResult.getString(1);
-                var expiredDate = dbResult.getTimestamp(2);
-                if (application.isMultiNode() && Timestamp.from(Instant.now()).after(expiredDate)) {
-                    throw new SMAccessTokenExpiredException("Token expired");
-                }
-                sessionId = dbResult.getString(3);
+                Timestamp expirationTime = dbResult.getTimestamp(2);
+                return new AuthTokenCache.TokenInfo(
+                    dbResult.getString(1),
+                    dbResult.getString(3),
+                    expirationTime == null ? Long.MAX_VALUE : expirationTime.getTime());
             }
         } catch (SQLException e) {
             throw new DBCException("Error reading token info in database", e);
         }
-        var permissions = userId == null ? getAnonymousUserPermissions() : getUserPermissions(userId);
-        return new SMAuthPermissions(userId, sessionId, permissions);
     }
 
     @Override
@@ -1491,35 +1605,8 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
 
     @Override
     public void updateSession(@NotNull String sessionId, @Nullable String userId, @NotNull Map<String, Object> parameters) throws DBCException {
-        try (Connection dbCon = database.openConnection()) {
-            try (PreparedStatement dbStat = dbCon.prepareStatement(
-                "UPDATE CB_SESSION SET USER_ID=?,LAST_ACCESS_TIME=?,LAST_ACCESS_REMOTE_ADDRESS=?,LAST_ACCESS_USER_AGENT=?,LAST_ACCESS_INSTANCE_ID=? WHERE SESSION_ID=?")) {
-                if (userId == null) {
-                    dbStat.setNull(1, Types.VARCHAR);
-                } else {
-                    dbStat.setString(1, userId);
-                }
-                dbStat.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
-                if (parameters.get(SMConstants.SESSION_PARAM_LAST_REMOTE_ADDRESS) != null) {
-                    dbStat.setString(3, CommonUtils.truncateString(parameters.get(SMConstants.SESSION_PARAM_LAST_REMOTE_ADDRESS).toString(), 128));
-                } else {
-                    dbStat.setNull(3, Types.VARCHAR);
-                }
-                if (parameters.get(SMConstants.SESSION_PARAM_LAST_REMOTE_USER_AGENT) != null) {
-                    dbStat.setString(4, CommonUtils.truncateString(parameters.get(SMConstants.SESSION_PARAM_LAST_REMOTE_USER_AGENT).toString(), 255));
-                } else {
-                    dbStat.setNull(4, Types.VARCHAR);
-                }
-                dbStat.setString(5, database.getInstanceId());
-
-                dbStat.setString(6, sessionId);
-                if (dbStat.executeUpdate() <= 0) {
-                    throw new DBCException("Session not exists in database");
-                }
-            }
-        } catch (SQLException e) {
-            throw new DBCException("Error updating session in database", e);
-        }
+        // Last access info is written in batches, see SessionHeartbeatWriter
+        database.getSessionHeartbeatWriter().updateSession(sessionId, userId, parameters);
     }
 
     ///////////////////////////////////////////
@@ -1546,31 +1633,82 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                 sqlBuilder.append(")");
                 JDBCUtils.executeStatement(dbCon, sqlBuilder.toString(), objectType.getObjectType());
                 if (!CommonUtils.isEmpty(permissions)) {
-                    try (PreparedStatement dbStat = dbCon.prepareStatement(
-                        "INSERT INTO CB_OBJECT_PERMISSIONS(OBJECT_ID,OBJECT_TYPE,GRANT_TIME,GRANTED_BY,SUBJECT_ID,PERMISSION) "
-                            + "VALUES(?,?,?,?,?,?)")) {
-                        for (String objectId : objectIds) {
-                            dbStat.setString(1, objectId);
-                            dbStat.setString(2, objectType.getObjectType());
-                            dbStat.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
-                            dbStat.setString(4, grantor);
-                            for (String subjectId : subjectIds) {
-                                dbStat.setString(5, subjectId);
-                                for (String permission : permissions) {
-                                    dbStat.setString(6, permission);
-                                    dbStat.execute();
-                                }
-                            }
-                        }
+                    Map<String, Set<String>> objectPermissions = new LinkedHashMap<>();
+                    for (String objectId : objectIds) {
+                        objectPermissions.put(objectId, permissions);
                     }
+                    insertObjectPermissions(dbCon, objectType, subjectIds, objectPermissions, grantor);
                 }
+                increaseSecurityVersion(dbCon);
                 txn.commit();
             }
+            permissionsCache.invalidate();
         } catch (SQLException e) {
             throw new DBCException("Error granting object permissions", e);
         }
     }
 
+    @Override
+    public void setSubjectObjectPermissions(
+        @NotNull String subjectId,
+        @NotNull SMObjectType objectType,
+        @NotNull Map<String, Set<String>> objectPermissions,
+        @NotNull String grantor
+    ) throws DBException {
+        try (Connection dbCon = database.openConnection()) {
+            try (JDBCTransaction txn = new JDBCTransaction(dbCon)) {
+                JDBCUtils.executeStatement(dbCon,
+                    "DELETE FROM CB_OBJECT_PERMISSIONS WHERE OBJECT_TYPE=? AND SUBJECT_ID=?",
+                    objectType.getObjectType(),
+                    subjectId
+                );
+                insertObjectPermissions(dbCon, objectType, Set.of(subjectId), objectPermissions, grantor);
+                increaseSecurityVersion(dbCon);
+                txn.commit();
+            }
+            permissionsCache.invalidate();
+        } catch (SQLException e) {
+            throw new DBCException("Error granting subject object permissions", e);
+        }
+    }
+
+    private void insertObjectPermissions(
+        @NotNull Connection dbCon,
+        @NotNull SMObjectType objectType,
+        @NotNull Set<String> subjectIds,
+        @NotNull Map<String, Set<String>> objectPermissions,
+        @NotNull String grantor
+    ) throws SQLException {
+        try (PreparedStatement dbStat = dbCon.prepareStatement(
+            "INSERT INTO CB_OBJECT_PERMISSIONS(OBJECT_ID,OBJECT_TYPE,GRANT_TIME,GRANTED_BY,SUBJECT_ID,PERMISSION) "
+                + "VALUES(?,?,?,?,?,?)")) {
+            Timestamp grantTime = new Timestamp(System.currentTimeMillis());
+            int batchSize = 0;
+            for (Map.Entry<String, Set<String>> entry : objectPermissions.entrySet()) {
+                if (CommonUtils.isEmpty(entry.getValue())) {
+                    continue;
+                }
+                for (String subjectId : subjectIds) {
+                    for (String permission : entry.getValue()) {
+                        dbStat.setString(1, entry.getKey());
+                        dbStat.setString(2, objectType.getObjectType());
+                        dbStat.setTimestamp(3, grantTime);
+                        dbStat.setString(4, grantor);
+                        dbStat.setString(5, subjectId);
+                        dbStat.setString(6, permission);
+                        dbStat.addBatch();
+                        if (++batchSize % MAX_BATCH_SIZE == 0) {
+                            dbStat.executeBatch();
+                        }
+                    }
+                }
+            }
+            if (batchSize % MAX_BATCH_SIZE != 0) {
+                dbStat.executeBatch();
+            }
+        }
+    }
+
     @Override
     public void deleteAllObjectPermissions(@NotNull String objectId, @NotNull SMObjectType objectType) throws DBException {
         try (Connection dbCon = database.openConnection()) {
@@ -1579,7 +1717,8 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                 objectType.getObjectType(),
                 objectId
             );
-
+            increaseSecurityVersion(dbCon);
+            permissionsCache.invalidate();
         } catch (SQLException e) {
             throw new DBCException("Error deleting object permissions", e);
         }
@@ -1593,7 +1732,8 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
                 objectType.getObjectType(),
                 subjectId
             );
-
+            increaseSecurityVersion(dbCon);
+            permissionsCache.invalidate();
         } catch (SQLException e) {
             throw new DBCException("Error deleting subject permissions", e);
         }
@@ -1602,15 +1742,27 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
     @NotNull
     @Override
     public List<SMObjectPermissions> getAllAvailableObjectsPermissions(@NotNull String subjectId, @NotNull SMObjectType objectType) throws DBException {
-        Set<String> allSubjects = getAllLinkedSubjects(subjectId);
+        checkPermissionsCacheVersion();
+        List<SMObjectPermissions> permissions = permissionsCache.getObjectPermissions(subjectId, objectType.getObjectType());
+        if (permissions == null) {
+            long cacheVersion = permissionsCache.getVersion();
+            permissions = readAllAvailableObjectsPermissions(subjectId, objectType);
+            permissionsCache.putObjectPermissions(subjectId, objectType.getObjectType(), permissions, cacheVersion);
+        }
+        return permissions;
+    }
+
+    @NotNull
+    private List<SMObjectPermissions> readAllAvailableObjectsPermissions(@NotNull String subjectId, @NotNull SMObjectType objectType) throws DBException {
         try (Connection dbCon = database.openConnection()) {
             {
-                var sqlBuilder = new StringBuilder("SELECT OBJECT_ID,PERMISSION FROM CB_OBJECT_PERMISSIONS ");
-                sqlBuilder.append("WHERE SUBJECT_ID IN (");
-                appendStringParameters(sqlBuilder, allSubjects.toArray(String[]::new));
-                sqlBuilder.append(") AND OBJECT_TYPE=?");
-                try (PreparedStatement dbStat = dbCon.prepareStatement(sqlBuilder.toString())) {
+                try (PreparedStatement dbStat = dbCon.prepareStatement(
+                    "SELECT OP.OBJECT_ID,OP.PERMISSION FROM CB_OBJECT_PERMISSIONS OP\n" +
+                        "WHERE OP.OBJECT_TYPE=? AND " +
+                        "(OP.SUBJECT_ID=? OR OP.SUBJECT_ID IN (SELECT UR.ROLE_ID FROM CB_USER_ROLE UR WHERE UR.USER_ID=?))")) {
                     dbStat.setString(1, objectType.getObjectType());
+                    dbStat.setString(2, subjectId);
+                    dbStat.setString(3, subjectId);
 
                     var permissionsByObjectId = new LinkedHashMap<String, Set<String>>();
                     try (ResultSet dbResult = dbStat.executeQuery()) {
@@ -1630,14 +1782,85 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
         }
     }
 
-    private Set<String> getAllLinkedSubjects(String subjectId) throws DBException {
-        Set<String> allSubjects = new HashSet<>();
-        allSubjects.add(subjectId);
-        var userRoleIds = Arrays.stream(getUserRoles(subjectId))
-            .map(SMRole::getRoleId)
-            .collect(Collectors.toSet());
-        allSubjects.addAll(userRoleIds);
-        return allSubjects;
+    @NotNull
+    @Override
+    public Map<String, List<SMObjectPermissions>> getSubjectsObjectPermissions(
+        @NotNull Set<String> subjectIds,
+        @NotNull SMObjectType objectType
+    ) throws DBException {
+        checkPermissionsCacheVersion();
+        Map<String, List<SMObjectPermissions>> result = new LinkedHashMap<>();
+        List<String> notCachedSubjects = new ArrayList<>();
+        for (String subjectId : subjectIds) {
+            List<SMObjectPermissions> permissions = permissionsCache.getObjectPermissions(subjectId, objectType.getObjectType());
+            if (permissions != null) {
+                result.put(subjectId, permissions);
+            } else {
+                notCachedSubjects.add(subjectId);
+            }
+        }
+        if (notCachedSubjects.isEmpty()) {
+            return result;
+        }
+        long cacheVersion = permissionsCache.getVersion();
+        // Statement text doesn't depend on the number of subjects: the last chunk is padded with the last subject
+        String sql = "SELECT S.SUBJECT_ID,OP.OBJECT_ID,OP.PERMISSION FROM CB_AUTH_SUBJECT S,CB_OBJECT_PERMISSIONS OP\n" +
+            "WHERE S.SUBJECT_ID IN (" + String.join(",", Collections.nCopies(SUBJECTS_QUERY_CHUNK_SIZE, "?")) + ") " +
+            "AND OP.OBJECT_TYPE=? AND " +
+            "(OP.SUBJECT_ID=S.SUBJECT_ID OR OP.SUBJECT_ID IN (SELECT UR.ROLE_ID FROM CB_USER_ROLE UR WHERE UR.USER_ID=S.SUBJECT_ID))";
+        try (Connection dbCon = database.openConnection();
+             PreparedStatement dbStat = dbCon.prepareStatement(sql)
+        ) {
+            for (int chunkStart = 0; chunkStart < notCachedSubjects.size(); chunkStart += SUBJECTS_QUERY_CHUNK_SIZE) {
+                List<String> chunk = notCachedSubjects.subList(
+                    chunkStart, Math.min(chunkStart + SUBJECTS_QUERY_CHUNK_SIZE, notCachedSubjects.size()));
+                for (int i = 0; i < SUBJECTS_QUERY_CHUNK_SIZE; i++) {
+                    dbStat.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+                dbStat.setString(SUBJECTS_QUERY_CHUNK_SIZE + 1, objectType.getObjectType());
+
+                var permissionsBySubjectId = new HashMap<String, Map<String, Set<String>>>();
+                try (ResultSet dbResult = dbStat.executeQuery()) {
+                    while (dbResult.next()) {
+                        permissionsBySubjectId
+                            .computeIfAbsent(dbResult.getString(1), key -> new LinkedHashMap<>())
+                            .computeIfAbsent(dbResult.getString(2), key -> new HashSet<>())
+                            .add(dbResult.getString(3));
+                    }
+                }
+                for (String subjectId : chunk) {
+                    List<SMObjectPermissions> permissions = permissionsBySubjectId.getOrDefault(subjectId, Map.of())
+                        .entrySet()
+                        .stream()
+                        .map(entry -> new SMObjectPermissions(entry.getKey(), entry.getValue()))
+                        .collect(Collectors.toList());
+                    permissionsCache.putObjectPermissions(subjectId, objectType.getObjectType(), permissions, cacheVersion);
+                    result.put(subjectId, permissions);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DBCException("Error reading subjects object permissions", e);
+        }
+        return result;
+    }
+
+    @NotNull
+    @Override
+    public Map<String, SMObjectPermissions> getObjectsPermissions(
+        @NotNull String subjectId,
+        @NotNull Set<String> objectIds,
+        @NotNull SMObjectType objectType
+    ) throws DBException {
+        Map<String, SMObjectPermissions> result = new LinkedHashMap<>();
+        for (String objectId : objectIds) {
+            result.put(objectId, new SMObjectPermissions(objectId, new HashSet<>()));
+        }
+        for (SMObjectPermissions permissions : getAllAvailableObjectsPermissions(subjectId, objectType)) {
+            if (result.containsKey(permissions.getObjectId())) {
+                result.put(permissions.getObjectId(), permissions);
+            }
+        }
+        return result;
     }
 
     @NotNull
@@ -1647,17 +1870,24 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
         @NotNull String objectId,
         @NotNull SMObjectType objectType
     ) throws DBException {
-        Set<String> allSubjects = getAllLinkedSubjects(subjectId);
+        checkPermissionsCacheVersion();
+        List<SMObjectPermissions> cachedPermissions = permissionsCache.getObjectPermissions(subjectId, objectType.getObjectType());
+        if (cachedPermissions != null) {
+            return cachedPermissions.stream()
+                .filter(permissions -> permissions.getObjectId().equals(objectId))
+                .findFirst()
+                .orElseGet(() -> new SMObjectPermissions(objectId, new HashSet<>()));
+        }
         try (Connection dbCon = database.openConnection()) {
             {
-                var sqlBuilder = new StringBuilder("SELECT PERMISSION FROM CB_OBJECT_PERMISSIONS ");
-                sqlBuilder.append("WHERE SUBJECT_ID IN (");
-                appendStringParameters(sqlBuilder, allSubjects.toArray(String[]::new));
-                sqlBuilder.append(") AND OBJECT_TYPE=? AND OBJECT_ID=?");
-
-                try (PreparedStatement dbStat = dbCon.prepareStatement(sqlBuilder.toString())) {
+                try (PreparedStatement dbStat = dbCon.prepareStatement(
+                    "SELECT OP.PERMISSION FROM CB_OBJECT_PERMISSIONS OP\n" +
+                        "WHERE OP.OBJECT_TYPE=? AND OP.OBJECT_ID=? AND " +
+                        "(OP.SUBJECT_ID=? OR OP.SUBJECT_ID IN (SELECT UR.ROLE_ID FROM CB_USER_ROLE UR WHERE UR.USER_ID=?))")) {
                     dbStat.setString(1, objectType.getObjectType());
                     dbStat.setString(2, objectId);
+                    dbStat.setString(3, subjectId);
+                    dbStat.setString(4, subjectId);
 
                     var permissions = new HashSet<String>();
                     try (ResultSet dbResult = dbStat.executeQuery()) {
@@ -1711,16 +1941,16 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
 
     @Override
     public List<SMObjectPermissionsGrant> getSubjectObjectPermissionGrants(@NotNull String subjectId, @NotNull SMObjectType smObjectType) throws DBException {
-        var allLinkedSubjects = getAllLinkedSubjects(subjectId);
         var grantedPermissionsByObjectId = new HashMap<String, SMObjectPermissionsGrant.Builder>();
         try (Connection dbCon = database.openConnection()) {
-            var sqlBuilder = new StringBuilder("SELECT OP.OBJECT_ID,S.SUBJECT_TYPE,OP.PERMISSION\n")
-                .append("FROM CB_OBJECT_PERMISSIONS OP,CB_AUTH_SUBJECT S\n")
-                .append("WHERE S.SUBJECT_ID = OP.SUBJECT_ID AND OP.SUBJECT_ID IN (");
-            appendStringParameters(sqlBuilder, allLinkedSubjects.toArray(String[]::new));
-            sqlBuilder.append(") AND OP.OBJECT_TYPE=?");
-            try (PreparedStatement dbStat = dbCon.prepareStatement(sqlBuilder.toString())) {
+            try (PreparedStatement dbStat = dbCon.prepareStatement(
+                "SELECT OP.OBJECT_ID,S.SUBJECT_TYPE,OP.PERMISSION\n" +
+                    "FROM CB_OBJECT_PERMISSIONS OP,CB_AUTH_SUBJECT S\n" +
+                    "WHERE S.SUBJECT_ID = OP.SUBJECT_ID AND OP.OBJECT_TYPE=? AND " +
+                    "(OP.SUBJECT_ID=? OR OP.SUBJECT_ID IN (SELECT UR.ROLE_ID FROM CB_USER_ROLE UR WHERE UR.USER_ID=?))")) {
                 dbStat.setString(1, smObjectType.getObjectType());
+                dbStat.setString(2, subjectId);
+                dbStat.setString(3, subjectId);
                 try (ResultSet dbResult = dbStat.executeQuery()) {
                     while (dbResult.next()) {
                         String objectId = dbResult.getString(1);
@@ -1742,6 +1972,32 @@ public class CBEmbeddedSecurityController implements SMAdminController, SMAuthen
         }
     }
 
+    /**
+     * Invalidates permissions cache if security data was changed by another node
+     */
+    private void checkPermissionsCacheVersion() throws DBCException {
+        if (!application.isMultiNode() || !permissionsCache.isVersionCheckNeeded(SECURITY_VERSION_CHECK_PERIOD)) {
+            return;
+        }
+        try (Connection dbCon = database.openConnection()) {
+            permissionsCache.updateDatabaseVersion(
+                CommonUtils.toLong(JDBCUtils.executeQuery(dbCon, "SELECT VERSION FROM CB_SECURITY_VERSION")));
+        } catch (SQLException e) {
+            throw new DBCException("Error reading security data version", e);
+        }
+    }
+
+    /**
+     * Notifies other nodes about security data change. Must be called in the same transaction as the change.
+     */
+    private void increaseSecurityVersion(Connection dbCon) throws SQLException {
+        if (!application.isMultiNode()) {
+            return;
+        }
+        // Version row is created with the schema
+        JDBCUtils.executeUpdate(dbCon, "UPDATE CB_SECURITY_VERSION SET VERSION=VERSION+1,UPDATE_TIME=CURRENT_TIMESTAMP");
+    }
+
     private void appendStringParameters(StringBuilder sql, @NotNull String[] subjectIds) {
         for (int i = 0; i < subjectIds.length; i++) {
             String id = subjectIds[i];
@@ -21,8 +21,11 @@ import com.google.gson.GsonBuilder;
 import io.cloudbeaver.auth.provider.local.LocalAuthProviderConstants;
 import io.cloudbeaver.model.app.WebApplication;
 import io.cloudbeaver.model.session.WebAuthInfo;
+import io.cloudbeaver.service.security.internal.ExpiredDataReaper;
+import io.cloudbeaver.service.security.internal.SessionHeartbeatWriter;
 import io.cloudbeaver.utils.WebAppUtils;
 import org.apache.commons.dbcp2.*;
+import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.jkiss.code.NotNull;
@@ -57,6 +60,8 @@ import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Database management
@@ -68,22 +73,35 @@ public class CBDatabase {
     public static final String SCHEMA_UPDATE_SQL_PATH = "db/cb_schema_update_";
 
     private static final int LEGACY_SCHEMA_VERSION = 1;
-    private static final int CURRENT_SCHEMA_VERSION = 10;
+    private static final int CURRENT_SCHEMA_VERSION = 12;
 
     private static final String DEFAULT_DB_USER_NAME = "cb-data";
     private static final String DEFAULT_DB_PWD_FILE = ".database-credentials.dat";
 
+    // Upper bounds (in milliseconds) of connection borrow time histogram buckets. The last bucket is unbounded.
+    private static final long[] BORROW_TIME_BUCKETS = {1, 5, 10, 50, 100, 500, 1000};
+
     private final WebApplication application;
     private final CBDatabaseConfig databaseConfiguration;
     private PoolingDataSource<PoolableConnection> cbDataSource;
+    private GenericObjectPool<PoolableConnection> connectionPool;
+    private final AtomicLongArray borrowTimeHistogram = new AtomicLongArray(BORROW_TIME_BUCKETS.length + 1);
     private transient volatile Connection exclusiveConnection;
 
     private String instanceId;
     private SMAdminController adminSecurityController;
+    private final SessionHeartbeatWriter sessionHeartbeatWriter;
+    private final ExpiredDataReaper expiredDataReaper;
 
     public CBDatabase(WebApplication application, CBDatabaseConfig databaseConfiguration) {
         this.application = application;
         this.databaseConfiguration = databaseConfiguration;
+        this.sessionHeartbeatWriter = new SessionHeartbeatWriter(this, databaseConfiguration.getSessionHeartbeatInterval());
+        this.expiredDataReaper = new ExpiredDataReaper(
+            this,
+            TimeUnit.MINUTES.toMillis(databaseConfiguration.getExpiredDataPurgeInterval()),
+            TimeUnit.MINUTES.toMillis(databaseConfiguration.getSessionRetentionPeriod()),
+            TimeUnit.MINUTES.toMillis(databaseConfiguration.getAuthAttemptRetentionPeriod()));
     }
 
     public void setAdminSecurityController(SMAdminController adminSecurityController) {
@@ -98,7 +116,62 @@ public class CBDatabase {
         if (exclusiveConnection != null) {
             return exclusiveConnection;
         }
-        return cbDataSource.getConnection();
+        long startTime = System.nanoTime();
+        Connection connection = cbDataSource.getConnection();
+        long borrowTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        int bucket = 0;
+        while (bucket < BORROW_TIME_BUCKETS.length && borrowTime >= BORROW_TIME_BUCKETS[bucket]) {
+            bucket++;
+        }
+        borrowTimeHistogram.incrementAndGet(bucket);
+        return connection;
+    }
+
+    /**
+     * Returns connection pool metrics (for status page)
+     */
+    @NotNull
+    public Map<String, Object> getPoolMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        GenericObjectPool<PoolableConnection> pool = connectionPool;
+        if (pool == null) {
+            return metrics;
+        }
+        String prefix = "database.pool.";
+        metrics.put(prefix + "active", pool.getNumActive());
+        metrics.put(prefix + "idle", pool.getNumIdle());
+        metrics.put(prefix + "waiters", pool.getNumWaiters());
+        metrics.put(prefix + "maxTotal", pool.getMaxTotal());
+        metrics.put(prefix + "borrowed", pool.getBorrowedCount());
+        metrics.put(prefix + "created", pool.getCreatedCount());
+        metrics.put(prefix + "destroyed", pool.getDestroyedCount());
+        metrics.put(prefix + "validationFailures", pool.getDestroyedByBorrowValidationCount());
+        metrics.put(prefix + "waitTimeAvg", pool.getMeanBorrowWaitTimeMillis());
+        metrics.put(prefix + "waitTimeMax", pool.getMaxBorrowWaitTimeMillis());
+        for (int i = 0; i <= BORROW_TIME_BUCKETS.length; i++) {
+            String bucketName = i < BORROW_TIME_BUCKETS.length ?
+                "lt" + BORROW_TIME_BUCKETS[i] + "ms" : "ge" + BORROW_TIME_BUCKETS[i - 1] + "ms";
+            metrics.put(prefix + "borrowTime." + bucketName, borrowTimeHistogram.get(i));
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns expired data reaper metrics (for status page)
+     */
+    @NotNull
+    public Map<String, Object> getExpiredDataMetrics() {
+        return expiredDataReaper.getMetrics();
+    }
+
+    @NotNull
+    public SessionHeartbeatWriter getSessionHeartbeatWriter() {
+        return sessionHeartbeatWriter;
+    }
+
+    @NotNull
+    public ExpiredDataReaper getExpiredDataReaper() {
+        return expiredDataReaper;
     }
 
     public PoolingDataSource<PoolableConnection> getConnectionPool() {
@@ -159,14 +232,19 @@ public class CBDatabase {
         // Create connection pool with custom connection factory
         log.debug("\tInitiate connection pool with management database (" + driver.getFullName() + "; " + dbURL + ")");
         DriverConnectionFactory conFactory = new DriverConnectionFactory(driverInstance, dbURL, dbProperties);
-        PoolableConnectionFactory pcf = new PoolableConnectionFactory(conFactory, null);
-        pcf.setValidationQuery(databaseConfiguration.getPool().getValidationQuery());
+        CBDatabaseConfig.Pool poolConfig = databaseConfiguration.getPool();
+        PoolableConnectionFactory pcf = new IdleValidatingConnectionFactory(conFactory, poolConfig.getValidationIdleTime());
+        pcf.setValidationQuery(poolConfig.getValidationQuery());
+        pcf.setPoolStatements(poolConfig.isPoolPreparedStatements());
+        pcf.setMaxOpenPreparedStatements(poolConfig.getMaxOpenPreparedStatements());
 
         GenericObjectPoolConfig<PoolableConnection> config = new GenericObjectPoolConfig<>();
-        config.setMinIdle(databaseConfiguration.getPool().getMinIdleConnections());
-        config.setMaxIdle(databaseConfiguration.getPool().getMaxIdleConnections());
-        config.setMaxTotal(databaseConfiguration.getPool().getMaxConnections());
-        GenericObjectPool<PoolableConnection> connectionPool = new GenericObjectPool<>(pcf, config);
+        config.setMinIdle(poolConfig.getMinIdleConnections());
+        config.setMaxIdle(poolConfig.getMaxIdleConnections());
+        config.setMaxTotal(poolConfig.getMaxConnections());
+        config.setMaxWaitMillis(poolConfig.getMaxWaitTime());
+        config.setTestOnBorrow(true);
+        connectionPool = new GenericObjectPool<>(pcf, config);
         pcf.setPool(connectionPool);
         cbDataSource = new PoolingDataSource<>(connectionPool);
 
@@ -193,6 +271,7 @@ public class CBDatabase {
             throw new DBException("Error updating management database schema", e);
         }
         log.debug("\tManagement database connection established");
+        expiredDataReaper.start();
     }
 
     //TODO move out
@@ -280,6 +359,8 @@ public class CBDatabase {
     public void shutdown() {
         log.debug("Shutdown database");
         if (cbDataSource != null) {
+            expiredDataReaper.shutdown();
+            sessionHeartbeatWriter.shutdown();
             try {
                 cbDataSource.close();
             } catch (SQLException e) {
@@ -288,6 +369,27 @@ public class CBDatabase {
         }
     }
 
+    /**
+     * Validates only connections which were idle for a long time.
+     * Recently used connections are most likely alive, validation query on each borrow is a waste of round trip.
+     */
+    private static class IdleValidatingConnectionFactory extends PoolableConnectionFactory {
+        private final long validationIdleTime;
+
+        IdleValidatingConnectionFactory(ConnectionFactory connFactory, long validationIdleTime) {
+            super(connFactory, null);
+            this.validationIdleTime = validationIdleTime;
+        }
+
+        @Override
+        public boolean validateObject(PooledObject<PoolableConnection> p) {
+            if (System.currentTimeMillis() - p.getLastReturnTime() < validationIdleTime) {
+                return true;
+            }
+            return super.validateObject(p);
+        }
+    }
+
     private class CBSchemaVersionManager implements SQLSchemaVersionManager {
 
         @Override
@@ -28,6 +28,14 @@ public class CBDatabaseConfig {
     private boolean createDatabase = true;
     private boolean allowPublicAccess = true;
     private String initialDataConfiguration;
+    // Interval of session last access info writes (in milliseconds). If 0 then it is written on each request.
+    private long sessionHeartbeatInterval = 5000;
+    // Interval of expired sessions, tokens and auth attempts purge (in minutes). If 0 then expired data is not purged.
+    private long expiredDataPurgeInterval = 10;
+    // Sessions which were not accessed during this period (in minutes) are deleted
+    private long sessionRetentionPeriod = 30 * 24 * 60;
+    // Auth attempts are deleted after this period (in minutes)
+    private long authAttemptRetentionPeriod = 24 * 60;
 
     private final Pool pool = new Pool();
 
@@ -36,6 +44,13 @@ public class CBDatabaseConfig {
         private int maxIdleConnections = 10;
         private int maxConnections = 1000;
         private String validationQuery = "SELECT 1";
+        // Connections idle longer than this time (in milliseconds) are validated before use
+        private long validationIdleTime = 30000;
+        // Max time (in milliseconds) to wait for free connection. If negative then wait indefinitely.
+        private long maxWaitTime = 30000;
+        private boolean poolPreparedStatements = true;
+        // Max number of pooled prepared statements per connection
+        private int maxOpenPreparedStatements = 100;
 
         public int getMinIdleConnections() {
             return minIdleConnections;
@@ -52,6 +67,22 @@ public class CBDatabaseConfig {
         public String getValidationQuery() {
             return validationQuery;
         }
+
+        public long getValidationIdleTime() {
+            return validationIdleTime;
+        }
+
+        public long getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        public boolean isPoolPreparedStatements() {
+            return poolPreparedStatements;
+        }
+
+        public int getMaxOpenPreparedStatements() {
+            return maxOpenPreparedStatements;
+        }
     }
 
     public String getDriver() {
@@ -86,6 +117,22 @@ public class CBDatabaseConfig {
         return initialDataConfiguration;
     }
 
+    public long getSessionHeartbeatInterval() {
+        return sessionHeartbeatInterval;
+    }
+
+    public long getExpiredDataPurgeInterval() {
+        return expiredDataPurgeInterval;
+    }
+
+    public long getSessionRetentionPeriod() {
+        return sessionRetentionPeriod;
+    }
+
+    public long getAuthAttemptRetentionPeriod() {
+        return authAttemptRetentionPeriod;
+    }
+
     public Pool getPool() {
         return pool;
     }
@@ -0,0 +1,109 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.security.internal;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of access token info.
+ * <p>
+ * Entries are kept not longer than the specified period, so tokens removed by another node
+ * (or by expired data cleanup) are not accepted for long.
+ * Tokens removed by this node are evicted immediately.
+ */
+public class AuthTokenCache {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    private final long cachePeriod;
+    private long version;
+    private final Map<String, TokenInfo> tokens = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenInfo> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public AuthTokenCache(long cachePeriod) {
+        this.cachePeriod = cachePeriod;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    @Nullable
+    public synchronized TokenInfo getTokenInfo(@NotNull String token) {
+        TokenInfo info = tokens.get(token);
+        if (info != null && System.currentTimeMillis() - info.readTime > cachePeriod) {
+            tokens.remove(token);
+            return null;
+        }
+        return info;
+    }
+
+    public synchronized void putTokenInfo(@NotNull String token, @NotNull TokenInfo info, long readVersion) {
+        if (readVersion == version) {
+            tokens.put(token, info);
+        }
+    }
+
+    public synchronized void removeToken(@NotNull String token) {
+        version++;
+        tokens.remove(token);
+    }
+
+    public synchronized void removeSessionTokens(@NotNull String sessionId) {
+        version++;
+        tokens.values().removeIf(info -> sessionId.equals(info.sessionId));
+    }
+
+    public static class TokenInfo {
+        @Nullable
+        private final String userId;
+        @Nullable
+        private final String sessionId;
+        private final long expirationTime;
+        private final long readTime;
+
+        public TokenInfo(@Nullable String userId, @Nullable String sessionId, long expirationTime) {
+            this.userId = userId;
+            this.sessionId = sessionId;
+            this.expirationTime = expirationTime;
+            this.readTime = System.currentTimeMillis();
+        }
+
+        @Nullable
+        public String getUserId() {
+            return userId;
+        }
+
+        @Nullable
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public long getExpirationTime() {
+            return expirationTime;
+        }
+    }
+
+}
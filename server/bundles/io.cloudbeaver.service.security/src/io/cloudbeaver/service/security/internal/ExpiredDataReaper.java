@@ -0,0 +1,222 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.security.internal;
+
+import io.cloudbeaver.service.security.db.CBDatabase;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCTransaction;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically deletes expired rows of the management database:
+ * tokens with expired refresh token, old auth attempts and sessions which were not accessed during retention period
+ * (session deletion cascades to session state, log, tokens and auth attempts).
+ * <p>
+ * Rows are deleted in small transactions (by primary key), so the reaper never locks large parts of tables.
+ * The number of rows deleted in one run is limited, the rest is deleted by the next runs.
+ */
+public class ExpiredDataReaper {
+
+    private static final Log log = Log.getLog(ExpiredDataReaper.class);
+
+    private static final int DELETE_BATCH_SIZE = 500;
+    private static final int MAX_BATCHES_PER_RUN = 100;
+
+    private final CBDatabase database;
+    private final long runInterval;
+    private final long sessionRetentionPeriod;
+    private final long authAttemptRetentionPeriod;
+    private ScheduledExecutorService reaperExecutor;
+
+    private final AtomicLong purgedSessions = new AtomicLong();
+    private final AtomicLong purgedTokens = new AtomicLong();
+    private final AtomicLong purgedAuthAttempts = new AtomicLong();
+    private volatile long lastRunTime;
+    private volatile long lastRunDuration;
+
+    /**
+     * All periods are in milliseconds. If run interval is not positive then reaper is disabled.
+     */
+    public ExpiredDataReaper(
+        @NotNull CBDatabase database,
+        long runInterval,
+        long sessionRetentionPeriod,
+        long authAttemptRetentionPeriod
+    ) {
+        this.database = database;
+        this.runInterval = runInterval;
+        this.sessionRetentionPeriod = sessionRetentionPeriod;
+        this.authAttemptRetentionPeriod = authAttemptRetentionPeriod;
+    }
+
+    public synchronized void start() {
+        if (runInterval <= 0 || reaperExecutor != null) {
+            return;
+        }
+        reaperExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Expired data reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reaperExecutor.scheduleWithFixedDelay(this::purgeExpiredData, runInterval, runInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (reaperExecutor != null) {
+            reaperExecutor.shutdownNow();
+            reaperExecutor = null;
+        }
+    }
+
+    /**
+     * Deletes expired rows. Called by the reaper thread.
+     */
+    public void purgeExpiredData() {
+        long startTime = System.currentTimeMillis();
+        Timestamp currentTime = new Timestamp(startTime);
+        try {
+            long tokens = purgeRows(
+                "CB_AUTH_TOKEN", "TOKEN_ID",
+                "REFRESH_TOKEN_EXPIRATION_TIME<?",
+                currentTime);
+            long authAttempts = purgeRows(
+                "CB_AUTH_ATTEMPT", "AUTH_ID",
+                "CREATE_TIME<?",
+                new Timestamp(startTime - authAttemptRetentionPeriod));
+            // Sessions with alive refresh tokens still can be restored
+            long sessions = purgeRows(
+                "CB_SESSION", "SESSION_ID",
+                "LAST_ACCESS_TIME<? AND NOT EXISTS(SELECT 1 FROM CB_AUTH_TOKEN " +
+                    "WHERE CB_AUTH_TOKEN.SESSION_ID=CB_SESSION.SESSION_ID AND CB_AUTH_TOKEN.REFRESH_TOKEN_EXPIRATION_TIME>=?)",
+                new Timestamp(startTime - sessionRetentionPeriod), currentTime);
+            purgedTokens.addAndGet(tokens);
+            purgedAuthAttempts.addAndGet(authAttempts);
+            purgedSessions.addAndGet(sessions);
+            if (tokens + authAttempts + sessions > 0) {
+                log.debug("Purged expired data: " + sessions + " session(s), " + tokens + " token(s), " + authAttempts + " auth attempt(s)");
+            }
+        } catch (SQLException e) {
+            log.error("Error purging expired data from database", e);
+        } finally {
+            lastRunTime = startTime;
+            lastRunDuration = System.currentTimeMillis() - startTime;
+        }
+    }
+
+    private long purgeRows(
+        @NotNull String tableName,
+        @NotNull String keyColumn,
+        @NotNull String condition,
+        @NotNull Timestamp... parameters
+    ) throws SQLException {
+        String querySql = "SELECT " + keyColumn + " FROM " + tableName + " WHERE " + condition;
+        // Condition is checked again, row could be updated after it was read
+        String deleteSql = "DELETE FROM " + tableName + " WHERE " + keyColumn + "=? AND " + condition;
+        long purged = 0;
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            List<String> keys = new ArrayList<>();
+            try (Connection dbCon = database.openConnection()) {
+                try (PreparedStatement dbStat = dbCon.prepareStatement(querySql)) {
+                    dbStat.setMaxRows(DELETE_BATCH_SIZE);
+                    for (int p = 0; p < parameters.length; p++) {
+                        dbStat.setTimestamp(p + 1, parameters[p]);
+                    }
+                    try (ResultSet dbResult = dbStat.executeQuery()) {
+                        while (dbResult.next()) {
+                            keys.add(dbResult.getString(1));
+                        }
+                    }
+                }
+                if (keys.isEmpty()) {
+                    break;
+                }
+                try (JDBCTransaction txn = new JDBCTransaction(dbCon)) {
+                    try (PreparedStatement dbStat = dbCon.prepareStatement(deleteSql)) {
+                        for (String key : keys) {
+                            dbStat.setString(1, key);
+                            for (int p = 0; p < parameters.length; p++) {
+                                dbStat.setTimestamp(p + 2, parameters[p]);
+                            }
+                            dbStat.addBatch();
+                        }
+                        for (int count : dbStat.executeBatch()) {
+                            if (count > 0) {
+                                purged += count;
+                            } else if (count == Statement.SUCCESS_NO_INFO) {
+                                purged++;
+                            }
+                        }
+                    }
+                    txn.commit();
+                }
+            }
+            if (keys.size() < DELETE_BATCH_SIZE) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Total number of sessions purged since server start
+     */
+    public long getPurgedSessions() {
+        return purgedSessions.get();
+    }
+
+    public long getPurgedTokens() {
+        return purgedTokens.get();
+    }
+
+    public long getPurgedAuthAttempts() {
+        return purgedAuthAttempts.get();
+    }
+
+    public long getLastRunTime() {
+        return lastRunTime;
+    }
+
+    public long getLastRunDuration() {
+        return lastRunDuration;
+    }
+
+    /**
+     * Returns reaper metrics (for status page)
+     */
+    @NotNull
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        String prefix = "database.reaper.";
+        metrics.put(prefix + "purgedSessions", getPurgedSessions());
+        metrics.put(prefix + "purgedTokens", getPurgedTokens());
+        metrics.put(prefix + "purgedAuthAttempts", getPurgedAuthAttempts());
+        metrics.put(prefix + "lastRunTime", lastRunTime);
+        metrics.put(prefix + "lastRunDuration", lastRunDuration);
+        return metrics;
+    }
+
+}
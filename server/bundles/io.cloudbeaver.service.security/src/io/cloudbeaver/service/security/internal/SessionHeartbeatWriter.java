@@ -0,0 +1,250 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.security.internal;
+
+import io.cloudbeaver.service.security.db.CBDatabase;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.security.SMConstants;
+import org.jkiss.utils.CommonUtils;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind writer of session last access info.
+ * <p>
+ * Session access updates are kept in memory (only the last update of each session) and written to the database
+ * in a single JDBC batch once per flush interval.
+ * The first update of session on this node and changes of session user are written immediately,
+ * so other cluster nodes always see the actual session user. Only last access info may lag behind.
+ * Batch updates don't change session user and are applied only if session still has the user they were queued with,
+ * so a batch which is written after a user change can't restore the previous user.
+ */
+public class SessionHeartbeatWriter {
+
+    private static final Log log = Log.getLog(SessionHeartbeatWriter.class);
+
+    private static final int MAX_KNOWN_SESSIONS = 10000;
+
+    private static final String SQL_UPDATE_SESSION =
+        "UPDATE CB_SESSION SET USER_ID=?,LAST_ACCESS_TIME=?,LAST_ACCESS_REMOTE_ADDRESS=?,LAST_ACCESS_USER_AGENT=?,LAST_ACCESS_INSTANCE_ID=? " +
+            "WHERE SESSION_ID=?";
+    private static final String SQL_UPDATE_SESSION_ACCESS =
+        "UPDATE CB_SESSION SET LAST_ACCESS_TIME=?,LAST_ACCESS_REMOTE_ADDRESS=?,LAST_ACCESS_USER_AGENT=?,LAST_ACCESS_INSTANCE_ID=? " +
+            "WHERE SESSION_ID=? AND USER_ID=?";
+    private static final String SQL_UPDATE_ANONYMOUS_SESSION_ACCESS =
+        "UPDATE CB_SESSION SET LAST_ACCESS_TIME=?,LAST_ACCESS_REMOTE_ADDRESS=?,LAST_ACCESS_USER_AGENT=?,LAST_ACCESS_INSTANCE_ID=? " +
+            "WHERE SESSION_ID=? AND USER_ID IS NULL";
+
+    private static final int SESSION_WRITE_LOCKS = 64;
+
+    private final CBDatabase database;
+    private final long flushInterval;
+    private ScheduledExecutorService flushExecutor;
+    // Immediate writes of the same session are serialized, so the last registered session user is written last
+    private final Object[] sessionWriteLocks = new Object[SESSION_WRITE_LOCKS];
+
+    // Guarded by itself
+    private final Map<String, SessionAccess> pendingUpdates = new LinkedHashMap<>();
+    // Users of sessions which were written to the database. Access-ordered, guarded by pendingUpdates.
+    private final Map<String, String> writtenSessionUsers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_KNOWN_SESSIONS;
+        }
+    };
+
+    /**
+     * @param flushInterval flush interval in milliseconds. If not positive then updates are written immediately.
+     */
+    public SessionHeartbeatWriter(@NotNull CBDatabase database, long flushInterval) {
+        this.database = database;
+        this.flushInterval = flushInterval;
+        for (int i = 0; i < sessionWriteLocks.length; i++) {
+            sessionWriteLocks[i] = new Object();
+        }
+    }
+
+    public void updateSession(@NotNull String sessionId, @Nullable String userId, @NotNull Map<String, Object> parameters) throws DBCException {
+        SessionAccess access = new SessionAccess(sessionId, userId, parameters);
+        if (flushInterval > 0) {
+            synchronized (pendingUpdates) {
+                if (writtenSessionUsers.containsKey(sessionId) && Objects.equals(writtenSessionUsers.get(sessionId), userId)) {
+                    pendingUpdates.put(sessionId, access);
+                    startFlushing();
+                    return;
+                }
+            }
+        }
+        synchronized (sessionWriteLocks[(sessionId.hashCode() & 0x7fffffff) % sessionWriteLocks.length]) {
+            synchronized (pendingUpdates) {
+                // Pending update may have the previous user.
+                // Session user is registered before the write, so concurrent updates with the previous user are not queued.
+                pendingUpdates.remove(sessionId);
+                writtenSessionUsers.put(sessionId, userId);
+            }
+            try (Connection dbCon = database.openConnection();
+                 PreparedStatement dbStat = dbCon.prepareStatement(SQL_UPDATE_SESSION))
+            {
+                access.bindParameters(dbStat, database.getInstanceId());
+                if (dbStat.executeUpdate() <= 0) {
+                    throw new DBCException("Session not exists in database");
+                }
+            } catch (SQLException | DBCException e) {
+                synchronized (pendingUpdates) {
+                    writtenSessionUsers.remove(sessionId);
+                }
+                if (e instanceof DBCException) {
+                    throw (DBCException) e;
+                }
+                throw new DBCException("Error updating session in database", e);
+            }
+        }
+    }
+
+    /**
+     * Writes all pending updates in one batch
+     */
+    public void flush() {
+        List<SessionAccess> updates;
+        synchronized (pendingUpdates) {
+            if (pendingUpdates.isEmpty()) {
+                return;
+            }
+            updates = new ArrayList<>();
+            for (SessionAccess access : pendingUpdates.values()) {
+                // Skip updates with outdated session user
+                if (writtenSessionUsers.containsKey(access.sessionId) &&
+                    Objects.equals(writtenSessionUsers.get(access.sessionId), access.userId)) {
+                    updates.add(access);
+                }
+            }
+            pendingUpdates.clear();
+            if (updates.isEmpty()) {
+                return;
+            }
+        }
+        try (Connection dbCon = database.openConnection();
+             PreparedStatement dbStat = dbCon.prepareStatement(SQL_UPDATE_SESSION_ACCESS);
+             PreparedStatement dbStatAnonymous = dbCon.prepareStatement(SQL_UPDATE_ANONYMOUS_SESSION_ACCESS))
+        {
+            String instanceId = database.getInstanceId();
+            boolean hasUserUpdates = false, hasAnonymousUpdates = false;
+            for (SessionAccess access : updates) {
+                if (access.userId == null) {
+                    access.bindAccessParameters(dbStatAnonymous, instanceId);
+                    dbStatAnonymous.addBatch();
+                    hasAnonymousUpdates = true;
+                } else {
+                    int index = access.bindAccessParameters(dbStat, instanceId);
+                    dbStat.setString(index, access.userId);
+                    dbStat.addBatch();
+                    hasUserUpdates = true;
+                }
+            }
+            if (hasUserUpdates) {
+                dbStat.executeBatch();
+            }
+            if (hasAnonymousUpdates) {
+                dbStatAnonymous.executeBatch();
+            }
+        } catch (SQLException e) {
+            log.error("Error updating sessions in database", e);
+        }
+    }
+
+    /**
+     * Stops flushing and writes pending updates
+     */
+    public void shutdown() {
+        synchronized (pendingUpdates) {
+            if (flushExecutor != null) {
+                flushExecutor.shutdown();
+                flushExecutor = null;
+            }
+        }
+        flush();
+    }
+
+    private void startFlushing() {
+        if (flushExecutor == null) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Session heartbeat writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static class SessionAccess {
+        private final String sessionId;
+        private final String userId;
+        private final long accessTime = System.currentTimeMillis();
+        private final Object remoteAddress;
+        private final Object userAgent;
+
+        SessionAccess(String sessionId, String userId, Map<String, Object> parameters) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.remoteAddress = parameters.get(SMConstants.SESSION_PARAM_LAST_REMOTE_ADDRESS);
+            this.userAgent = parameters.get(SMConstants.SESSION_PARAM_LAST_REMOTE_USER_AGENT);
+        }
+
+        void bindParameters(PreparedStatement dbStat, String instanceId) throws SQLException {
+            if (userId == null) {
+                dbStat.setNull(1, Types.VARCHAR);
+            } else {
+                dbStat.setString(1, userId);
+            }
+            int index = bindLastAccess(dbStat, instanceId, 2);
+            dbStat.setString(index, sessionId);
+        }
+
+        /**
+         * Binds last access parameters and session ID of access update. Returns index of the next parameter.
+         */
+        int bindAccessParameters(PreparedStatement dbStat, String instanceId) throws SQLException {
+            int index = bindLastAccess(dbStat, instanceId, 1);
+            dbStat.setString(index, sessionId);
+            return index + 1;
+        }
+
+        private int bindLastAccess(PreparedStatement dbStat, String instanceId, int index) throws SQLException {
+            dbStat.setTimestamp(index++, new Timestamp(accessTime));
+            if (remoteAddress != null) {
+                dbStat.setString(index++, CommonUtils.truncateString(remoteAddress.toString(), 128));
+            } else {
+                dbStat.setNull(index++, Types.VARCHAR);
+            }
+            if (userAgent != null) {
+                dbStat.setString(index++, CommonUtils.truncateString(userAgent.toString(), 255));
+            } else {
+                dbStat.setNull(index++, Types.VARCHAR);
+            }
+            dbStat.setString(index++, instanceId);
+            return index;
+        }
+    }
+
+}
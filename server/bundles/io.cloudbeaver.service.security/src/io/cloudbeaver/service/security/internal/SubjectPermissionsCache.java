@@ -0,0 +1,151 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.cloudbeaver.service.security.internal;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.security.user.SMObjectPermissions;
+import org.jkiss.dbeaver.model.security.user.SMRole;
+
+import java.util.*;
+
+/**
+ * Cache of subject roles, permissions and object grants.
+ * <p>
+ * Cache is versioned: any change of security data increases the version and clears the cache.
+ * Values read from the database are put in cache only if the version wasn't changed while they were read,
+ * so concurrent reads can't put stale data in the cache.
+ * Cached values are copied on read, callers may modify them.
+ */
+public class SubjectPermissionsCache {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    private long version;
+    // Version of security data in the management database (used in multi-node mode)
+    private long databaseVersion = -1;
+    private long lastVersionCheckTime;
+
+    private final Map<String, SMRole[]> userRoles = new LRUMap<>();
+    private final Map<String, Set<String>> userPermissions = new LRUMap<>();
+    private final Map<String, Set<String>> subjectPermissions = new LRUMap<>();
+    private final Map<String, List<SMObjectPermissions>> objectPermissions = new LRUMap<>();
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        userRoles.clear();
+        userPermissions.clear();
+        subjectPermissions.clear();
+        objectPermissions.clear();
+    }
+
+    /**
+     * Returns true if database version should be checked.
+     * Version is checked not more often than once in the specified period.
+     */
+    public synchronized boolean isVersionCheckNeeded(long checkPeriod) {
+        return System.currentTimeMillis() - lastVersionCheckTime >= checkPeriod;
+    }
+
+    /**
+     * Invalidates cache if security data was changed in the database (e.g. by another node)
+     */
+    public synchronized void updateDatabaseVersion(long newDatabaseVersion) {
+        lastVersionCheckTime = System.currentTimeMillis();
+        if (newDatabaseVersion != databaseVersion) {
+            if (databaseVersion != -1) {
+                invalidate();
+            }
+            databaseVersion = newDatabaseVersion;
+        }
+    }
+
+    @Nullable
+    public synchronized SMRole[] getUserRoles(@NotNull String userId) {
+        SMRole[] roles = userRoles.get(userId);
+        return roles == null ? null : roles.clone();
+    }
+
+    public synchronized void putUserRoles(@NotNull String userId, @NotNull SMRole[] roles, long readVersion) {
+        if (readVersion == version) {
+            userRoles.put(userId, roles.clone());
+        }
+    }
+
+    @Nullable
+    public synchronized Set<String> getUserPermissions(@NotNull String userId) {
+        return copySet(userPermissions.get(userId));
+    }
+
+    public synchronized void putUserPermissions(@NotNull String userId, @NotNull Set<String> permissions, long readVersion) {
+        if (readVersion == version) {
+            userPermissions.put(userId, new HashSet<>(permissions));
+        }
+    }
+
+    @Nullable
+    public synchronized Set<String> getSubjectPermissions(@NotNull String subjectId) {
+        return copySet(subjectPermissions.get(subjectId));
+    }
+
+    public synchronized void putSubjectPermissions(@NotNull String subjectId, @NotNull Set<String> permissions, long readVersion) {
+        if (readVersion == version) {
+            subjectPermissions.put(subjectId, new HashSet<>(permissions));
+        }
+    }
+
+    @Nullable
+    public synchronized List<SMObjectPermissions> getObjectPermissions(@NotNull String subjectId, @NotNull String objectType) {
+        List<SMObjectPermissions> permissions = objectPermissions.get(makeObjectKey(subjectId, objectType));
+        return permissions == null ? null : new ArrayList<>(permissions);
+    }
+
+    public synchronized void putObjectPermissions(
+        @NotNull String subjectId,
+        @NotNull String objectType,
+        @NotNull List<SMObjectPermissions> permissions,
+        long readVersion
+    ) {
+        if (readVersion == version) {
+            objectPermissions.put(makeObjectKey(subjectId, objectType), new ArrayList<>(permissions));
+        }
+    }
+
+    private static String makeObjectKey(String subjectId, String objectType) {
+        return objectType + ":" + subjectId;
+    }
+
+    private static Set<String> copySet(Set<String> set) {
+        return set == null ? null : new HashSet<>(set);
+    }
+
+    private static class LRUMap<V> extends LinkedHashMap<String, V> {
+        LRUMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    }
+
+}
@@ -29,7 +29,21 @@ import java.net.http.HttpClient;
 import java.nio.file.Path;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({PlatformTest.class, AuthenticationTest.class, ResourceManagerTest.class })
+@Suite.SuiteClasses({
+    PlatformTest.class,
+    AuthenticationTest.class,
+    ResourceManagerTest.class,
+    WebSQLUtilsTest.class,
+    SecurityBulkGrantTest.class,
+    WebSessionMessageLogTest.class,
+    WebAsyncTaskSchedulerTest.class,
+    WebServiceFileSenderTest.class,
+    WebSQLResultsBufferTest.class,
+    WebSQLResultsCacheTest.class,
+    LocalResourceIndexTest.class,
+    WebSessionManagerTest.class,
+    SQLQueryFetchTest.class
+})
 public class CEServerTestSuite {
 
     public static final String GQL_API_URL = "http://localhost:18978/api/gql";
@@ -0,0 +1,126 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.model.rm.local.LocalResourceIndex;
+import org.junit.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class LocalResourceIndexTest {
+
+    private static final long WATCH_TIMEOUT = 30000;
+
+    private Path rootFolder;
+
+    @Before
+    public void createFolder() throws IOException {
+        rootFolder = Files.createTempDirectory("cb-resource-index");
+        Files.writeString(rootFolder.resolve("script1.sql"), "select 1");
+        Files.writeString(rootFolder.resolve(".hidden"), "hidden");
+        Path subFolder = Files.createDirectory(rootFolder.resolve("folder"));
+        Files.writeString(subFolder.resolve("script2.sql"), "select 2");
+    }
+
+    @After
+    public void deleteFolder() throws IOException {
+        LocalResourceIndex.getInstance().invalidate(rootFolder);
+        try (Stream<Path> files = Files.walk(rootFolder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void folderIsIndexed() throws Exception {
+        LocalResourceIndex index = LocalResourceIndex.getInstance();
+
+        List<LocalResourceIndex.ResourceStat> children = index.getChildren(rootFolder, true);
+
+        Assert.assertEquals(Set.of("script1.sql", "folder"), getNames(children));
+        Assert.assertTrue(findStat(children, "folder").isFolder());
+        Assert.assertEquals(8, findStat(children, "script1.sql").getSize());
+        // Listings are served from index, the subtree was read in the same walk.
+        // Read it once more: listing isn't cached if it was read concurrently with some watch event.
+        children = index.getChildren(rootFolder, true);
+        Assert.assertSame(children, index.getChildren(rootFolder, true));
+        Assert.assertEquals(Set.of("script2.sql"), getNames(index.getChildren(rootFolder.resolve("folder"), false)));
+    }
+
+    @Test
+    public void changedResourceInvalidatesParentListing() throws Exception {
+        LocalResourceIndex index = LocalResourceIndex.getInstance();
+        index.getChildren(rootFolder, true);
+
+        Path newScript = Files.writeString(rootFolder.resolve("script3.sql"), "select 3");
+        index.invalidate(newScript);
+        Assert.assertEquals(Set.of("script1.sql", "script3.sql", "folder"), getNames(index.getChildren(rootFolder, false)));
+
+        Files.delete(newScript);
+        index.invalidate(newScript);
+        Assert.assertEquals(Set.of("script1.sql", "folder"), getNames(index.getChildren(rootFolder, false)));
+    }
+
+    @Test
+    public void changedFolderInvalidatesSubtree() throws Exception {
+        LocalResourceIndex index = LocalResourceIndex.getInstance();
+        index.getChildren(rootFolder, true);
+        Path subFolder = rootFolder.resolve("folder");
+        Path nestedFolder = Files.createDirectory(subFolder.resolve("nested"));
+        index.invalidate(nestedFolder);
+        Assert.assertEquals(Set.of("script2.sql", "nested"), getNames(index.getChildren(subFolder, false)));
+
+        Files.writeString(nestedFolder.resolve("script4.sql"), "select 4");
+        Files.delete(subFolder.resolve("script2.sql"));
+        // Folder rename or delete invalidates the whole subtree
+        index.invalidate(subFolder);
+        Assert.assertEquals(Set.of("nested"), getNames(index.getChildren(subFolder, false)));
+        Assert.assertEquals(Set.of("script4.sql"), getNames(index.getChildren(nestedFolder, false)));
+    }
+
+    @Test
+    public void externalChangeInvalidatesListing() throws Exception {
+        LocalResourceIndex index = LocalResourceIndex.getInstance();
+        List<LocalResourceIndex.ResourceStat> children = index.getChildren(rootFolder, true);
+
+        // File is created without notification, index gets it from file system watcher
+        Files.writeString(rootFolder.resolve("external.sql"), "select 5");
+        long startTime = System.currentTimeMillis();
+        while (children.stream().noneMatch(stat -> stat.getName().equals("external.sql"))) {
+            Assert.assertTrue("Listing was not invalidated", System.currentTimeMillis() - startTime < WATCH_TIMEOUT);
+            Thread.sleep(100);
+            children = index.getChildren(rootFolder, false);
+        }
+    }
+
+    private static Set<String> getNames(List<LocalResourceIndex.ResourceStat> children) {
+        return children.stream().map(LocalResourceIndex.ResourceStat::getName).collect(Collectors.toSet());
+    }
+
+    private static LocalResourceIndex.ResourceStat findStat(List<LocalResourceIndex.ResourceStat> children, String name) {
+        return children.stream().filter(stat -> stat.getName().equals(name)).findFirst().orElseThrow();
+    }
+}
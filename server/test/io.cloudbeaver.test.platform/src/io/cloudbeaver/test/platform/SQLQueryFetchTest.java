@@ -0,0 +1,155 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.utils.WebTestUtils;
+import org.jkiss.dbeaver.model.auth.SMAuthStatus;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
+import org.jkiss.utils.CommonUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.CookieManager;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+
+public class SQLQueryFetchTest {
+
+    public static final String GQL_TEMPLATE_CREATE_H2_CONNECTION = "createH2Connection.json";
+    public static final String GQL_TEMPLATE_DELETE_CONNECTION = "deleteConnection.json";
+    public static final String GQL_TEMPLATE_INIT_CONNECTION = "initConnection.json";
+    public static final String GQL_TEMPLATE_SQL_CONTEXT_CREATE = "sqlContextCreate.json";
+    public static final String GQL_TEMPLATE_SQL_CONTEXT_DESTROY = "sqlContextDestroy.json";
+    public static final String GQL_TEMPLATE_SQL_EXECUTE_QUERY = "asyncSqlExecuteQuery.json";
+    public static final String GQL_TEMPLATE_TASK_INFO = "asyncTaskInfo.json";
+    public static final String GQL_TEMPLATE_SQL_EXECUTE_RESULTS = "asyncSqlExecuteResults.json";
+    public static final String GQL_TEMPLATE_SQL_RESULT_CLOSE = "sqlResultClose.json";
+
+    private static final int ROW_COUNT = 5000;
+    private static final String QUERY = "SELECT X, 'row ' || X AS NAME FROM SYSTEM_RANGE(1, " + ROW_COUNT + ")";
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final long TASK_TIMEOUT = 60000;
+
+    /**
+     * Fetches result set through the web API, checks fetched rows and reports fetch time
+     */
+    @Test
+    public void fetchResultSetBenchmark() throws Exception {
+        // Separate client, so the session of other tests is not affected
+        HttpClient client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .version(HttpClient.Version.HTTP_2)
+            .build();
+        Map<String, Object> authInfo = WebTestUtils.authenticateUser(
+            client, CEServerTestSuite.getScriptsPath(), CEServerTestSuite.GQL_API_URL);
+        Assert.assertEquals(SMAuthStatus.SUCCESS.name(), JSONUtils.getString(authInfo, "authStatus"));
+
+        String connectionId = JSONUtils.getString(JSONUtils.getObject(
+            doPostQuery(client, GQL_TEMPLATE_CREATE_H2_CONNECTION, Map.of()), "createConnection"), "id");
+        Assert.assertNotNull(connectionId);
+        try {
+            Map<String, Object> connectionInfo = JSONUtils.getObject(
+                doPostQuery(client, GQL_TEMPLATE_INIT_CONNECTION, Map.of("connectionId", connectionId)), "initConnection");
+            Assert.assertTrue(JSONUtils.getBoolean(connectionInfo, "connected"));
+            String contextId = JSONUtils.getString(JSONUtils.getObject(
+                doPostQuery(client, GQL_TEMPLATE_SQL_CONTEXT_CREATE, Map.of("connectionId", connectionId)), "context"), "id");
+            Assert.assertNotNull(contextId);
+
+            long totalTime = 0;
+            for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+                long startTime = System.nanoTime();
+                List<List<Object>> rows = executeQuery(client, connectionId, contextId);
+                if (i >= WARMUP_ITERATIONS) {
+                    totalTime += System.nanoTime() - startTime;
+                }
+                assertRows(rows);
+            }
+            long avgTime = totalTime / MEASURED_ITERATIONS;
+            System.out.println("Result set fetch: " + avgTime / 1000000 + " ms/op, " +
+                ROW_COUNT * 1000000000L / Math.max(avgTime, 1) + " rows/s");
+
+            doPostQuery(client, GQL_TEMPLATE_SQL_CONTEXT_DESTROY, Map.of("connectionId", connectionId, "contextId", contextId));
+        } finally {
+            doPostQuery(client, GQL_TEMPLATE_DELETE_CONNECTION, Map.of("connectionId", connectionId));
+        }
+    }
+
+    private List<List<Object>> executeQuery(HttpClient client, String connectionId, String contextId) throws Exception {
+        Map<String, Object> taskInfo = JSONUtils.getObject(
+            doPostQuery(client, GQL_TEMPLATE_SQL_EXECUTE_QUERY, Map.of(
+                "connectionId", connectionId,
+                "contextId", contextId,
+                "query", QUERY,
+                "limit", String.valueOf(ROW_COUNT))),
+            "taskInfo");
+        String taskId = JSONUtils.getString(taskInfo, "id");
+        long startTime = System.currentTimeMillis();
+        while (true) {
+            taskInfo = JSONUtils.getObject(
+                doPostQuery(client, GQL_TEMPLATE_TASK_INFO, Map.of("taskId", taskId)), "taskInfo");
+            Assert.assertNull(taskInfo.get("error"));
+            if (!JSONUtils.getBoolean(taskInfo, "running")) {
+                break;
+            }
+            Assert.assertTrue("Query was not executed", System.currentTimeMillis() - startTime < TASK_TIMEOUT);
+            Thread.sleep(10);
+        }
+
+        Map<String, Object> executeInfo = JSONUtils.getObject(
+            doPostQuery(client, GQL_TEMPLATE_SQL_EXECUTE_RESULTS, Map.of("taskId", taskId)), "result");
+        List<Map<String, Object>> results = JSONUtils.getObjectList(executeInfo, "results");
+        Assert.assertEquals(1, results.size());
+        Map<String, Object> resultSet = JSONUtils.getObject(results.get(0), "resultSet");
+        @SuppressWarnings("unchecked")
+        List<List<Object>> rows = (List<List<Object>>) resultSet.get("rows");
+
+        doPostQuery(client, GQL_TEMPLATE_SQL_RESULT_CLOSE, Map.of(
+            "connectionId", connectionId,
+            "contextId", contextId,
+            "resultId", JSONUtils.getString(resultSet, "id")));
+        return rows;
+    }
+
+    private static void assertRows(List<List<Object>> rows) {
+        Assert.assertNotNull(rows);
+        Assert.assertEquals(ROW_COUNT, rows.size());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            List<Object> row = rows.get(i);
+            Assert.assertEquals(i + 1, CommonUtils.toLong(row.get(0)));
+            Assert.assertEquals("row " + (i + 1), row.get(1));
+        }
+    }
+
+    private static Map<String, Object> doPostQuery(
+        HttpClient client,
+        String gqlScript,
+        Map<String, String> variables
+    ) throws Exception {
+        String input = WebTestUtils.readScriptTemplate(gqlScript, CEServerTestSuite.getScriptsPath());
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            input = input.replace("${" + variable.getKey() + "}", variable.getValue());
+        }
+        Map<String, Object> map = WebTestUtils.doPost(CEServerTestSuite.GQL_API_URL, input, client);
+        Assert.assertNull(String.valueOf(map.get("errors")), map.get("errors"));
+        Map<String, Object> data = JSONUtils.getObjectOrNull(map, "data");
+        Assert.assertNotNull(data);
+        return data;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.server.CBApplication;
+import io.cloudbeaver.service.security.SMBulkAdminController;
+import org.jkiss.dbeaver.model.security.SMAdminController;
+import org.jkiss.dbeaver.model.security.SMObjects;
+import org.jkiss.dbeaver.model.security.SMObjectPermissionsGrant;
+import org.jkiss.dbeaver.model.security.user.SMObjectPermissions;
+import org.jkiss.dbeaver.model.security.user.SMRole;
+import org.jkiss.dbeaver.model.security.user.SMUser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class SecurityBulkGrantTest {
+
+    private static final String GRANTOR = "test";
+
+    @Test
+    public void createUserWithMetaTest() throws Exception {
+        SMAdminController adminController = CBApplication.getInstance().getSecurityController();
+        String userId = "bulkMetaUser";
+        Map<String, String> meta = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            meta.put("meta" + i, "value" + i);
+        }
+        adminController.createUser(userId, meta, true);
+        try {
+            SMUser user = adminController.getUserById(userId);
+            Assert.assertNotNull(user);
+            Assert.assertEquals(meta, new HashMap<>(user.getMetaParameters()));
+        } finally {
+            adminController.deleteUser(userId);
+        }
+    }
+
+    @Test
+    public void setUsersRolesTest() throws Exception {
+        SMAdminController adminController = CBApplication.getInstance().getSecurityController();
+        SMBulkAdminController bulkController = getBulkController();
+        String[] userIds = {"bulkRolesUser1", "bulkRolesUser2", "bulkRolesUser3"};
+        for (String userId : userIds) {
+            adminController.createUser(userId, Collections.emptyMap(), true);
+        }
+        try {
+            Map<String, String[]> userRoles = new LinkedHashMap<>();
+            userRoles.put(userIds[0], new String[] {"user"});
+            userRoles.put(userIds[1], new String[] {"user", "admin"});
+            userRoles.put(userIds[2], new String[0]);
+            bulkController.setUsersRoles(userRoles, GRANTOR);
+            Assert.assertEquals(Set.of("user"), getRoleIds(adminController, userIds[0]));
+            Assert.assertEquals(Set.of("user", "admin"), getRoleIds(adminController, userIds[1]));
+            Assert.assertEquals(Set.of(), getRoleIds(adminController, userIds[2]));
+
+            // Roles are replaced, not added
+            userRoles.clear();
+            userRoles.put(userIds[0], new String[] {"admin"});
+            userRoles.put(userIds[1], new String[0]);
+            bulkController.setUsersRoles(userRoles, GRANTOR);
+            Assert.assertEquals(Set.of("admin"), getRoleIds(adminController, userIds[0]));
+            Assert.assertEquals(Set.of(), getRoleIds(adminController, userIds[1]));
+        } finally {
+            for (String userId : userIds) {
+                adminController.deleteUser(userId);
+            }
+        }
+    }
+
+    @Test
+    public void setSubjectObjectPermissionsTest() throws Exception {
+        SMAdminController adminController = CBApplication.getInstance().getSecurityController();
+        SMBulkAdminController bulkController = getBulkController();
+        String userId = "bulkGrantUser";
+        adminController.createUser(userId, Collections.emptyMap(), true);
+        try {
+            Map<String, Set<String>> objectPermissions = new LinkedHashMap<>();
+            for (int i = 0; i < 5; i++) {
+                objectPermissions.put("bulk-connection-" + i, Set.of("connect"));
+            }
+            bulkController.setSubjectObjectPermissions(userId, SMObjects.DATASOURCE, objectPermissions, GRANTOR);
+            Assert.assertEquals(objectPermissions.keySet(), getGrantedObjectIds(adminController, userId));
+
+            // The whole grant set is replaced
+            objectPermissions.clear();
+            objectPermissions.put("bulk-connection-0", Set.of("connect"));
+            objectPermissions.put("bulk-connection-new", Set.of("connect"));
+            bulkController.setSubjectObjectPermissions(userId, SMObjects.DATASOURCE, objectPermissions, GRANTOR);
+            Assert.assertEquals(objectPermissions.keySet(), getGrantedObjectIds(adminController, userId));
+
+            // Revoke all
+            bulkController.setSubjectObjectPermissions(userId, SMObjects.DATASOURCE, Collections.emptyMap(), GRANTOR);
+            Assert.assertEquals(Set.of(), getGrantedObjectIds(adminController, userId));
+        } finally {
+            adminController.deleteUser(userId);
+        }
+    }
+
+    private static SMBulkAdminController getBulkController() {
+        SMAdminController adminController = CBApplication.getInstance().getSecurityController();
+        Assert.assertTrue(adminController instanceof SMBulkAdminController);
+        return (SMBulkAdminController) adminController;
+    }
+
+    private static Set<String> getRoleIds(SMAdminController adminController, String userId) throws Exception {
+        return Arrays.stream(adminController.getUserRoles(userId))
+            .map(SMRole::getRoleId)
+            .collect(Collectors.toSet());
+    }
+
+    private static Set<String> getGrantedObjectIds(SMAdminController adminController, String userId) throws Exception {
+        return adminController.getSubjectObjectPermissionGrants(userId, SMObjects.DATASOURCE).stream()
+            .map(SMObjectPermissionsGrant::getObjectPermissions)
+            .map(SMObjectPermissions::getObjectId)
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.model.WebAsyncTaskInfo;
+import io.cloudbeaver.model.session.WebAsyncTaskScheduler;
+import io.cloudbeaver.model.session.WebAsyncTaskType;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WebAsyncTaskSchedulerTest {
+
+    private static final WebAsyncTaskType TASK_TYPE = WebAsyncTaskType.EXPLAIN;
+
+    @Test
+    public void ownersAreServedInTurn() {
+        WebAsyncTaskScheduler scheduler = WebAsyncTaskScheduler.getInstance();
+        WebAsyncTaskInfo blocker = makeTask("blocker");
+        WebAsyncTaskInfo a2 = makeTask("a2");
+        WebAsyncTaskInfo a3 = makeTask("a3");
+        WebAsyncTaskInfo b1 = makeTask("b1");
+        WebAsyncTaskInfo c1 = makeTask("c1");
+
+        scheduler.submitTask(TASK_TYPE, "ownerA", blocker, 1);
+        scheduler.submitTask(TASK_TYPE, "ownerA", a2, 1);
+        scheduler.submitTask(TASK_TYPE, "ownerA", a3, 1);
+        scheduler.submitTask(TASK_TYPE, "ownerB", b1, 1);
+        scheduler.submitTask(TASK_TYPE, "ownerC", c1, 1);
+        try {
+            Assert.assertEquals(0, scheduler.getQueuePosition(blocker));
+            // Owner A already runs a task, but its next task is still the first one in the round
+            assertQueuePositions(scheduler, new WebAsyncTaskInfo[] {a2, b1, c1, a3});
+
+            scheduler.taskFinished(TASK_TYPE, blocker);
+            Assert.assertEquals(0, scheduler.getQueuePosition(a2));
+            assertQueuePositions(scheduler, new WebAsyncTaskInfo[] {b1, c1, a3});
+
+            scheduler.taskFinished(TASK_TYPE, a2);
+            Assert.assertEquals(0, scheduler.getQueuePosition(b1));
+            assertQueuePositions(scheduler, new WebAsyncTaskInfo[] {c1, a3});
+
+            scheduler.taskFinished(TASK_TYPE, b1);
+            Assert.assertEquals(0, scheduler.getQueuePosition(c1));
+            assertQueuePositions(scheduler, new WebAsyncTaskInfo[] {a3});
+
+            scheduler.taskFinished(TASK_TYPE, c1);
+            Assert.assertEquals(0, scheduler.getQueuePosition(a3));
+        } finally {
+            for (WebAsyncTaskInfo task : new WebAsyncTaskInfo[] {blocker, a2, a3, b1, c1}) {
+                scheduler.cancelQueuedTask(task);
+                scheduler.taskFinished(TASK_TYPE, task);
+            }
+        }
+    }
+
+    @Test
+    public void cancelledTaskLeavesQueue() {
+        WebAsyncTaskScheduler scheduler = WebAsyncTaskScheduler.getInstance();
+        WebAsyncTaskInfo blocker = makeTask("blocker");
+        WebAsyncTaskInfo first = makeTask("first");
+        WebAsyncTaskInfo second = makeTask("second");
+
+        scheduler.submitTask(TASK_TYPE, "ownerA", blocker, 1);
+        scheduler.submitTask(TASK_TYPE, "ownerA", first, 1);
+        scheduler.submitTask(TASK_TYPE, "ownerA", second, 1);
+        try {
+            Assert.assertEquals(2, scheduler.getQueuePosition(second));
+            Assert.assertTrue(scheduler.cancelQueuedTask(first));
+            Assert.assertFalse(scheduler.cancelQueuedTask(first));
+            Assert.assertEquals(0, scheduler.getQueuePosition(first));
+            Assert.assertEquals(1, scheduler.getQueuePosition(second));
+
+            // Running task can't be cancelled in queue
+            Assert.assertFalse(scheduler.cancelQueuedTask(blocker));
+            scheduler.taskFinished(TASK_TYPE, blocker);
+            Assert.assertEquals(0, scheduler.getQueuePosition(second));
+            Assert.assertFalse(scheduler.cancelQueuedTask(second));
+        } finally {
+            for (WebAsyncTaskInfo task : new WebAsyncTaskInfo[] {blocker, first, second}) {
+                scheduler.cancelQueuedTask(task);
+                scheduler.taskFinished(TASK_TYPE, task);
+            }
+        }
+    }
+
+    @Test
+    public void tasksAreNotLimitedWithoutQuota() {
+        WebAsyncTaskScheduler scheduler = WebAsyncTaskScheduler.getInstance();
+        WebAsyncTaskInfo[] tasks = new WebAsyncTaskInfo[10];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = makeTask("task" + i);
+        }
+        try {
+            for (WebAsyncTaskInfo task : tasks) {
+                scheduler.submitTask(TASK_TYPE, "ownerA", task, 0);
+                Assert.assertEquals(0, scheduler.getQueuePosition(task));
+            }
+        } finally {
+            for (WebAsyncTaskInfo task : tasks) {
+                scheduler.taskFinished(TASK_TYPE, task);
+            }
+        }
+    }
+
+    private static void assertQueuePositions(WebAsyncTaskScheduler scheduler, WebAsyncTaskInfo[] expectedOrder) {
+        for (int i = 0; i < expectedOrder.length; i++) {
+            Assert.assertEquals(expectedOrder[i].getName(), i + 1, scheduler.getQueuePosition(expectedOrder[i]));
+        }
+    }
+
+    private static WebAsyncTaskInfo makeTask(String name) {
+        WebAsyncTaskInfo taskInfo = new WebAsyncTaskInfo(name, name);
+        taskInfo.setJob(new AbstractJob(name) {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                return Status.OK_STATUS;
+            }
+        });
+        return taskInfo;
+    }
+}
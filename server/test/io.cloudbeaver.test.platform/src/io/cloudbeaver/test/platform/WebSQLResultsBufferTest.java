@@ -0,0 +1,152 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.service.sql.WebSQLResultsBuffer;
+import org.junit.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class WebSQLResultsBufferTest {
+
+    private static final int ROW_COUNT = 1000;
+
+    private Path tempFolder;
+
+    @Before
+    public void createTempFolder() throws IOException {
+        tempFolder = Files.createTempDirectory("cb-results-buffer");
+    }
+
+    @After
+    public void deleteTempFolder() throws IOException {
+        try (Stream<Path> files = Files.list(tempFolder)) {
+            for (Path file : files.toArray(Path[]::new)) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(tempFolder);
+    }
+
+    @Test
+    public void rowsAreReadBack() throws Exception {
+        Object[][] rows = makeRows();
+        WebSQLResultsBuffer buffer = fillBuffer(rows);
+        try {
+            Assert.assertEquals(ROW_COUNT, buffer.getRowCount());
+            Assert.assertFalse(buffer.isSpilled());
+            assertRows(rows, buffer, 0, ROW_COUNT);
+            assertRows(rows, buffer, 100, 200);
+        } finally {
+            buffer.dispose();
+        }
+    }
+
+    @Test
+    public void spilledRowsAreReadBack() throws Exception {
+        Object[][] rows = makeRows();
+        WebSQLResultsBuffer buffer = fillBuffer(rows);
+        try {
+            long heapSize = buffer.getHeapSize();
+            long dataSize = buffer.getDataSize();
+            buffer.spill(tempFolder);
+
+            Assert.assertTrue(buffer.isSpilled());
+            Assert.assertTrue(buffer.getHeapSize() < heapSize);
+            Assert.assertTrue(buffer.getDataSize() > buffer.getHeapSize());
+            Assert.assertTrue(buffer.getDataSize() <= dataSize);
+            assertRows(rows, buffer, 0, ROW_COUNT);
+            assertRows(rows, buffer, 0, 1);
+            assertRows(rows, buffer, 500, 563);
+            assertRows(rows, buffer, ROW_COUNT - 1, ROW_COUNT);
+            Assert.assertEquals(0, buffer.readRows(10, 10).length);
+        } finally {
+            buffer.dispose();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void spilledBufferIsReadOnly() throws Exception {
+        WebSQLResultsBuffer buffer = fillBuffer(makeRows());
+        try {
+            buffer.spill(tempFolder);
+            buffer.addRow(new Object[] {"1", "text", true, null, null, null});
+        } finally {
+            buffer.dispose();
+        }
+    }
+
+    @Test
+    public void spillFileIsDeletedOnDispose() throws Exception {
+        WebSQLResultsBuffer buffer = fillBuffer(makeRows());
+        buffer.spill(tempFolder);
+        Assert.assertEquals(1, getFileCount());
+
+        buffer.dispose();
+        Assert.assertEquals(0, getFileCount());
+        Assert.assertFalse(buffer.isSpilled());
+    }
+
+    private static WebSQLResultsBuffer fillBuffer(Object[][] rows) {
+        WebSQLResultsBuffer buffer = new WebSQLResultsBuffer(0);
+        for (Object[] row : rows) {
+            buffer.addRow(row);
+        }
+        buffer.setComplete(true);
+        return buffer;
+    }
+
+    private static Object[][] makeRows() {
+        Object[][] rows = new Object[ROW_COUNT][];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            rows[i] = new Object[] {
+                // Integer column
+                i % 10 == 0 ? null : String.valueOf(i * 1000L - 500),
+                // String column with non-ASCII characters
+                i % 7 == 0 ? null : "row " + i + " данные",
+                // Boolean column
+                i % 11 == 0 ? null : i % 2 == 0,
+                // Integer column which becomes string column
+                i < ROW_COUNT / 2 ? String.valueOf(i) : "0" + i,
+                // Column which starts with nulls and becomes object column
+                i < 100 ? null : i < ROW_COUNT / 2 ? "value " + i : Map.of("value", i),
+                // Empty strings
+                i % 3 == 0 ? null : ""
+            };
+        }
+        return rows;
+    }
+
+    private static void assertRows(Object[][] expected, WebSQLResultsBuffer buffer, int fromRow, int toRow) throws IOException {
+        Object[][] rows = buffer.readRows(fromRow, toRow);
+        Assert.assertEquals(toRow - fromRow, rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            Assert.assertArrayEquals("Row " + (fromRow + i), expected[fromRow + i], rows[i]);
+        }
+    }
+
+    private long getFileCount() throws IOException {
+        try (Stream<Path> files = Files.list(tempFolder)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.service.sql.WebSQLContextInfo;
+import io.cloudbeaver.service.sql.WebSQLResultsBuffer;
+import io.cloudbeaver.service.sql.WebSQLResultsCache;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class WebSQLResultsCacheTest {
+
+    private static final String QUERY_KEY = "resultset:select * from test";
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    @Test
+    public void pageIsReadFromCache() {
+        WebSQLResultsCache cache = new WebSQLResultsCache(100, NO_LIMIT, NO_LIMIT, NO_LIMIT, 0);
+        WebSQLContextInfo contextInfo = mockContext("context");
+        cache.putResults(contextInfo, "results", QUERY_KEY, makeBuffer(10, 30, true));
+
+        assertPage(cache.readPage(contextInfo, "results", QUERY_KEY, 10, 10), 10, 10);
+        assertPage(cache.readPage(contextInfo, "results", QUERY_KEY, 25, 10), 25, 10);
+        // The last page is truncated by the end of result
+        assertPage(cache.readPage(contextInfo, "results", QUERY_KEY, 35, 10), 35, 5);
+        Assert.assertTrue(cache.hasMoreRows(contextInfo, "results", 35));
+        Assert.assertFalse(cache.hasMoreRows(contextInfo, "results", 40));
+
+        // Rows before the buffer, another query or another context are not served
+        Assert.assertNull(cache.readPage(contextInfo, "results", QUERY_KEY, 5, 10));
+        Assert.assertNull(cache.readPage(contextInfo, "results", "resultset:select 1", 10, 10));
+        Assert.assertNull(cache.readPage(mockContext("another"), "results", QUERY_KEY, 10, 10));
+
+        cache.dispose();
+        Assert.assertNull(cache.readPage(contextInfo, "results", QUERY_KEY, 10, 10));
+    }
+
+    @Test
+    public void incompleteResultsAreNotTruncated() {
+        WebSQLResultsCache cache = new WebSQLResultsCache(100, NO_LIMIT, NO_LIMIT, NO_LIMIT, 0);
+        WebSQLContextInfo contextInfo = mockContext("context");
+        cache.putResults(contextInfo, "results", QUERY_KEY, makeBuffer(0, 30, false));
+
+        assertPage(cache.readPage(contextInfo, "results", QUERY_KEY, 20, 10), 20, 10);
+        // Rows after the buffer must be fetched from the database
+        Assert.assertNull(cache.readPage(contextInfo, "results", QUERY_KEY, 25, 10));
+        Assert.assertTrue(cache.hasMoreRows(contextInfo, "results", 30));
+        cache.dispose();
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreEvicted() {
+        WebSQLResultsCache cache = new WebSQLResultsCache(100, 100, NO_LIMIT, NO_LIMIT, 0);
+        WebSQLContextInfo contextInfo = mockContext("context");
+        cache.putResults(contextInfo, "results1", QUERY_KEY, makeBuffer(0, 40, true));
+        cache.putResults(contextInfo, "results2", QUERY_KEY, makeBuffer(0, 40, true));
+        // Touch the first results, so the second one becomes the least recently used
+        Assert.assertNotNull(cache.readPage(contextInfo, "results1", QUERY_KEY, 0, 10));
+
+        cache.putResults(contextInfo, "results3", QUERY_KEY, makeBuffer(0, 40, true));
+
+        Assert.assertNotNull(cache.readPage(contextInfo, "results1", QUERY_KEY, 0, 10));
+        Assert.assertNull(cache.readPage(contextInfo, "results2", QUERY_KEY, 0, 10));
+        Assert.assertNotNull(cache.readPage(contextInfo, "results3", QUERY_KEY, 0, 10));
+
+        // Results which exceed the cache limit are not cached at all
+        cache.putResults(contextInfo, "results4", QUERY_KEY, makeBuffer(0, 101, true));
+        Assert.assertNull(cache.readPage(contextInfo, "results4", QUERY_KEY, 0, 10));
+        Assert.assertNotNull(cache.readPage(contextInfo, "results1", QUERY_KEY, 0, 10));
+        cache.dispose();
+    }
+
+    @Test
+    public void memoryIsReleasedInLeastRecentlyUsedOrder() {
+        WebSQLResultsCache cache = new WebSQLResultsCache(100, NO_LIMIT, NO_LIMIT, NO_LIMIT, 0);
+        WebSQLContextInfo contextInfo = mockContext("context");
+        cache.putResults(contextInfo, "results1", QUERY_KEY, makeBuffer(0, 40, true));
+        long entrySize = cache.getMemoryUsage();
+        cache.putResults(contextInfo, "results2", QUERY_KEY, makeBuffer(0, 40, true));
+        Assert.assertTrue(cache.getMemoryUsage() > entrySize);
+
+        Assert.assertTrue(cache.releaseMemory(1) > 0);
+        Assert.assertNull(cache.readPage(contextInfo, "results1", QUERY_KEY, 0, 10));
+        Assert.assertNotNull(cache.readPage(contextInfo, "results2", QUERY_KEY, 0, 10));
+
+        cache.removeContext(contextInfo);
+        Assert.assertEquals(0, cache.getMemoryUsage());
+    }
+
+    @Test
+    public void expiredResultsAreRemoved() throws Exception {
+        WebSQLResultsCache cache = new WebSQLResultsCache(100, NO_LIMIT, NO_LIMIT, NO_LIMIT, 100);
+        WebSQLContextInfo contextInfo = mockContext("context");
+        cache.putResults(contextInfo, "results", QUERY_KEY, makeBuffer(0, 40, true));
+        Assert.assertNotNull(cache.readPage(contextInfo, "results", QUERY_KEY, 0, 10));
+
+        Thread.sleep(300);
+
+        Assert.assertNull(cache.readPage(contextInfo, "results", QUERY_KEY, 0, 10));
+        Assert.assertEquals(0, cache.getMemoryUsage());
+    }
+
+    @Test
+    public void resultsAreSpilledAboveHeapLimit() {
+        WebSQLResultsCache cache = new WebSQLResultsCache(100, NO_LIMIT, NO_LIMIT, 1, 0);
+        WebSQLContextInfo contextInfo = mockContext("context");
+        WebSQLResultsBuffer buffer = makeBuffer(0, 1000, true);
+        long heapSize = buffer.getHeapSize();
+
+        cache.putResults(contextInfo, "results", QUERY_KEY, buffer);
+
+        Assert.assertTrue(buffer.isSpilled());
+        Assert.assertTrue(cache.getMemoryUsage() < heapSize);
+        assertPage(cache.readPage(contextInfo, "results", QUERY_KEY, 500, 100), 500, 100);
+
+        // Spilled file is deleted with results
+        cache.removeResults(contextInfo, "results");
+        Assert.assertFalse(buffer.isSpilled());
+        Assert.assertEquals(0, cache.getMemoryUsage());
+    }
+
+    @Test
+    public void resultsAreMovedToNewId() {
+        WebSQLResultsCache cache = new WebSQLResultsCache(100, NO_LIMIT, NO_LIMIT, NO_LIMIT, 0);
+        WebSQLContextInfo contextInfo = mockContext("context");
+        cache.putResults(contextInfo, "results", QUERY_KEY, makeBuffer(0, 40, true));
+
+        cache.moveResults(contextInfo, "results", "nextResults");
+
+        Assert.assertNull(cache.readPage(contextInfo, "results", QUERY_KEY, 0, 10));
+        assertPage(cache.readPage(contextInfo, "nextResults", QUERY_KEY, 0, 10), 0, 10);
+        cache.dispose();
+    }
+
+    private static WebSQLContextInfo mockContext(String id) {
+        WebSQLContextInfo contextInfo = Mockito.mock(WebSQLContextInfo.class);
+        Mockito.when(contextInfo.getId()).thenReturn(id);
+        return contextInfo;
+    }
+
+    private static WebSQLResultsBuffer makeBuffer(long offset, int rowCount, boolean complete) {
+        WebSQLResultsBuffer buffer = new WebSQLResultsBuffer(offset);
+        for (long i = offset; i < offset + rowCount; i++) {
+            buffer.addRow(new Object[] {String.valueOf(i), "name " + i});
+        }
+        buffer.setComplete(complete);
+        return buffer;
+    }
+
+    private static void assertPage(Object[][] page, long offset, int rowCount) {
+        Assert.assertNotNull(page);
+        Assert.assertEquals(rowCount, page.length);
+        for (int i = 0; i < rowCount; i++) {
+            Assert.assertArrayEquals(new Object[] {String.valueOf(offset + i), "name " + (offset + i)}, page[i]);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.model.session.WebSession;
+import io.cloudbeaver.server.CBAppConfig;
+import io.cloudbeaver.server.CBApplication;
+import io.cloudbeaver.service.sql.WebDataFormat;
+import io.cloudbeaver.service.sql.WebSQLConstants;
+import io.cloudbeaver.service.sql.WebSQLUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.utils.Base64;
+import org.jkiss.utils.CommonUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Blob;
+import java.util.Arrays;
+import java.util.Map;
+
+public class WebSQLUtilsTest {
+
+    @Test
+    public void shortBinaryContentIsNotTruncated() throws Exception {
+        byte[] data = makeData(100);
+        Blob blob = mockBlob(data);
+
+        Map<?, ?> value = makeContentValue(blob);
+
+        Assert.assertEquals(WebSQLConstants.VALUE_TYPE_CONTENT, value.get(WebSQLConstants.VALUE_TYPE_ATTR));
+        Assert.assertNull(value.get(WebSQLConstants.ATTR_TRUNCATED));
+        Assert.assertArrayEquals(data, Base64.decode((String) value.get(WebSQLConstants.ATTR_BINARY)));
+        Assert.assertEquals(100, ((String) value.get(WebSQLConstants.ATTR_TEXT)).length());
+    }
+
+    @Test
+    public void longBinaryContentIsTruncatedToBinaryPreview() throws Exception {
+        int binaryPreviewMaxLength = getQuota(
+            WebSQLConstants.QUOTA_PROP_BINARY_PREVIEW_MAX_LENGTH, WebSQLConstants.BINARY_PREVIEW_MAX_LENGTH);
+        int textPreviewMaxLength = getQuota(
+            WebSQLConstants.QUOTA_PROP_TEXT_PREVIEW_MAX_LENGTH, WebSQLConstants.TEXT_PREVIEW_MAX_LENGTH);
+        byte[] data = makeData(binaryPreviewMaxLength * 2);
+        Blob blob = mockBlob(data);
+
+        Map<?, ?> value = makeContentValue(blob);
+
+        Assert.assertEquals(Boolean.TRUE, value.get(WebSQLConstants.ATTR_TRUNCATED));
+        Assert.assertArrayEquals(
+            Arrays.copyOf(data, binaryPreviewMaxLength),
+            Base64.decode((String) value.get(WebSQLConstants.ATTR_BINARY)));
+        Assert.assertEquals(textPreviewMaxLength, ((String) value.get(WebSQLConstants.ATTR_TEXT)).length());
+        // Only the prefix is read from Blob
+        Mockito.verify(blob).getBytes(1, Math.max(textPreviewMaxLength, binaryPreviewMaxLength + 1));
+        Mockito.verify(blob, Mockito.never()).getBinaryStream();
+    }
+
+    @Test
+    public void binaryContentOfPreviewLengthIsNotTruncated() throws Exception {
+        int binaryPreviewMaxLength = getQuota(
+            WebSQLConstants.QUOTA_PROP_BINARY_PREVIEW_MAX_LENGTH, WebSQLConstants.BINARY_PREVIEW_MAX_LENGTH);
+        byte[] data = makeData(binaryPreviewMaxLength);
+
+        Map<?, ?> value = makeContentValue(mockBlob(data));
+
+        Assert.assertNull(value.get(WebSQLConstants.ATTR_TRUNCATED));
+        Assert.assertArrayEquals(data, Base64.decode((String) value.get(WebSQLConstants.ATTR_BINARY)));
+    }
+
+    private static Map<?, ?> makeContentValue(Blob blob) throws Exception {
+        WebSession session = Mockito.mock(WebSession.class);
+        Mockito.when(session.getProgressMonitor()).thenReturn(Mockito.mock(DBRProgressMonitor.class));
+        DBDContent content = Mockito.mock(DBDContent.class);
+        Mockito.when(content.isNull()).thenReturn(false);
+        Mockito.when(content.getContentType()).thenReturn("application/octet-stream");
+        Mockito.when(content.getRawValue()).thenReturn(blob);
+        Mockito.when(content.getContentLength()).thenReturn(blob.length());
+
+        Object value = WebSQLUtils.makeWebCellValue(session, null, content, WebDataFormat.resultset);
+        Assert.assertTrue(value instanceof Map);
+        // Full content is never read for preview
+        Mockito.verify(content, Mockito.never()).getContents(Mockito.any());
+        return (Map<?, ?>) value;
+    }
+
+    private static Blob mockBlob(byte[] data) throws Exception {
+        Blob blob = Mockito.mock(Blob.class);
+        Mockito.when(blob.length()).thenReturn((long) data.length);
+        Mockito.when(blob.getBytes(Mockito.anyLong(), Mockito.anyInt())).thenAnswer(invocation -> {
+            int from = (int) ((long) invocation.getArgument(0)) - 1;
+            int length = invocation.getArgument(1);
+            return Arrays.copyOfRange(data, from, Math.min(from + length, data.length));
+        });
+        return blob;
+    }
+
+    private static byte[] makeData(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            // Printable characters, so text preview length equals to bytes count
+            data[i] = (byte) ('a' + i % 26);
+        }
+        return data;
+    }
+
+    private static int getQuota(String quotaId, int defaultValue) {
+        CBAppConfig config = CBApplication.getInstance().getAppConfiguration();
+        return CommonUtils.toInt(config.getResourceQuota(quotaId, defaultValue));
+    }
+}
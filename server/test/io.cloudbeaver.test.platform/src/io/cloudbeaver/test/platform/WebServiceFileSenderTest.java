@@ -0,0 +1,217 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.service.WebServiceFileSender;
+import org.junit.*;
+import org.mockito.Mockito;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class WebServiceFileSenderTest {
+
+    private static final int FILE_SIZE = 100;
+
+    private Path file;
+    private byte[] fileData;
+
+    @Before
+    public void createFile() throws Exception {
+        fileData = new byte[FILE_SIZE];
+        for (int i = 0; i < fileData.length; i++) {
+            fileData[i] = (byte) i;
+        }
+        file = Files.createTempFile("cb-file-sender", ".bin");
+        Files.write(file, fileData);
+    }
+
+    @After
+    public void deleteFile() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void wholeFileIsSent() throws Exception {
+        TestResponse response = new TestResponse();
+
+        Assert.assertTrue(new WebServiceFileSender(file).send(mockRequest(Map.of()), response.response));
+
+        Mockito.verify(response.response, Mockito.never()).setStatus(Mockito.anyInt());
+        Assert.assertArrayEquals(fileData, response.getBody());
+        Assert.assertEquals(String.valueOf(FILE_SIZE), response.headers.get("Content-Length"));
+        Assert.assertEquals("bytes", response.headers.get("Accept-Ranges"));
+        Assert.assertNotNull(response.headers.get("ETag"));
+    }
+
+    @Test
+    public void rangeIsSent() throws Exception {
+        TestResponse response = new TestResponse();
+
+        // Range in the middle of file: content is not sent up to the end
+        Assert.assertFalse(new WebServiceFileSender(file).send(mockRequest(Map.of("Range", "bytes=10-19")), response.response));
+
+        Mockito.verify(response.response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        Assert.assertEquals("bytes 10-19/100", response.headers.get("Content-Range"));
+        Assert.assertEquals("10", response.headers.get("Content-Length"));
+        Assert.assertArrayEquals(Arrays.copyOfRange(fileData, 10, 20), response.getBody());
+    }
+
+    @Test
+    public void openRangeIsSentToEnd() throws Exception {
+        TestResponse response = new TestResponse();
+
+        Assert.assertTrue(new WebServiceFileSender(file).send(mockRequest(Map.of("Range", "bytes=90-")), response.response));
+
+        Assert.assertEquals("bytes 90-99/100", response.headers.get("Content-Range"));
+        Assert.assertArrayEquals(Arrays.copyOfRange(fileData, 90, FILE_SIZE), response.getBody());
+    }
+
+    @Test
+    public void suffixRangeIsSent() throws Exception {
+        TestResponse response = new TestResponse();
+
+        Assert.assertTrue(new WebServiceFileSender(file).send(mockRequest(Map.of("Range", "bytes=-5")), response.response));
+
+        Assert.assertEquals("bytes 95-99/100", response.headers.get("Content-Range"));
+        Assert.assertArrayEquals(Arrays.copyOfRange(fileData, 95, FILE_SIZE), response.getBody());
+    }
+
+    @Test
+    public void rangeEndIsLimitedByFileSize() throws Exception {
+        TestResponse response = new TestResponse();
+
+        Assert.assertTrue(new WebServiceFileSender(file).send(mockRequest(Map.of("Range", "bytes=50-1000")), response.response));
+
+        Assert.assertEquals("bytes 50-99/100", response.headers.get("Content-Range"));
+        Assert.assertEquals(50, response.getBody().length);
+    }
+
+    @Test
+    public void unsatisfiableRangeIsRejected() throws Exception {
+        TestResponse response = new TestResponse();
+
+        Assert.assertFalse(new WebServiceFileSender(file).send(mockRequest(Map.of("Range", "bytes=100-")), response.response));
+
+        Mockito.verify(response.response).sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        Assert.assertEquals("bytes */100", response.headers.get("Content-Range"));
+        Assert.assertEquals(0, response.getBody().length);
+    }
+
+    @Test
+    public void unsupportedRangesAreIgnored() throws Exception {
+        for (String range : new String[] {"bytes=0-9,20-29", "lines=1-2", "bytes=a-b"}) {
+            TestResponse response = new TestResponse();
+
+            Assert.assertTrue(new WebServiceFileSender(file).send(mockRequest(Map.of("Range", range)), response.response));
+
+            Mockito.verify(response.response, Mockito.never()).setStatus(Mockito.anyInt());
+            Assert.assertArrayEquals(range, fileData, response.getBody());
+        }
+    }
+
+    @Test
+    public void ifRangeWithMatchingETagSendsRange() throws Exception {
+        String etag = getETag();
+        TestResponse response = new TestResponse();
+
+        new WebServiceFileSender(file).send(mockRequest(Map.of("Range", "bytes=10-19", "If-Range", etag)), response.response);
+
+        Mockito.verify(response.response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        Assert.assertArrayEquals(Arrays.copyOfRange(fileData, 10, 20), response.getBody());
+    }
+
+    @Test
+    public void ifRangeWithChangedETagSendsWholeFile() throws Exception {
+        TestResponse response = new TestResponse();
+
+        Assert.assertTrue(new WebServiceFileSender(file).send(
+            mockRequest(Map.of("Range", "bytes=10-19", "If-Range", "\"changed\"")), response.response));
+
+        Mockito.verify(response.response, Mockito.never()).setStatus(Mockito.anyInt());
+        Assert.assertNull(response.headers.get("Content-Range"));
+        Assert.assertArrayEquals(fileData, response.getBody());
+    }
+
+    @Test
+    public void ifNoneMatchReturnsNotModified() throws Exception {
+        String etag = getETag();
+        TestResponse response = new TestResponse();
+
+        Assert.assertFalse(new WebServiceFileSender(file).send(mockRequest(Map.of("If-None-Match", etag)), response.response));
+
+        Mockito.verify(response.response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        Assert.assertEquals(0, response.getBody().length);
+    }
+
+    private String getETag() throws Exception {
+        TestResponse response = new TestResponse();
+        new WebServiceFileSender(file).send(mockRequest(Map.of()), response.response);
+        return response.headers.get("ETag");
+    }
+
+    private static HttpServletRequest mockRequest(Map<String, String> headers) {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getHeader(Mockito.anyString())).thenAnswer(invocation -> headers.get(invocation.<String>getArgument(0)));
+        Mockito.when(request.getDateHeader(Mockito.anyString())).thenReturn(-1L);
+        return request;
+    }
+
+    private static class TestResponse {
+        private final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        private final Map<String, String> headers = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        TestResponse() throws Exception {
+            Mockito.doAnswer(invocation -> headers.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(response).setHeader(Mockito.anyString(), Mockito.anyString());
+            Mockito.when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.write(b, off, len);
+                }
+            });
+        }
+
+        byte[] getBody() {
+            return body.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.model.session.WebSession;
+import io.cloudbeaver.service.session.WebSessionManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class WebSessionManagerTest {
+
+    private static final long MAX_IDLE_TIME = TimeUnit.HOURS.toMillis(1);
+
+    // Separate manager, so sessions of the test server are not affected
+    private final WebSessionManager sessionManager = new WebSessionManager();
+    private final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+    @After
+    public void closeSessions() throws Exception {
+        Thread.sleep(10);
+        sessionManager.expireIdleSessions(0);
+        Assert.assertTrue(sessionManager.getAllActiveSessions().isEmpty());
+    }
+
+    @Test
+    public void closedSessionIsRemoved() throws Exception {
+        HttpServletRequest request = mockRequest("closedSession");
+        WebSession webSession = sessionManager.getWebSession(request, response);
+        Assert.assertSame(webSession, sessionManager.getWebSession("closedSession"));
+        Assert.assertSame(webSession, sessionManager.getWebSession(request, response));
+
+        Assert.assertSame(webSession, sessionManager.closeSession(request));
+        Assert.assertNull(sessionManager.getWebSession("closedSession"));
+        Assert.assertNull(sessionManager.closeSession(request));
+
+        // Session with the same ID is a new session
+        WebSession newSession = sessionManager.getWebSession(request, response);
+        Assert.assertNotSame(webSession, newSession);
+        sessionManager.expireIdleSessions(MAX_IDLE_TIME);
+        Assert.assertSame(newSession, sessionManager.getWebSession("closedSession"));
+    }
+
+    @Test
+    public void idleSessionsAreExpired() throws Exception {
+        HttpServletRequest request1 = mockRequest("session1");
+        WebSession session1 = sessionManager.getWebSession(request1, response);
+        sessionManager.getWebSession(mockRequest("session2"), response);
+        sessionManager.getWebSession(mockRequest("session3"), response);
+
+        Thread.sleep(500);
+        // The first session is accessed, it is the first in the expiry queue but it is not idle anymore
+        sessionManager.getWebSession(request1, response);
+        sessionManager.expireIdleSessions(250);
+
+        Assert.assertSame(session1, sessionManager.getWebSession("session1"));
+        Assert.assertNull(sessionManager.getWebSession("session2"));
+        Assert.assertNull(sessionManager.getWebSession("session3"));
+        Assert.assertEquals(List.of(session1), sessionManager.getAllActiveSessions());
+
+        // Re-queued session is expired by its actual access time
+        sessionManager.expireIdleSessions(MAX_IDLE_TIME);
+        Assert.assertSame(session1, sessionManager.getWebSession("session1"));
+        Thread.sleep(500);
+        sessionManager.expireIdleSessions(250);
+        Assert.assertNull(sessionManager.getWebSession("session1"));
+    }
+
+    @Test
+    public void concurrentRequestsCreateOneSession() throws Exception {
+        HttpServletRequest request = mockRequest("concurrentSession");
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<WebSession>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executor.submit(() -> {
+                    startLatch.await();
+                    return sessionManager.getWebSession(request, response);
+                }));
+            }
+            startLatch.countDown();
+            Set<WebSession> sessions = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<WebSession> result : results) {
+                sessions.add(result.get(1, TimeUnit.MINUTES));
+            }
+            Assert.assertEquals(1, sessions.size());
+            Assert.assertSame(sessions.iterator().next(), sessionManager.getWebSession("concurrentSession"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reports session lookup throughput and the cost of expiry check when no session is idle
+     */
+    @Test
+    public void sessionLookupBenchmark() throws Exception {
+        int sessionCount = 200;
+        String[] sessionIds = new String[sessionCount];
+        for (int i = 0; i < sessionCount; i++) {
+            sessionIds[i] = "benchmarkSession" + i;
+            sessionManager.getWebSession(mockRequest(sessionIds[i]), response);
+        }
+
+        int threadCount = 4;
+        int lookupCount = 1000000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            long startTime = System.nanoTime();
+            for (int t = 0; t < threadCount; t++) {
+                results.add(executor.submit(() -> {
+                    int found = 0;
+                    for (int i = 0; i < lookupCount; i++) {
+                        if (sessionManager.getWebSession(sessionIds[i % sessionCount]) != null) {
+                            found++;
+                        }
+                    }
+                    return found;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(lookupCount, result.get(1, TimeUnit.MINUTES).intValue());
+            }
+            long lookupTime = System.nanoTime() - startTime;
+            System.out.println("Session lookups: " + (threadCount * (long) lookupCount * 1000000 / Math.max(lookupTime, 1)) + " ops/ms");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int checkCount = 10000;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < checkCount; i++) {
+            sessionManager.expireIdleSessions(MAX_IDLE_TIME);
+        }
+        long checkTime = System.nanoTime() - startTime;
+        System.out.println("Idle sessions check: " + (checkTime / checkCount) + " ns/op (" + sessionCount + " sessions)");
+        Assert.assertEquals(sessionCount, sessionManager.getAllActiveSessions().size());
+    }
+
+    private static HttpServletRequest mockRequest(String sessionId) {
+        HttpSession httpSession = Mockito.mock(HttpSession.class);
+        Mockito.when(httpSession.getId()).thenReturn(sessionId);
+        Mockito.when(httpSession.isNew()).thenReturn(true);
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getSession()).thenReturn(httpSession);
+        Mockito.when(request.getSession(Mockito.anyBoolean())).thenReturn(httpSession);
+        return request;
+    }
+}
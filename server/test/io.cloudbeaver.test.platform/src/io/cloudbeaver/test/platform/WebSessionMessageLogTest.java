@@ -0,0 +1,107 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2022 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.cloudbeaver.test.platform;
+
+import io.cloudbeaver.model.WebServerMessage;
+import io.cloudbeaver.model.session.WebSessionMessageLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class WebSessionMessageLogTest {
+
+    @Test
+    public void repeatedMessagesAreMerged() {
+        WebSessionMessageLog log = new WebSessionMessageLog(10);
+        log.addMessage(info("first"));
+        log.addMessage(info("second"));
+        log.addMessage(info("second"));
+        log.addMessage(info("second"));
+
+        List<WebServerMessage> messages = log.readMessages(null, 0, false);
+        Assert.assertEquals(List.of("first", "second"), getTexts(messages));
+        Assert.assertEquals(1, messages.get(0).getRepeatCount());
+        Assert.assertEquals(3, messages.get(1).getRepeatCount());
+    }
+
+    @Test
+    public void deliveredMessageIsNotMerged() {
+        WebSessionMessageLog log = new WebSessionMessageLog(10);
+        log.addMessage(info("message"));
+        List<WebServerMessage> firstRead = log.readMessages(null, 0, false);
+        Assert.assertEquals(1, firstRead.size());
+
+        // Client has already seen the message, so its repeat must be a new message
+        log.addMessage(info("message"));
+        List<WebServerMessage> secondRead = log.readMessages(firstRead.get(0).getId(), 0, false);
+        Assert.assertEquals(1, secondRead.size());
+        Assert.assertEquals(1, firstRead.get(0).getRepeatCount());
+        Assert.assertEquals(1, secondRead.get(0).getRepeatCount());
+        Assert.assertTrue(secondRead.get(0).getId() > firstRead.get(0).getId());
+    }
+
+    @Test
+    public void differentTypesAreNotMerged() {
+        WebSessionMessageLog log = new WebSessionMessageLog(10);
+        log.addMessage(info("message"));
+        log.addMessage(new WebServerMessage(WebServerMessage.MessageType.ERROR, "message"));
+
+        Assert.assertEquals(2, log.readMessages(null, 0, false).size());
+    }
+
+    @Test
+    public void oldestMessagesAreOverwritten() {
+        WebSessionMessageLog log = new WebSessionMessageLog(5);
+        for (int i = 0; i < 12; i++) {
+            log.addMessage(info("message " + i));
+        }
+
+        List<WebServerMessage> messages = log.readMessages(null, 0, false);
+        Assert.assertEquals(
+            List.of("message 7", "message 8", "message 9", "message 10", "message 11"),
+            getTexts(messages));
+    }
+
+    @Test
+    public void readAfterIdAndClear() {
+        WebSessionMessageLog log = new WebSessionMessageLog(10);
+        for (int i = 0; i < 6; i++) {
+            log.addMessage(info("message " + i));
+        }
+
+        List<WebServerMessage> firstPage = log.readMessages(null, 4, false);
+        Assert.assertEquals(List.of("message 0", "message 1", "message 2", "message 3"), getTexts(firstPage));
+        List<WebServerMessage> nextPage = log.readMessages(firstPage.get(3).getId(), 0, false);
+        Assert.assertEquals(List.of("message 4", "message 5"), getTexts(nextPage));
+
+        log.readMessages(null, 0, true);
+        Assert.assertTrue(log.readMessages(null, 0, false).isEmpty());
+        log.addMessage(info("message 6"));
+        Assert.assertEquals(List.of("message 6"), getTexts(log.readMessages(null, 0, false)));
+    }
+
+    private static WebServerMessage info(String text) {
+        return new WebServerMessage(WebServerMessage.MessageType.INFO, text);
+    }
+
+    private static List<String> getTexts(List<WebServerMessage> messages) {
+        return messages.stream().map(WebServerMessage::getMessage).collect(Collectors.toList());
+    }
+}